@@ -0,0 +1,126 @@
+package com.wealth.finance.config;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.ReplaceOptions;
+import com.wealth.finance.model.Category;
+import com.wealth.finance.model.MonthlyRollup;
+import com.wealth.finance.model.Transaction;
+import com.wealth.finance.model.Transaction.TransactionType;
+import com.wealth.finance.repository.TransactionRepository;
+import com.wealth.finance.service.CategoryRegistry;
+import com.wealth.finance.service.MonthlyRollupService;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Gives existing transactions the registry id of their category and replaces the monthly rollups,
+ * which were keyed by category name, one user at a time so the rest keep their summaries while it
+ * runs. Runs after the schema migration and is idempotent, so an interrupted run simply repeats on
+ * the next start.
+ */
+@Component
+@Order(2)
+public class CategoryIdMigration implements ApplicationRunner {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CategoryIdMigration.class);
+    
+    private static final String MIGRATION_ID = "transaction-category-ids-v1";
+    private static final String MIGRATIONS = "migrations";
+    private static final String LEGACY_ROLLUP_INDEX = "user_month_type_category";
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private CategoryRegistry categoryRegistry;
+    
+    @Autowired
+    private MonthlyRollupService rollupService;
+    
+    @Autowired
+    private TransactionSchemaMigration schemaMigration;
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        MongoCollection<Document> migrations = mongoTemplate.getCollection(MIGRATIONS);
+        if (migrations.countDocuments(new Document("_id", MIGRATION_ID).append("done", true)) > 0) {
+            return;
+        }
+        if (!schemaMigration.isComplete()) {
+            logger.warn("Category id migration postponed until the transaction schema migration has finished");
+            return;
+        }
+        
+        try {
+            long started = System.currentTimeMillis();
+            dropLegacyRollupIndex();
+            long assigned = assignCategoryIds();
+            replaceRollups();
+            migrations.replaceOne(new Document("_id", MIGRATION_ID),
+                    new Document("_id", MIGRATION_ID).append("done", true).append("assigned", assigned).append("finishedAt", new Date()),
+                    new ReplaceOptions().upsert(true));
+            logger.info("Category id migration assigned ids to {} transactions in {} ms", assigned, System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            logger.error("Category id migration stopped, it will run again on the next start", e);
+        }
+    }
+    
+    private void dropLegacyRollupIndex() {
+        MongoCollection<Document> rollups = mongoTemplate.getCollection(mongoTemplate.getCollectionName(MonthlyRollup.class));
+        for (Document index : rollups.listIndexes()) {
+            if (LEGACY_ROLLUP_INDEX.equals(index.getString("name"))) {
+                rollups.dropIndex(LEGACY_ROLLUP_INDEX);
+            }
+        }
+    }
+    
+    private void replaceRollups() {
+        List<String> userIds = mongoTemplate.findDistinct(new Query(), "userId", Transaction.class, String.class);
+        for (String userId : userIds) {
+            rollupService.replaceLegacy(userId);
+        }
+        // Users without transactions have nothing to rebuild from
+        mongoTemplate.remove(Query.query(Criteria.where("categoryId").exists(false)), MonthlyRollup.class);
+        logger.info("Category id migration replaced the monthly rollups of {} users", userIds.size());
+    }
+    
+    private long assignCategoryIds() {
+        // One update per distinct (user, category name) rather than per transaction
+        TypedAggregation<Transaction> aggregation = Aggregation.newAggregation(Transaction.class,
+                Aggregation.match(Criteria.where("categoryId").exists(false)),
+                Aggregation.group("userId", "category").first("type").as("type"));
+        
+        long assigned = 0;
+        try (Stream<Document> pairs = mongoTemplate.aggregateStream(aggregation, Document.class)) {
+            for (Document pair : (Iterable<Document>) pairs::iterator) {
+                Document key = pair.get("_id", Document.class);
+                String userId = key.getString("userId");
+                String name = key.getString("category");
+                if (userId == null || name == null || name.isBlank()) {
+                    continue;
+                }
+                String type = pair.getString("type");
+                Category category = categoryRegistry.resolve(userId, name, type != null ? TransactionType.valueOf(type) : null);
+                assigned += transactionRepository.assignCategoryIds(userId, name, category.getId());
+            }
+        }
+        return assigned;
+    }
+}
@@ -0,0 +1,196 @@
+package com.wealth.finance.config;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
+import com.wealth.finance.model.ImportFingerprint;
+import com.wealth.finance.model.Transaction.TransactionType;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Fingerprints the transactions stored before import duplicate detection existed, so that re-importing
+ * a statement imported earlier skips its rows. Works through one user at a time, checkpointing after each,
+ * and reads a user's transactions grouped by account and day through user_account_date_id. Identical rows
+ * of a day are numbered like an import numbers them, skipping ordinals that are already taken. The schema
+ * migration has already ensured the indexes, so the unique user_fingerprint index is in place while this
+ * runs: a fingerprint an import stored in the meantime fails that row with a duplicate key error, which is
+ * tolerated and leaves the older row without one. Any other write error stops the backfill.
+ */
+@Component
+@Order(4)
+public class ImportFingerprintMigration implements ApplicationRunner {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ImportFingerprintMigration.class);
+    
+    private static final String MIGRATION_ID = "transaction-import-fingerprints-v1";
+    private static final String MIGRATIONS = "migrations";
+    private static final String TRANSACTIONS = "transactions";
+    private static final String USERS = "users";
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private TransactionSchemaMigration schemaMigration;
+    
+    @Value("${transactions.import.duplicates.backfill-batch-size:1000}")
+    private int batchSize;
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!schemaMigration.isComplete()) {
+            logger.warn("Import fingerprint backfill postponed until the transaction schema migration has finished");
+            return;
+        }
+        try {
+            backfill();
+        } catch (RuntimeException e) {
+            logger.error("Import fingerprint backfill stopped, it will resume on the next start", e);
+        }
+    }
+    
+    private void backfill() {
+        MongoCollection<Document> migrations = mongoTemplate.getCollection(MIGRATIONS);
+        Document checkpoint = migrations.find(new Document("_id", MIGRATION_ID)).first();
+        if (checkpoint != null && checkpoint.getBoolean("done", false)) {
+            return;
+        }
+        
+        ObjectId lastUserId = checkpoint != null ? checkpoint.getObjectId("lastUserId") : null;
+        long updated = checkpoint != null ? checkpoint.getLong("updated") : 0;
+        long started = System.currentTimeMillis();
+        
+        Document filter = lastUserId != null ? new Document("_id", new Document("$gt", lastUserId)) : new Document();
+        List<ObjectId> userIds = mongoTemplate.getCollection(USERS).find(filter)
+                .projection(new Document("_id", 1))
+                .sort(new Document("_id", 1))
+                .map(user -> user.getObjectId("_id"))
+                .into(new ArrayList<>());
+        for (ObjectId userId : userIds) {
+            updated += backfillUser(userId.toHexString());
+            migrations.updateOne(new Document("_id", MIGRATION_ID), new Document("$set",
+                    new Document("lastUserId", userId).append("updated", updated).append("updatedAt", new Date())),
+                    new UpdateOptions().upsert(true));
+        }
+        
+        migrations.updateOne(new Document("_id", MIGRATION_ID), new Document("$set",
+                new Document("done", true).append("updated", updated).append("finishedAt", new Date())),
+                new UpdateOptions().upsert(true));
+        logger.info("Import fingerprint backfill finished in {} ms: {} transactions updated", System.currentTimeMillis() - started, updated);
+    }
+    
+    private long backfillUser(String userId) {
+        MongoCollection<Document> transactions = mongoTemplate.getCollection(TRANSACTIONS);
+        List<WriteModel<Document>> writes = new ArrayList<>(batchSize);
+        List<Document> day = new ArrayList<>();
+        long updated = 0;
+        
+        try (MongoCursor<Document> cursor = transactions.find(new Document("u", userId))
+                .projection(new Document("ac", 1).append("dt", 1).append("a", 1).append("t", 1).append("d", 1).append("fp", 1))
+                .sort(new Document("ac", 1).append("dt", -1))
+                .batchSize(batchSize)
+                .iterator()) {
+            while (cursor.hasNext()) {
+                Document transaction = cursor.next();
+                if (!day.isEmpty() && !sameDay(day.get(0), transaction)) {
+                    fingerprintDay(day, writes);
+                    day.clear();
+                }
+                day.add(transaction);
+                if (writes.size() >= batchSize) {
+                    updated += write(transactions, writes);
+                }
+            }
+        }
+        if (!day.isEmpty()) {
+            fingerprintDay(day, writes);
+        }
+        return updated + write(transactions, writes);
+    }
+    
+    private static boolean sameDay(Document first, Document other) {
+        return Objects.equals(first.getString("ac"), other.getString("ac"))
+                && Objects.equals(first.get("dt"), other.get("dt"));
+    }
+    
+    private static void fingerprintDay(List<Document> day, List<WriteModel<Document>> writes) {
+        Set<String> taken = new HashSet<>();
+        day.forEach(transaction -> {
+            if (transaction.getString("fp") != null) {
+                taken.add(transaction.getString("fp"));
+            }
+        });
+        Map<String, Integer> nextOrdinals = new HashMap<>();
+        for (Document transaction : day) {
+            TransactionType type = type(transaction);
+            if (transaction.getString("fp") != null || !(transaction.get("dt") instanceof Number date)
+                    || !(transaction.get("a") instanceof Number cents) || type == null) {
+                continue;
+            }
+            String key = ImportFingerprint.key(transaction.getString("ac"), date.longValue(), cents.longValue(), type,
+                    transaction.getString("d"));
+            int ordinal = nextOrdinals.getOrDefault(key, 0);
+            String fingerprint = ImportFingerprint.of(key, ordinal);
+            while (taken.contains(fingerprint)) {
+                fingerprint = ImportFingerprint.of(key, ++ordinal);
+            }
+            nextOrdinals.put(key, ordinal + 1);
+            taken.add(fingerprint);
+            // Conditional, so a fingerprint written by an import in the meantime wins
+            writes.add(new UpdateOneModel<>(
+                    new Document("_id", transaction.get("_id")).append("fp", new Document("$exists", false)),
+                    new Document("$set", new Document("fp", fingerprint)),
+                    new UpdateOptions()));
+        }
+    }
+    
+    private static TransactionType type(Document transaction) {
+        try {
+            return TransactionType.valueOf(transaction.getString("t"));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return null;
+        }
+    }
+    
+    private static long write(MongoCollection<Document> transactions, List<WriteModel<Document>> writes) {
+        if (writes.isEmpty()) {
+            return 0;
+        }
+        long modified;
+        try {
+            modified = transactions.bulkWrite(writes, new BulkWriteOptions().ordered(false)).getModifiedCount();
+        } catch (MongoBulkWriteException e) {
+            // A row an import stored meanwhile already holds the fingerprint; the older row is left without one
+            if (e.getWriteConcernError() != null || e.getWriteErrors().stream()
+                    .anyMatch(error -> ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY)) {
+                throw e;
+            }
+            modified = e.getWriteResult().getModifiedCount();
+        }
+        writes.clear();
+        return modified;
+    }
+}
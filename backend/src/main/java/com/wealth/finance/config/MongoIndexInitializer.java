@@ -0,0 +1,145 @@
+package com.wealth.finance.config;
+
+import com.wealth.finance.model.Budget;
+import com.wealth.finance.model.MonthlyRollup;
+import com.wealth.finance.model.Transaction;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.context.MappingContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates the indexes declared on the mapped documents and checks that the main query shapes are
+ * served by them. Spring Boot 3 leaves automatic index creation off, so without this the
+ * annotations alone would never produce an index.
+ */
+@Component
+public class MongoIndexInitializer implements ApplicationRunner {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MongoIndexInitializer.class);
+    
+    // Placeholder values: only the plan matters, not the matched documents
+    private static final String SAMPLE_ID = "000000000000000000000000";
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Value("${mongodb.indexes.verify:true}")
+    private boolean verify;
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        ensureIndexes();
+        if (verify) {
+            verifyQueryShapes();
+        }
+    }
+    
+    public void ensureIndexes() {
+        MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> mappingContext =
+                mongoTemplate.getConverter().getMappingContext();
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+        
+        for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+            if (!entity.isAnnotationPresent(org.springframework.data.mongodb.core.mapping.Document.class)) {
+                continue;
+            }
+            IndexOperations indexOperations = mongoTemplate.indexOps(entity.getType());
+            resolver.resolveIndexFor(entity.getTypeInformation()).forEach(index -> {
+                try {
+                    indexOperations.ensureIndex(index);
+                } catch (RuntimeException e) {
+                    logger.error("Could not create index {} on {}", index.getIndexKeys().toJson(), entity.getCollection(), e);
+                }
+            });
+        }
+    }
+    
+    private void verifyQueryShapes() {
+        LocalDate today = LocalDate.now();
+        Sort newestFirst = Sort.by(Sort.Direction.DESC, "date", "id");
+        
+        Map<String, Query> transactionShapes = new LinkedHashMap<>();
+        transactionShapes.put("transactions by user, newest first",
+                new Query(Criteria.where("userId").is(SAMPLE_ID)).with(newestFirst));
+        transactionShapes.put("transactions by user and account, newest first",
+                new Query(Criteria.where("userId").is(SAMPLE_ID).and("accountId").is(SAMPLE_ID)).with(newestFirst));
+        transactionShapes.put("transactions by user and date range",
+                new Query(new Criteria().andOperator(Criteria.where("userId").is(SAMPLE_ID),
+                        Criteria.where("date").gte(today.minusMonths(1)), Criteria.where("date").lte(today))).with(newestFirst));
+        transactionShapes.put("transactions by user, type and date range",
+                new Query(new Criteria().andOperator(
+                        Criteria.where("userId").is(SAMPLE_ID).and("type").is(Transaction.TransactionType.EXPENSE),
+                        Criteria.where("date").gte(today.minusMonths(1)), Criteria.where("date").lte(today))));
+        transactionShapes.put("transactions by user and search token, newest first",
+                new Query(Criteria.where("userId").is(SAMPLE_ID).and("searchTokens").is("sample")).with(newestFirst));
+        transactionShapes.put("transactions by user and category, newest first",
+                new Query(Criteria.where("userId").is(SAMPLE_ID).and("categoryId").is(1)).with(newestFirst));
+        transactionShapes.put("import fingerprints by user",
+                new Query(Criteria.where("userId").is(SAMPLE_ID).and("importFingerprint").in("sample")));
+        transactionShapes.put("due recurring templates in schedule order",
+                new Query(Criteria.where("nextRecurringDate").lte(today))
+                        .with(Sort.by(Sort.Direction.ASC, "nextRecurringDate", "id")));
+        transactionShapes.forEach((name, query) -> explain(name, Transaction.class, query));
+        
+        explain("monthly rollups by user and month", MonthlyRollup.class,
+                new Query(Criteria.where("userId").is(SAMPLE_ID).and("yearMonth").is(today.toString().substring(0, 7))));
+        explain("budgets by user, latest month first", Budget.class,
+                new Query(Criteria.where("userId").is(SAMPLE_ID)).with(Sort.by(Sort.Direction.DESC, "yearMonth")));
+    }
+    
+    private void explain(String name, Class<?> type, Query query) {
+        try {
+            MongoPersistentEntity<?> entity = mongoTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(type);
+            QueryMapper queryMapper = new QueryMapper(mongoTemplate.getConverter());
+            Document filter = queryMapper.getMappedObject(query.getQueryObject(), entity);
+            Document sort = queryMapper.getMappedSort(query.getSortObject(), entity);
+            
+            Document plan = mongoTemplate.getCollection(mongoTemplate.getCollectionName(type))
+                    .find(filter)
+                    .sort(sort)
+                    .explain();
+            Object winningPlan = ((Document) plan.get("queryPlanner")).get("winningPlan");
+            if (containsStage(winningPlan, "COLLSCAN")) {
+                logger.warn("Query shape '{}' falls back to a COLLSCAN: filter={} sort={}", name, filter.toJson(), sort.toJson());
+            } else {
+                logger.info("Query shape '{}' is served by an index", name);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not explain query shape '{}': {}", name, e.getMessage());
+        }
+    }
+    
+    private boolean containsStage(Object node, String stage) {
+        if (node instanceof Document) {
+            Document document = (Document) node;
+            if (stage.equals(document.get("stage"))) {
+                return true;
+            }
+            return document.values().stream().anyMatch(value -> containsStage(value, stage));
+        }
+        if (node instanceof List) {
+            return ((List<?>) node).stream().anyMatch(value -> containsStage(value, stage));
+        }
+        return false;
+    }
+}
@@ -0,0 +1,154 @@
+package com.wealth.finance.config;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
+import com.wealth.finance.model.Transaction.RecurringInterval;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Schedules the recurring templates stored before occurrences were materialized. Such templates have no
+ * next occurrence date, so the recurring_due walk never sees them. The next date is counted from the
+ * template's own date, after the latest occurrence already generated for it, or else after yesterday, so
+ * the missed past is not back-filled but an occurrence due today still is. Walks the templates in _id
+ * order and checkpoints after every batch, like the search token backfill.
+ */
+@Component
+@Order(5)
+public class RecurringScheduleMigration implements ApplicationRunner {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RecurringScheduleMigration.class);
+    
+    private static final String MIGRATION_ID = "transaction-recurring-schedule-v1";
+    private static final String MIGRATIONS = "migrations";
+    private static final String TRANSACTIONS = "transactions";
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private TransactionSchemaMigration schemaMigration;
+    
+    @Value("${recurring.materialize.backfill-batch-size:1000}")
+    private int batchSize;
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!schemaMigration.isComplete()) {
+            logger.warn("Recurring schedule backfill postponed until the transaction schema migration has finished");
+            return;
+        }
+        try {
+            backfill(LocalDate.now());
+        } catch (RuntimeException e) {
+            logger.error("Recurring schedule backfill stopped, it will resume on the next start", e);
+        }
+    }
+    
+    void backfill(LocalDate today) {
+        MongoCollection<Document> migrations = mongoTemplate.getCollection(MIGRATIONS);
+        Document checkpoint = migrations.find(new Document("_id", MIGRATION_ID)).first();
+        if (checkpoint != null && checkpoint.getBoolean("done", false)) {
+            return;
+        }
+        
+        MongoCollection<Document> transactions = mongoTemplate.getCollection(TRANSACTIONS);
+        ObjectId lastId = checkpoint != null ? checkpoint.getObjectId("lastId") : null;
+        long updated = checkpoint != null ? checkpoint.getLong("updated") : 0;
+        long started = System.currentTimeMillis();
+        
+        while (true) {
+            Document filter = new Document("r", true)
+                    .append("ri", new Document("$exists", true))
+                    .append("nr", new Document("$exists", false))
+                    .append("rs", new Document("$exists", false));
+            if (lastId != null) {
+                filter.append("_id", new Document("$gt", lastId));
+            }
+            List<Document> templates = transactions.find(filter)
+                    .projection(new Document("dt", 1).append("ri", 1))
+                    .sort(new Document("_id", 1))
+                    .limit(batchSize)
+                    .into(new ArrayList<>());
+            if (templates.isEmpty()) {
+                break;
+            }
+            
+            Map<Object, LocalDate> lastOccurrences = lastOccurrences(transactions, templates);
+            List<WriteModel<Document>> writes = new ArrayList<>(templates.size());
+            for (Document template : templates) {
+                LocalDate next = nextOccurrence(template, lastOccurrences.get(template.get("_id")), today);
+                if (next != null) {
+                    // Conditional, so a schedule written by the application in the meantime wins
+                    writes.add(new UpdateOneModel<>(
+                            new Document("_id", template.get("_id")).append("nr", new Document("$exists", false)),
+                            new Document("$set", new Document("nr", (int) next.toEpochDay())),
+                            new UpdateOptions()));
+                }
+            }
+            if (!writes.isEmpty()) {
+                updated += transactions.bulkWrite(writes, new BulkWriteOptions().ordered(false)).getModifiedCount();
+            }
+            
+            lastId = templates.get(templates.size() - 1).getObjectId("_id");
+            migrations.updateOne(new Document("_id", MIGRATION_ID), new Document("$set",
+                    new Document("lastId", lastId).append("updated", updated).append("updatedAt", new Date())),
+                    new UpdateOptions().upsert(true));
+        }
+        
+        migrations.updateOne(new Document("_id", MIGRATION_ID), new Document("$set",
+                new Document("done", true).append("updated", updated).append("finishedAt", new Date())),
+                new UpdateOptions().upsert(true));
+        logger.info("Recurring schedule backfill finished in {} ms: {} templates scheduled", System.currentTimeMillis() - started, updated);
+    }
+    
+    // Date of the newest occurrence per template, read through the recurring_occurrence index
+    private static Map<Object, LocalDate> lastOccurrences(MongoCollection<Document> transactions, List<Document> templates) {
+        List<String> ids = new ArrayList<>(templates.size());
+        templates.forEach(template -> ids.add(template.getObjectId("_id").toHexString()));
+        Map<Object, LocalDate> lastOccurrences = new HashMap<>();
+        transactions.aggregate(List.of(
+                new Document("$match", new Document("rs", new Document("$in", ids))),
+                new Document("$group", new Document("_id", "$rs").append("last", new Document("$max", "$dt")))))
+                .forEach(group -> {
+                    if (group.get("last") instanceof Number last) {
+                        lastOccurrences.put(new ObjectId(group.getString("_id")), LocalDate.ofEpochDay(last.longValue()));
+                    }
+                });
+        return lastOccurrences;
+    }
+    
+    static LocalDate nextOccurrence(Document template, LocalDate lastOccurrence, LocalDate today) {
+        if (!(template.get("dt") instanceof Number date)) {
+            return null;
+        }
+        RecurringInterval interval;
+        try {
+            interval = RecurringInterval.valueOf(template.getString("ri"));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return null;
+        }
+        // The template itself is the first occurrence
+        LocalDate anchor = LocalDate.ofEpochDay(date.longValue());
+        LocalDate after = lastOccurrence != null ? lastOccurrence : today.minusDays(1);
+        return interval.nextAfter(anchor, after.isAfter(anchor) ? after : anchor);
+    }
+}
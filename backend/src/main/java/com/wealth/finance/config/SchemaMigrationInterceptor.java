@@ -0,0 +1,28 @@
+package com.wealth.finance.config;
+
+import com.wealth.finance.exception.MigrationInProgressException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Holds requests that read or write raw transactions until {@link TransactionSchemaMigration} has finished:
+ * queries match only the compact keys, so legacy documents would be silently missing from results and
+ * from ledger recomputations. See {@link WebConfig} for the guarded paths.
+ */
+@Component
+public class SchemaMigrationInterceptor implements HandlerInterceptor {
+    
+    @Autowired
+    private TransactionSchemaMigration schemaMigration;
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!schemaMigration.isComplete()) {
+            throw new MigrationInProgressException("Transactions are being migrated, please retry shortly");
+        }
+        return true;
+    }
+}
@@ -0,0 +1,113 @@
+package com.wealth.finance.config;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
+import com.wealth.finance.model.SearchTokens;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Stores the search tokens of transactions written before search existed. Walks the collection in _id
+ * order and checkpoints after every batch, like the schema migration; rows that already have tokens are
+ * skipped, so new writes during the run are left alone. Until it finishes, older transactions are found
+ * by their category but not yet by their description.
+ */
+@Component
+@Order(3)
+public class SearchTokenMigration implements ApplicationRunner {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SearchTokenMigration.class);
+    
+    private static final String MIGRATION_ID = "transaction-search-tokens-v1";
+    private static final String MIGRATIONS = "migrations";
+    private static final String TRANSACTIONS = "transactions";
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private TransactionSchemaMigration schemaMigration;
+    
+    @Value("${transactions.search.backfill-batch-size:1000}")
+    private int batchSize;
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!schemaMigration.isComplete()) {
+            logger.warn("Search token backfill postponed until the transaction schema migration has finished");
+            return;
+        }
+        try {
+            backfill();
+        } catch (RuntimeException e) {
+            logger.error("Search token backfill stopped, it will resume on the next start", e);
+        }
+    }
+    
+    private void backfill() {
+        MongoCollection<Document> migrations = mongoTemplate.getCollection(MIGRATIONS);
+        Document checkpoint = migrations.find(new Document("_id", MIGRATION_ID)).first();
+        if (checkpoint != null && checkpoint.getBoolean("done", false)) {
+            return;
+        }
+        
+        MongoCollection<Document> transactions = mongoTemplate.getCollection(TRANSACTIONS);
+        ObjectId lastId = checkpoint != null ? checkpoint.getObjectId("lastId") : null;
+        long updated = checkpoint != null ? checkpoint.getLong("updated") : 0;
+        long started = System.currentTimeMillis();
+        
+        while (true) {
+            Document filter = new Document();
+            if (lastId != null) {
+                filter.append("_id", new Document("$gt", lastId));
+            }
+            List<WriteModel<Document>> writes = new ArrayList<>(batchSize);
+            List<Document> batch = transactions.find(filter)
+                    .projection(new Document("d", 1).append("tk", 1))
+                    .sort(new Document("_id", 1))
+                    .limit(batchSize)
+                    .into(new ArrayList<>());
+            if (batch.isEmpty()) {
+                break;
+            }
+            
+            for (Document transaction : batch) {
+                if (!transaction.containsKey("tk")) {
+                    // Conditional, so a token set written by the application in the meantime wins
+                    writes.add(new UpdateOneModel<>(
+                            new Document("_id", transaction.get("_id")).append("tk", new Document("$exists", false)),
+                            new Document("$set", new Document("tk", SearchTokens.of(transaction.getString("d")))),
+                            new UpdateOptions()));
+                }
+            }
+            if (!writes.isEmpty()) {
+                updated += transactions.bulkWrite(writes, new BulkWriteOptions().ordered(false)).getModifiedCount();
+            }
+            
+            lastId = batch.get(batch.size() - 1).getObjectId("_id");
+            migrations.updateOne(new Document("_id", MIGRATION_ID), new Document("$set",
+                    new Document("lastId", lastId).append("updated", updated).append("updatedAt", new Date())),
+                    new UpdateOptions().upsert(true));
+        }
+        
+        migrations.updateOne(new Document("_id", MIGRATION_ID), new Document("$set",
+                new Document("done", true).append("updated", updated).append("finishedAt", new Date())),
+                new UpdateOptions().upsert(true));
+        logger.info("Search token backfill finished in {} ms: {} transactions updated", System.currentTimeMillis() - started, updated);
+    }
+}
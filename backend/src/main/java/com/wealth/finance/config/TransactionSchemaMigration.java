@@ -0,0 +1,217 @@
+package com.wealth.finance.config;
+
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Rewrites transactions stored in the original verbose form into the compact form declared on
+ * {@link com.wealth.finance.model.Transaction}. Runs at startup while the application serves requests:
+ * documents are converted in _id order, in batches, by server-side pipeline updates, and a checkpoint
+ * after every batch lets an interrupted run resume where it stopped. Storage and index sizes are
+ * recorded before and after so the saving can be checked.
+ *
+ * Until it finishes, unconverted transactions are not matched by queries, so the endpoints that read
+ * raw transactions answer 503 ({@link SchemaMigrationInterceptor}); summaries, trends and balances stay
+ * available as they read rollups and accounts. Jobs that recompute data from the raw ledger wait for
+ * {@link #isComplete()}.
+ */
+@Component
+@Order(1)
+public class TransactionSchemaMigration implements ApplicationRunner {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TransactionSchemaMigration.class);
+    
+    private static final String MIGRATION_ID = "transactions-compact-v1";
+    private static final String MIGRATIONS = "migrations";
+    private static final String TRANSACTIONS = "transactions";
+    
+    // Stored key of each legacy field, in the order the compact form lists them
+    private static final String[][] RENAMED_FIELDS = {
+        {"description", "d"},
+        {"category", "c"},
+        {"accountId", "ac"},
+        {"userId", "u"},
+        {"type", "t"},
+        {"recurringInterval", "ri"},
+        {"recurringSourceId", "rs"},
+        {"createdAt", "ca"},
+        {"updatedAt", "ua"}
+    };
+    private static final List<String> LEGACY_FIELDS = List.of("description", "amount", "category", "date", "accountId",
+            "userId", "type", "isRecurring", "recurringInterval", "nextRecurringDate", "recurringSourceId",
+            "createdAt", "updatedAt");
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private MongoIndexInitializer indexInitializer;
+    
+    @Value("${transactions.compaction.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${transactions.compaction.batch-size:5000}")
+    private int batchSize;
+    
+    private volatile boolean complete;
+    
+    public boolean isComplete() {
+        return complete;
+    }
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            complete = true;
+            return;
+        }
+        try {
+            migrate();
+        } catch (RuntimeException e) {
+            // The checkpoint is kept; the next start continues from the last completed batch
+            logger.error("Transaction schema migration stopped, it will resume on the next start", e);
+        }
+    }
+    
+    private void migrate() {
+        MongoCollection<Document> migrations = mongoTemplate.getCollection(MIGRATIONS);
+        Document checkpoint = migrations.find(new Document("_id", MIGRATION_ID)).first();
+        if (checkpoint != null && checkpoint.getBoolean("done", false)) {
+            complete = true;
+            return;
+        }
+        
+        MongoCollection<Document> transactions = mongoTemplate.getCollection(TRANSACTIONS);
+        if (checkpoint == null) {
+            checkpoint = new Document("_id", MIGRATION_ID)
+                    .append("startedAt", new Date())
+                    .append("migrated", 0L)
+                    .append("before", storageStats());
+            migrations.insertOne(checkpoint);
+        }
+        
+        // Indexes over the old keys conflict by name with the compact ones and would only grow from here
+        dropLegacyIndexes(transactions);
+        indexInitializer.ensureIndexes();
+        
+        List<Document> pipeline = conversionPipeline();
+        ObjectId lastId = checkpoint.getObjectId("lastId");
+        long migrated = checkpoint.getLong("migrated");
+        long started = System.currentTimeMillis();
+        
+        while (true) {
+            Document filter = new Document("userId", new Document("$exists", true));
+            if (lastId != null) {
+                filter.append("_id", new Document("$gt", lastId));
+            }
+            List<ObjectId> ids = new ArrayList<>(batchSize);
+            transactions.find(filter)
+                    .projection(new Document("_id", 1))
+                    .sort(new Document("_id", 1))
+                    .limit(batchSize)
+                    .forEach(document -> ids.add(document.getObjectId("_id")));
+            if (ids.isEmpty()) {
+                break;
+            }
+            
+            ObjectId first = ids.get(0);
+            lastId = ids.get(ids.size() - 1);
+            Document range = new Document("_id", new Document("$gte", first).append("$lte", lastId))
+                    .append("userId", new Document("$exists", true));
+            migrated += transactions.updateMany(range, pipeline).getModifiedCount();
+            
+            migrations.updateOne(new Document("_id", MIGRATION_ID), new Document("$set",
+                    new Document("lastId", lastId).append("migrated", migrated).append("updatedAt", new Date())));
+            logger.info("Transaction schema migration: {} documents converted", migrated);
+        }
+        
+        Document before = checkpoint.get("before", Document.class);
+        Document after = storageStats();
+        migrations.updateOne(new Document("_id", MIGRATION_ID), new Document("$set",
+                new Document("done", true).append("after", after).append("finishedAt", new Date())));
+        complete = true;
+        
+        logger.info("Transaction schema migration finished in {} ms: {} documents converted", System.currentTimeMillis() - started, migrated);
+        logger.info("Transactions before: {} documents, data {} bytes (avg {} bytes), storage {} bytes, indexes {} bytes",
+                before.get("count"), before.get("size"), before.get("avgObjSize"), before.get("storageSize"), before.get("totalIndexSize"));
+        logger.info("Transactions after: {} documents, data {} bytes (avg {} bytes), storage {} bytes, indexes {} bytes",
+                after.get("count"), after.get("size"), after.get("avgObjSize"), after.get("storageSize"), after.get("totalIndexSize"));
+    }
+    
+    /**
+     * Converts one verbose document in place: renames keys, stores amounts as cents and dates as epoch
+     * days, then removes the old keys. LocalDates were written as midnight in the JVM's time zone, so
+     * the calendar date is read back in that zone.
+     */
+    private List<Document> conversionPipeline() {
+        String zone = ZoneId.systemDefault().getId();
+        
+        Document set = new Document();
+        set.append("d", "$description");
+        set.append("a", new Document("$toLong", new Document("$round", List.of(
+                new Document("$multiply", List.of(new Document("$toDecimal", "$amount"), 100)), 0))));
+        set.append("dt", epochDay("$date", zone));
+        set.append("r", new Document("$ifNull", List.of("$isRecurring", false)));
+        set.append("nr", new Document("$cond", List.of(
+                new Document("$ifNull", List.of("$nextRecurringDate", false)),
+                epochDay("$nextRecurringDate", zone),
+                "$$REMOVE")));
+        for (String[] field : RENAMED_FIELDS) {
+            set.append(field[1], "$" + field[0]);
+        }
+        set.append("_class", "tx");
+        
+        return List.of(new Document("$set", set), new Document("$unset", LEGACY_FIELDS));
+    }
+    
+    private Document epochDay(String field, String zone) {
+        Document calendarDate = new Document("$dateToString",
+                new Document("date", field).append("format", "%Y-%m-%d").append("timezone", zone));
+        Document utcMidnight = new Document("$dateFromString",
+                new Document("dateString", calendarDate).append("timezone", "UTC"));
+        return new Document("$toInt", new Document("$divide", List.of(new Document("$toLong", utcMidnight), 86_400_000L)));
+    }
+    
+    private void dropLegacyIndexes(MongoCollection<Document> transactions) {
+        for (Document index : transactions.listIndexes()) {
+            Document key = index.get("key", Document.class);
+            if (key.keySet().stream().anyMatch(LEGACY_FIELDS::contains)) {
+                logger.info("Dropping index {} on legacy keys {}", index.getString("name"), key.toJson());
+                transactions.dropIndex(index.getString("name"));
+            }
+        }
+    }
+    
+    private Document storageStats() {
+        Document summary = new Document("at", new Date());
+        try {
+            Document stats = mongoTemplate.getCollection(TRANSACTIONS)
+                    .aggregate(List.of(new Document("$collStats", new Document("storageStats", new Document()))))
+                    .first();
+            Document storage = stats != null ? stats.get("storageStats", Document.class) : null;
+            if (storage != null) {
+                for (String field : List.of("count", "size", "avgObjSize", "storageSize", "totalIndexSize", "indexSizes")) {
+                    summary.append(field, storage.get(field));
+                }
+            }
+        } catch (RuntimeException e) {
+            // Only informational, e.g. the collection does not exist yet
+            logger.warn("Could not read transaction storage stats: {}", e.getMessage());
+        }
+        return summary;
+    }
+}
@@ -0,0 +1,23 @@
+package com.wealth.finance.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+    
+    @Autowired
+    private SchemaMigrationInterceptor schemaMigrationInterceptor;
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Everything that queries raw transactions; summaries, trends and insights read rollups and stay available
+        registry.addInterceptor(schemaMigrationInterceptor)
+                .addPathPatterns("/api/transactions/**", "/api/reactive/transactions/**", "/api/accounts/*/reconcile",
+                        "/api/categories/*")
+                .excludePathPatterns("/api/transactions/analytics/summary", "/api/transactions/analytics/trends",
+                        "/api/reactive/transactions/analytics/summary", "/api/categories/match", "/api/categories/rules");
+    }
+}
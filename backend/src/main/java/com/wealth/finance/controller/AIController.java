@@ -1,16 +1,25 @@
 package com.wealth.finance.controller;
 
+import com.wealth.finance.dto.AIInsightsJobResponse;
 import com.wealth.finance.dto.AIInsightsRequest;
 import com.wealth.finance.dto.AIInsightsResponse;
-import com.wealth.finance.service.GeminiAPIService;
+import com.wealth.finance.exception.InsightsTimeoutException;
+import com.wealth.finance.service.AIInsightsJobService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.time.Duration;
 import java.time.YearMonth;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/ai")
@@ -19,21 +28,57 @@ import java.time.YearMonth;
 public class AIController {
     
     @Autowired
-    private GeminiAPIService geminiAPIService;
+    private AIInsightsJobService jobService;
+    
+    @Value("${gemini.jobs.sync-timeout:PT30S}")
+    private Duration syncTimeout;
     
     @PostMapping("/insights")
     @Operation(summary = "Get AI insights", description = "Get AI-generated financial insights for a month")
-    public ResponseEntity<AIInsightsResponse> getAIInsights(@Valid @RequestBody AIInsightsRequest request) {
-        AIInsightsResponse insights = geminiAPIService.getAIInsights(request.getUserId(), request.getMonth());
-        return ResponseEntity.ok(insights);
+    public DeferredResult<AIInsightsResponse> getAIInsights(@Valid @RequestBody AIInsightsRequest request) {
+        return insights(request.getUserId(), request.getMonth());
     }
     
     @GetMapping("/insights")
     @Operation(summary = "Get AI insights by month", description = "Get AI-generated financial insights for a specific month")
-    public ResponseEntity<AIInsightsResponse> getAIInsightsByMonth(
+    public DeferredResult<AIInsightsResponse> getAIInsightsByMonth(
             @RequestParam String userId,
             @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth month) {
-        AIInsightsResponse insights = geminiAPIService.getAIInsights(userId, month);
-        return ResponseEntity.ok(insights);
+        return insights(userId, month);
+    }
+    
+    @PostMapping("/insights/jobs")
+    @Operation(summary = "Submit AI insights job", description = "Start generating insights in the background and return the job id at once")
+    public ResponseEntity<AIInsightsJobResponse> submitInsightsJob(@Valid @RequestBody AIInsightsRequest request) {
+        AIInsightsJobResponse job = jobService.submit(request.getUserId(), request.getMonth());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+    
+    @GetMapping("/insights/jobs/{jobId}")
+    @Operation(summary = "Get AI insights job", description = "Poll the status of an insights job; the result is included once it has succeeded")
+    public ResponseEntity<AIInsightsJobResponse> getInsightsJob(@PathVariable String jobId, @RequestParam String userId) {
+        AIInsightsJobResponse job = jobService.getJob(jobId, userId);
+        return ResponseEntity.ok(job);
+    }
+    
+    @GetMapping(value = "/insights/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Follow AI insights job", description = "Server-sent events: the current status, then the result when the job finishes")
+    public SseEmitter followInsightsJob(@PathVariable String jobId, @RequestParam String userId) {
+        return jobService.subscribe(jobId, userId);
+    }
+    
+    // Runs as a job on the insights pool and answers when it finishes; no request thread waits meanwhile
+    private DeferredResult<AIInsightsResponse> insights(String userId, YearMonth month) {
+        DeferredResult<AIInsightsResponse> result = new DeferredResult<>(syncTimeout.toMillis());
+        result.onTimeout(() -> result.setErrorResult(
+                new InsightsTimeoutException("AI insights are taking longer than usual, try again shortly")));
+        jobService.submitForResult(userId, month).whenComplete((insights, error) -> {
+            if (error != null) {
+                result.setErrorResult(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            } else {
+                result.setResult(insights);
+            }
+        });
+        return result;
     }
-} 
\ No newline at end of file
+}
@@ -1,6 +1,7 @@
 package com.wealth.finance.controller;
 
 import com.wealth.finance.dto.AccountRequest;
+import com.wealth.finance.dto.BalanceReconciliationResponse;
 import com.wealth.finance.model.Account;
 import com.wealth.finance.service.AccountService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -68,6 +69,14 @@ public class AccountController {
         return ResponseEntity.ok(account);
     }
     
+    @PostMapping("/{accountId}/reconcile")
+    @Operation(summary = "Reconcile account balance", description = "Recompute the balance from the transaction ledger and report drift")
+    public ResponseEntity<BalanceReconciliationResponse> reconcileAccount(@PathVariable String accountId,
+                                                                        @RequestParam String userId,
+                                                                        @RequestParam(defaultValue = "true") boolean correct) {
+        return ResponseEntity.ok(accountService.reconcileAccount(accountId, userId, correct));
+    }
+    
     @GetMapping("/default")
     @Operation(summary = "Get default account", description = "Get the default account for the user")
     public ResponseEntity<Account> getDefaultAccount(@RequestParam String userId) {
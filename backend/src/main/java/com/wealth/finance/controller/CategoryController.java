@@ -0,0 +1,87 @@
+package com.wealth.finance.controller;
+
+import com.wealth.finance.dto.CategoryRequest;
+import com.wealth.finance.dto.CategoryRuleRequest;
+import com.wealth.finance.model.Category;
+import com.wealth.finance.model.CategoryRule;
+import com.wealth.finance.model.Transaction.TransactionType;
+import com.wealth.finance.service.CategorizationEngine;
+import com.wealth.finance.service.CategoryRegistry;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/categories")
+@Tag(name = "Categories", description = "Category registry APIs")
+@CrossOrigin(origins = "*")
+public class CategoryController {
+    
+    @Autowired
+    private CategoryRegistry categoryRegistry;
+    
+    @Autowired
+    private CategorizationEngine categorizationEngine;
+    
+    @GetMapping
+    @Operation(summary = "Get categories", description = "Get the built-in categories and the user's custom categories")
+    public ResponseEntity<List<Category>> getCategories(@RequestParam String userId) {
+        return ResponseEntity.ok(categoryRegistry.getCategories(userId));
+    }
+    
+    @PostMapping
+    @Operation(summary = "Create category", description = "Create a custom category for the user")
+    public ResponseEntity<Category> createCategory(@Valid @RequestBody CategoryRequest categoryRequest,
+                                                 @RequestParam String userId) {
+        return ResponseEntity.ok(categoryRegistry.createCategory(categoryRequest, userId));
+    }
+    
+    @PutMapping("/{categoryId}")
+    @Operation(summary = "Update category", description = "Update a custom category; a rename is applied to its transactions")
+    public ResponseEntity<Category> updateCategory(@PathVariable Integer categoryId,
+                                                 @Valid @RequestBody CategoryRequest categoryRequest,
+                                                 @RequestParam String userId) {
+        return ResponseEntity.ok(categoryRegistry.updateCategory(categoryId, categoryRequest, userId));
+    }
+    
+    @DeleteMapping("/{categoryId}")
+    @Operation(summary = "Delete category", description = "Delete a custom category that no transaction uses")
+    public ResponseEntity<Void> deleteCategory(@PathVariable Integer categoryId,
+                                             @RequestParam String userId) {
+        categoryRegistry.deleteCategory(categoryId, userId);
+        return ResponseEntity.noContent().build();
+    }
+    
+    @GetMapping("/match")
+    @Operation(summary = "Match category", description = "Get the category the categorization engine picks for a description")
+    public ResponseEntity<Category> matchCategory(@RequestParam String description,
+                                                @RequestParam TransactionType type,
+                                                @RequestParam String userId) {
+        return ResponseEntity.ok(categorizationEngine.categorize(userId, description, type));
+    }
+    
+    @GetMapping("/rules")
+    @Operation(summary = "Get categorization rules", description = "Get the user's categorization rules, highest priority first")
+    public ResponseEntity<List<CategoryRule>> getRules(@RequestParam String userId) {
+        return ResponseEntity.ok(categorizationEngine.getRules(userId));
+    }
+    
+    @PostMapping("/rules")
+    @Operation(summary = "Create categorization rule", description = "Create a keyword, regex or merchant rule that assigns a category")
+    public ResponseEntity<CategoryRule> createRule(@Valid @RequestBody CategoryRuleRequest ruleRequest,
+                                                   @RequestParam String userId) {
+        return ResponseEntity.ok(categorizationEngine.createRule(ruleRequest, userId));
+    }
+    
+    @DeleteMapping("/rules/{ruleId}")
+    @Operation(summary = "Delete categorization rule", description = "Delete one of the user's categorization rules")
+    public ResponseEntity<Void> deleteRule(@PathVariable String ruleId,
+                                         @RequestParam String userId) {
+        categorizationEngine.deleteRule(ruleId, userId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,60 @@
+package com.wealth.finance.controller;
+
+import com.wealth.finance.dto.ExpenseSummaryResponse;
+import com.wealth.finance.model.Transaction;
+import com.wealth.finance.service.ReactiveTransactionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+@RestController
+@RequestMapping("/api/reactive/transactions")
+@Tag(name = "Reactive Transactions", description = "Non-blocking transaction reads, streamed as newline-delimited JSON")
+@CrossOrigin(origins = "*")
+public class ReactiveTransactionController {
+    
+    @Autowired
+    private ReactiveTransactionService reactiveTransactionService;
+    
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream all transactions", description = "Stream every transaction of the current user, newest first, optionally for one account")
+    public Flux<Transaction> streamTransactions(@RequestParam String userId,
+                                                @RequestParam(required = false) String accountId) {
+        return reactiveTransactionService.streamTransactions(userId, accountId, null, null);
+    }
+    
+    @GetMapping(value = "/date-range", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream transactions by date range", description = "Stream the transactions within a date range, newest first")
+    public Flux<Transaction> streamTransactionsByDateRange(
+            @RequestParam String userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String accountId) {
+        return reactiveTransactionService.streamTransactions(userId, accountId, startDate, endDate);
+    }
+    
+    @GetMapping("/analytics/summary")
+    @Operation(summary = "Get expense summary", description = "Get expense summary and analytics for a month without blocking a request thread")
+    public Mono<ExpenseSummaryResponse> getExpenseSummary(
+            @RequestParam String userId,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth month) {
+        return reactiveTransactionService.getExpenseSummary(userId, month);
+    }
+    
+    @GetMapping("/analytics/range-summary")
+    @Operation(summary = "Get range summary", description = "Get expense summary for any date range without blocking a request thread")
+    public Mono<ExpenseSummaryResponse> getRangeSummary(
+            @RequestParam String userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String accountId) {
+        return reactiveTransactionService.getRangeSummary(userId, startDate, endDate, accountId);
+    }
+}
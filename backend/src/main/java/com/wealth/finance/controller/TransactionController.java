@@ -1,16 +1,35 @@
 package com.wealth.finance.controller;
 
+import com.wealth.finance.dto.BatchDeleteRequest;
+import com.wealth.finance.dto.BatchOperationResponse;
+import com.wealth.finance.dto.BatchRecategorizeRequest;
+import com.wealth.finance.dto.DescriptionSuggestion;
 import com.wealth.finance.dto.TransactionRequest;
 import com.wealth.finance.dto.ExpenseSummaryResponse;
+import com.wealth.finance.dto.ImportResponse;
+import com.wealth.finance.dto.MonthlyTrendResponse;
+import com.wealth.finance.dto.TransactionPageResponse;
 import com.wealth.finance.model.Transaction;
+import com.wealth.finance.service.AutocompleteService;
+import com.wealth.finance.service.TransactionExportService;
+import com.wealth.finance.service.TransactionImportService;
 import com.wealth.finance.service.TransactionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.List;
@@ -24,29 +43,93 @@ public class TransactionController {
     @Autowired
     private TransactionService transactionService;
     
+    @Autowired
+    private TransactionExportService transactionExportService;
+    
+    @Autowired
+    private TransactionImportService transactionImportService;
+    
+    @Autowired
+    private AutocompleteService autocompleteService;
+    
+    @Value("${transactions.export.timeout:PT10M}")
+    private Duration exportTimeout;
+    
     @GetMapping
-    @Operation(summary = "Get all transactions", description = "Get all transactions for the current user")
-    public ResponseEntity<List<Transaction>> getAllTransactions(@RequestParam String userId) {
-        List<Transaction> transactions = transactionService.getAllTransactionsByUserId(userId);
-        return ResponseEntity.ok(transactions);
+    @Operation(summary = "Get all transactions", description = "Get a page of transactions for the current user, newest first")
+    public ResponseEntity<TransactionPageResponse> getAllTransactions(@RequestParam String userId,
+                                                                      @RequestParam(required = false) String cursor,
+                                                                      @RequestParam(required = false) Integer limit) {
+        TransactionPageResponse page = transactionService.getAllTransactionsByUserId(userId, cursor, limit);
+        return ResponseEntity.ok(page);
     }
     
     @GetMapping("/account/{accountId}")
-    @Operation(summary = "Get transactions by account", description = "Get all transactions for a specific account")
-    public ResponseEntity<List<Transaction>> getTransactionsByAccount(@PathVariable String accountId,
-                                                                     @RequestParam String userId) {
-        List<Transaction> transactions = transactionService.getTransactionsByAccountId(accountId, userId);
-        return ResponseEntity.ok(transactions);
+    @Operation(summary = "Get transactions by account", description = "Get a page of transactions for a specific account")
+    public ResponseEntity<TransactionPageResponse> getTransactionsByAccount(@PathVariable String accountId,
+                                                                            @RequestParam String userId,
+                                                                            @RequestParam(required = false) String cursor,
+                                                                            @RequestParam(required = false) Integer limit) {
+        TransactionPageResponse page = transactionService.getTransactionsByAccountId(accountId, userId, cursor, limit);
+        return ResponseEntity.ok(page);
     }
     
     @GetMapping("/date-range")
-    @Operation(summary = "Get transactions by date range", description = "Get transactions within a date range")
-    public ResponseEntity<List<Transaction>> getTransactionsByDateRange(
+    @Operation(summary = "Get transactions by date range", description = "Get a page of transactions within a date range")
+    public ResponseEntity<TransactionPageResponse> getTransactionsByDateRange(
             @RequestParam String userId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        List<Transaction> transactions = transactionService.getTransactionsByDateRange(userId, startDate, endDate);
-        return ResponseEntity.ok(transactions);
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        TransactionPageResponse page = transactionService.getTransactionsByDateRange(userId, startDate, endDate, cursor, limit);
+        return ResponseEntity.ok(page);
+    }
+    
+    @GetMapping("/search")
+    @Operation(summary = "Search transactions", description = "Get a page of transactions whose description or category matches every word of the query, newest first")
+    public ResponseEntity<TransactionPageResponse> searchTransactions(
+            @RequestParam String userId,
+            @RequestParam String q,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        TransactionPageResponse page = transactionService.searchTransactions(userId, q, minAmount, maxAmount,
+                startDate, endDate, cursor, limit);
+        return ResponseEntity.ok(page);
+    }
+    
+    @GetMapping("/suggestions")
+    @Operation(summary = "Suggest descriptions", description = "Autocomplete a description from the user's history, with the category it is usually filed under")
+    public ResponseEntity<List<DescriptionSuggestion>> suggestDescriptions(@RequestParam String userId,
+                                                                           @RequestParam(required = false) String prefix,
+                                                                           @RequestParam(required = false) Integer limit) {
+        List<DescriptionSuggestion> suggestions = autocompleteService.suggest(userId, prefix, limit);
+        return ResponseEntity.ok(suggestions);
+    }
+    
+    @GetMapping("/export")
+    @Operation(summary = "Export transactions", description = "Stream the user's transactions as NDJSON or CSV")
+    public WebAsyncTask<Void> exportTransactions(
+            @RequestParam String userId,
+            @RequestParam(defaultValue = "NDJSON") TransactionExportService.ExportFormat format,
+            @RequestParam(required = false) String accountId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            HttpServletResponse response) {
+        StreamingResponseBody body = transactionExportService.export(userId, format, accountId, startDate, endDate);
+        boolean csv = format == TransactionExportService.ExportFormat.CSV;
+        response.setContentType(csv ? "text/csv" : MediaType.APPLICATION_NDJSON_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"transactions." + (csv ? "csv" : "ndjson") + "\"");
+        // Long histories outlive the default async timeout; the longer limit applies to exports only
+        return new WebAsyncTask<>(exportTimeout.toMillis(), () -> {
+            body.writeTo(response.getOutputStream());
+            return null;
+        });
     }
     
     @PostMapping
@@ -57,6 +140,16 @@ public class TransactionController {
         return ResponseEntity.ok(transaction);
     }
     
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Import transactions", description = "Bulk import a CSV or OFX bank statement into an account")
+    public ResponseEntity<ImportResponse> importTransactions(@RequestParam("file") MultipartFile file,
+                                                             @RequestParam String accountId,
+                                                             @RequestParam(required = false) TransactionImportService.ImportFormat format,
+                                                             @RequestParam String userId) {
+        ImportResponse response = transactionImportService.importStatement(file, format, accountId, userId);
+        return ResponseEntity.ok(response);
+    }
+    
     @GetMapping("/{transactionId}")
     @Operation(summary = "Get transaction by ID", description = "Get transaction details by transaction ID")
     public ResponseEntity<Transaction> getTransactionById(@PathVariable String transactionId,
@@ -82,6 +175,22 @@ public class TransactionController {
         return ResponseEntity.noContent().build();
     }
     
+    @PostMapping("/batch-delete")
+    @Operation(summary = "Delete transactions", description = "Delete several transactions in one request")
+    public ResponseEntity<BatchOperationResponse> deleteTransactions(@Valid @RequestBody BatchDeleteRequest request,
+                                                                     @RequestParam String userId) {
+        BatchOperationResponse response = transactionService.deleteTransactions(request.getIds(), userId);
+        return ResponseEntity.ok(response);
+    }
+    
+    @PostMapping("/batch-recategorize")
+    @Operation(summary = "Recategorize transactions", description = "Move several transactions to another category in one request")
+    public ResponseEntity<BatchOperationResponse> recategorizeTransactions(@Valid @RequestBody BatchRecategorizeRequest request,
+                                                                           @RequestParam String userId) {
+        BatchOperationResponse response = transactionService.recategorizeTransactions(request.getIds(), request.getCategory(), userId);
+        return ResponseEntity.ok(response);
+    }
+    
     @GetMapping("/analytics/summary")
     @Operation(summary = "Get expense summary", description = "Get expense summary and analytics for a month")
     public ResponseEntity<ExpenseSummaryResponse> getExpenseSummary(
@@ -91,6 +200,29 @@ public class TransactionController {
         return ResponseEntity.ok(summary);
     }
     
+    @GetMapping("/analytics/range-summary")
+    @Operation(summary = "Get range summary", description = "Get expense summary for any date range, optionally for one account")
+    public ResponseEntity<ExpenseSummaryResponse> getRangeSummary(
+            @RequestParam String userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String accountId) {
+        ExpenseSummaryResponse summary = transactionService.getRangeSummary(userId, startDate, endDate, accountId);
+        return ResponseEntity.ok(summary);
+    }
+    
+    @GetMapping("/analytics/trends")
+    @Operation(summary = "Get monthly trends", description = "Get per-month income, expense and category totals over a span of months")
+    public ResponseEntity<MonthlyTrendResponse> getMonthlyTrends(
+            @RequestParam String userId,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+        YearMonth end = to != null ? to : YearMonth.now();
+        YearMonth start = from != null ? from : end.minusMonths(11);
+        MonthlyTrendResponse trends = transactionService.getMonthlyTrends(userId, start, end);
+        return ResponseEntity.ok(trends);
+    }
+    
     @GetMapping("/count")
     @Operation(summary = "Get transaction count", description = "Get total number of transactions for user")
     public ResponseEntity<Long> getTransactionCount(@RequestParam String userId) {
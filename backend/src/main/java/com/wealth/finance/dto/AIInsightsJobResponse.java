@@ -0,0 +1,99 @@
+package com.wealth.finance.dto;
+
+import java.time.LocalDateTime;
+
+public class AIInsightsJobResponse {
+    
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED
+    }
+    
+    private String jobId;
+    private String userId;
+    private String month;
+    private Status status;
+    private AIInsightsResponse result;
+    private String error;
+    private LocalDateTime submittedAt;
+    private LocalDateTime completedAt;
+    
+    // Constructors
+    public AIInsightsJobResponse() {}
+    
+    public AIInsightsJobResponse(String jobId, String userId, String month, Status status, AIInsightsResponse result,
+                                 String error, LocalDateTime submittedAt, LocalDateTime completedAt) {
+        this.jobId = jobId;
+        this.userId = userId;
+        this.month = month;
+        this.status = status;
+        this.result = result;
+        this.error = error;
+        this.submittedAt = submittedAt;
+        this.completedAt = completedAt;
+    }
+    
+    // Getters and Setters
+    public String getJobId() {
+        return jobId;
+    }
+    
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+    
+    public String getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+    
+    public String getMonth() {
+        return month;
+    }
+    
+    public void setMonth(String month) {
+        this.month = month;
+    }
+    
+    public Status getStatus() {
+        return status;
+    }
+    
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+    
+    public AIInsightsResponse getResult() {
+        return result;
+    }
+    
+    public void setResult(AIInsightsResponse result) {
+        this.result = result;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+    
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+    
+    public void setSubmittedAt(LocalDateTime submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+    
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+    
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+}
@@ -0,0 +1,64 @@
+package com.wealth.finance.dto;
+
+import java.math.BigDecimal;
+
+public class BalanceReconciliationResponse {
+    
+    private String accountId;
+    private BigDecimal recordedBalance;
+    private BigDecimal ledgerBalance;
+    private BigDecimal drift;
+    private boolean corrected;
+    
+    // Constructors
+    public BalanceReconciliationResponse() {}
+    
+    public BalanceReconciliationResponse(String accountId, BigDecimal recordedBalance, BigDecimal ledgerBalance, boolean corrected) {
+        this.accountId = accountId;
+        this.recordedBalance = recordedBalance;
+        this.ledgerBalance = ledgerBalance;
+        this.drift = ledgerBalance.subtract(recordedBalance);
+        this.corrected = corrected;
+    }
+    
+    // Getters and Setters
+    public String getAccountId() {
+        return accountId;
+    }
+    
+    public void setAccountId(String accountId) {
+        this.accountId = accountId;
+    }
+    
+    public BigDecimal getRecordedBalance() {
+        return recordedBalance;
+    }
+    
+    public void setRecordedBalance(BigDecimal recordedBalance) {
+        this.recordedBalance = recordedBalance;
+    }
+    
+    public BigDecimal getLedgerBalance() {
+        return ledgerBalance;
+    }
+    
+    public void setLedgerBalance(BigDecimal ledgerBalance) {
+        this.ledgerBalance = ledgerBalance;
+    }
+    
+    public BigDecimal getDrift() {
+        return drift;
+    }
+    
+    public void setDrift(BigDecimal drift) {
+        this.drift = drift;
+    }
+    
+    public boolean isCorrected() {
+        return corrected;
+    }
+    
+    public void setCorrected(boolean corrected) {
+        this.corrected = corrected;
+    }
+}
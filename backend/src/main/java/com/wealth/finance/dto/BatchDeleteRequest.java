@@ -0,0 +1,35 @@
+package com.wealth.finance.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public class BatchDeleteRequest {
+    
+    @NotEmpty(message = "Transaction IDs are required")
+    @Size(max = 1000, message = "At most 1000 transactions can be changed at once")
+    private List<String> ids;
+    
+    // Constructors
+    public BatchDeleteRequest() {}
+    
+    public BatchDeleteRequest(List<String> ids) {
+        this.ids = ids;
+    }
+    
+    // Getters and Setters
+    public List<String> getIds() {
+        return ids;
+    }
+    
+    public void setIds(List<String> ids) {
+        this.ids = ids;
+    }
+    
+    @Override
+    public String toString() {
+        return "BatchDeleteRequest{" +
+                "ids=" + ids +
+                '}';
+    }
+}
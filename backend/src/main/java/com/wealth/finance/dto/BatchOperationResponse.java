@@ -0,0 +1,42 @@
+package com.wealth.finance.dto;
+
+public class BatchOperationResponse {
+    
+    private int requested;
+    private long matched;
+    private long affected;
+    
+    // Constructors
+    public BatchOperationResponse() {}
+    
+    public BatchOperationResponse(int requested, long matched, long affected) {
+        this.requested = requested;
+        this.matched = matched;
+        this.affected = affected;
+    }
+    
+    // Getters and Setters
+    public int getRequested() {
+        return requested;
+    }
+    
+    public void setRequested(int requested) {
+        this.requested = requested;
+    }
+    
+    public long getMatched() {
+        return matched;
+    }
+    
+    public void setMatched(long matched) {
+        this.matched = matched;
+    }
+    
+    public long getAffected() {
+        return affected;
+    }
+    
+    public void setAffected(long affected) {
+        this.affected = affected;
+    }
+}
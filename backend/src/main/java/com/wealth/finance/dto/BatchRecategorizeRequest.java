@@ -0,0 +1,49 @@
+package com.wealth.finance.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public class BatchRecategorizeRequest {
+    
+    @NotEmpty(message = "Transaction IDs are required")
+    @Size(max = 1000, message = "At most 1000 transactions can be changed at once")
+    private List<String> ids;
+    
+    @NotBlank(message = "Category is required")
+    private String category;
+    
+    // Constructors
+    public BatchRecategorizeRequest() {}
+    
+    public BatchRecategorizeRequest(List<String> ids, String category) {
+        this.ids = ids;
+        this.category = category;
+    }
+    
+    // Getters and Setters
+    public List<String> getIds() {
+        return ids;
+    }
+    
+    public void setIds(List<String> ids) {
+        this.ids = ids;
+    }
+    
+    public String getCategory() {
+        return category;
+    }
+    
+    public void setCategory(String category) {
+        this.category = category;
+    }
+    
+    @Override
+    public String toString() {
+        return "BatchRecategorizeRequest{" +
+                "ids=" + ids +
+                ", category='" + category + '\'' +
+                '}';
+    }
+}
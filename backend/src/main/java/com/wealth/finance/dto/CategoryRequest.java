@@ -0,0 +1,65 @@
+package com.wealth.finance.dto;
+
+import com.wealth.finance.model.Transaction.TransactionType;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+public class CategoryRequest {
+    
+    @NotBlank(message = "Category name is required")
+    @Size(max = 50, message = "Category name cannot exceed 50 characters")
+    private String name;
+    
+    @Pattern(regexp = "^#[0-9A-Fa-f]{6}$", message = "Color must be a hex value like #4ECDC4")
+    private String color;
+    
+    private Integer parentId;
+    
+    @NotNull(message = "Category kind is required")
+    private TransactionType kind;
+    
+    // Constructors
+    public CategoryRequest() {}
+    
+    public CategoryRequest(String name, String color, Integer parentId, TransactionType kind) {
+        this.name = name;
+        this.color = color;
+        this.parentId = parentId;
+        this.kind = kind;
+    }
+    
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public String getColor() {
+        return color;
+    }
+    
+    public void setColor(String color) {
+        this.color = color;
+    }
+    
+    public Integer getParentId() {
+        return parentId;
+    }
+    
+    public void setParentId(Integer parentId) {
+        this.parentId = parentId;
+    }
+    
+    public TransactionType getKind() {
+        return kind;
+    }
+    
+    public void setKind(TransactionType kind) {
+        this.kind = kind;
+    }
+}
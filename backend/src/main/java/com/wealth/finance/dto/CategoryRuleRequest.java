@@ -0,0 +1,76 @@
+package com.wealth.finance.dto;
+
+import com.wealth.finance.model.CategoryRule.MatchType;
+import com.wealth.finance.model.Transaction.TransactionType;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+public class CategoryRuleRequest {
+    
+    @NotNull(message = "Match type is required")
+    private MatchType matchType;
+    
+    @NotBlank(message = "Pattern is required")
+    @Size(max = 200, message = "Pattern cannot exceed 200 characters")
+    private String pattern;
+    
+    @NotNull(message = "Category ID is required")
+    private Integer categoryId;
+    
+    private TransactionType type;
+    
+    private int priority;
+    
+    // Constructors
+    public CategoryRuleRequest() {}
+    
+    public CategoryRuleRequest(MatchType matchType, String pattern, Integer categoryId, TransactionType type, int priority) {
+        this.matchType = matchType;
+        this.pattern = pattern;
+        this.categoryId = categoryId;
+        this.type = type;
+        this.priority = priority;
+    }
+    
+    // Getters and Setters
+    public MatchType getMatchType() {
+        return matchType;
+    }
+    
+    public void setMatchType(MatchType matchType) {
+        this.matchType = matchType;
+    }
+    
+    public String getPattern() {
+        return pattern;
+    }
+    
+    public void setPattern(String pattern) {
+        this.pattern = pattern;
+    }
+    
+    public Integer getCategoryId() {
+        return categoryId;
+    }
+    
+    public void setCategoryId(Integer categoryId) {
+        this.categoryId = categoryId;
+    }
+    
+    public TransactionType getType() {
+        return type;
+    }
+    
+    public void setType(TransactionType type) {
+        this.type = type;
+    }
+    
+    public int getPriority() {
+        return priority;
+    }
+    
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+}
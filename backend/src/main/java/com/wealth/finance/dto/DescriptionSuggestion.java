@@ -0,0 +1,62 @@
+package com.wealth.finance.dto;
+
+public class DescriptionSuggestion {
+    
+    private String description;
+    private Integer categoryId;
+    private String category;
+    private String color;
+    private long uses;
+    
+    // Constructors
+    public DescriptionSuggestion() {}
+    
+    public DescriptionSuggestion(String description, Integer categoryId, String category, String color, long uses) {
+        this.description = description;
+        this.categoryId = categoryId;
+        this.category = category;
+        this.color = color;
+        this.uses = uses;
+    }
+    
+    // Getters and Setters
+    public String getDescription() {
+        return description;
+    }
+    
+    public void setDescription(String description) {
+        this.description = description;
+    }
+    
+    public Integer getCategoryId() {
+        return categoryId;
+    }
+    
+    public void setCategoryId(Integer categoryId) {
+        this.categoryId = categoryId;
+    }
+    
+    public String getCategory() {
+        return category;
+    }
+    
+    public void setCategory(String category) {
+        this.category = category;
+    }
+    
+    public String getColor() {
+        return color;
+    }
+    
+    public void setColor(String color) {
+        this.color = color;
+    }
+    
+    public long getUses() {
+        return uses;
+    }
+    
+    public void setUses(long uses) {
+        this.uses = uses;
+    }
+}
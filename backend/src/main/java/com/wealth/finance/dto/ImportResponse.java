@@ -0,0 +1,106 @@
+package com.wealth.finance.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportResponse {
+    
+    private int totalRows;
+    private int imported;
+    private int rejected;
+    private int duplicates;
+    private List<Integer> duplicateLines = new ArrayList<>();
+    private List<RowError> errors = new ArrayList<>();
+    
+    // Row Error Inner Class
+    public static class RowError {
+        private int line;
+        private String message;
+        
+        public RowError() {}
+        
+        public RowError(int line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+        
+        // Getters and Setters
+        public int getLine() {
+            return line;
+        }
+        
+        public void setLine(int line) {
+            this.line = line;
+        }
+        
+        public String getMessage() {
+            return message;
+        }
+        
+        public void setMessage(String message) {
+            this.message = message;
+        }
+    }
+    
+    // Constructors
+    public ImportResponse() {}
+    
+    public void addError(int line, String message) {
+        errors.add(new RowError(line, message));
+        rejected++;
+    }
+    
+    public void addDuplicate(int line) {
+        duplicateLines.add(line);
+        duplicates++;
+    }
+    
+    // Getters and Setters
+    public int getTotalRows() {
+        return totalRows;
+    }
+    
+    public void setTotalRows(int totalRows) {
+        this.totalRows = totalRows;
+    }
+    
+    public int getImported() {
+        return imported;
+    }
+    
+    public void setImported(int imported) {
+        this.imported = imported;
+    }
+    
+    public int getRejected() {
+        return rejected;
+    }
+    
+    public void setRejected(int rejected) {
+        this.rejected = rejected;
+    }
+    
+    public int getDuplicates() {
+        return duplicates;
+    }
+    
+    public void setDuplicates(int duplicates) {
+        this.duplicates = duplicates;
+    }
+    
+    public List<Integer> getDuplicateLines() {
+        return duplicateLines;
+    }
+    
+    public void setDuplicateLines(List<Integer> duplicateLines) {
+        this.duplicateLines = duplicateLines;
+    }
+    
+    public List<RowError> getErrors() {
+        return errors;
+    }
+    
+    public void setErrors(List<RowError> errors) {
+        this.errors = errors;
+    }
+}
@@ -0,0 +1,106 @@
+package com.wealth.finance.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+public class MonthlyTrendResponse {
+    
+    private String from;
+    private String to;
+    private List<MonthTrend> monthlyTrends;
+    
+    // Month Trend Inner Class
+    public static class MonthTrend {
+        private String month;
+        private BigDecimal totalIncome;
+        private BigDecimal totalSpent;
+        private BigDecimal netFlow;
+        private Map<String, BigDecimal> categoryTotals;
+        
+        public MonthTrend() {}
+        
+        public MonthTrend(String month, BigDecimal totalIncome, BigDecimal totalSpent, Map<String, BigDecimal> categoryTotals) {
+            this.month = month;
+            this.totalIncome = totalIncome;
+            this.totalSpent = totalSpent;
+            this.netFlow = totalIncome.subtract(totalSpent);
+            this.categoryTotals = categoryTotals;
+        }
+        
+        // Getters and Setters
+        public String getMonth() {
+            return month;
+        }
+        
+        public void setMonth(String month) {
+            this.month = month;
+        }
+        
+        public BigDecimal getTotalIncome() {
+            return totalIncome;
+        }
+        
+        public void setTotalIncome(BigDecimal totalIncome) {
+            this.totalIncome = totalIncome;
+        }
+        
+        public BigDecimal getTotalSpent() {
+            return totalSpent;
+        }
+        
+        public void setTotalSpent(BigDecimal totalSpent) {
+            this.totalSpent = totalSpent;
+        }
+        
+        public BigDecimal getNetFlow() {
+            return netFlow;
+        }
+        
+        public void setNetFlow(BigDecimal netFlow) {
+            this.netFlow = netFlow;
+        }
+        
+        public Map<String, BigDecimal> getCategoryTotals() {
+            return categoryTotals;
+        }
+        
+        public void setCategoryTotals(Map<String, BigDecimal> categoryTotals) {
+            this.categoryTotals = categoryTotals;
+        }
+    }
+    
+    // Constructors
+    public MonthlyTrendResponse() {}
+    
+    public MonthlyTrendResponse(String from, String to, List<MonthTrend> monthlyTrends) {
+        this.from = from;
+        this.to = to;
+        this.monthlyTrends = monthlyTrends;
+    }
+    
+    // Getters and Setters
+    public String getFrom() {
+        return from;
+    }
+    
+    public void setFrom(String from) {
+        this.from = from;
+    }
+    
+    public String getTo() {
+        return to;
+    }
+    
+    public void setTo(String to) {
+        this.to = to;
+    }
+    
+    public List<MonthTrend> getMonthlyTrends() {
+        return monthlyTrends;
+    }
+    
+    public void setMonthlyTrends(List<MonthTrend> monthlyTrends) {
+        this.monthlyTrends = monthlyTrends;
+    }
+}
@@ -0,0 +1,45 @@
+package com.wealth.finance.dto;
+
+import com.wealth.finance.model.Transaction;
+import java.util.List;
+
+public class TransactionPageResponse {
+    
+    private List<Transaction> transactions;
+    private String nextCursor;
+    private boolean hasMore;
+    
+    // Constructors
+    public TransactionPageResponse() {}
+    
+    public TransactionPageResponse(List<Transaction> transactions, String nextCursor) {
+        this.transactions = transactions;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+    }
+    
+    // Getters and Setters
+    public List<Transaction> getTransactions() {
+        return transactions;
+    }
+    
+    public void setTransactions(List<Transaction> transactions) {
+        this.transactions = transactions;
+    }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+    
+    public boolean isHasMore() {
+        return hasMore;
+    }
+    
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -5,6 +5,7 @@ import com.wealth.finance.model.Transaction.RecurringInterval;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
@@ -15,6 +16,7 @@ public class TransactionRequest {
     
     @NotNull(message = "Amount is required")
     @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
+    @Digits(integer = 15, fraction = 2, message = "Amount must have at most 2 decimal places")
     private BigDecimal amount;
     
     @NotBlank(message = "Category is required")
@@ -0,0 +1,14 @@
+package com.wealth.finance.exception;
+
+/**
+ * A synchronous insights request waited its full time for a job that is still running; the job goes on,
+ * so the client should retry later or use the job endpoints instead.
+ */
+public class InsightsTimeoutException extends RuntimeException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    public InsightsTimeoutException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,13 @@
+package com.wealth.finance.exception;
+
+/**
+ * The data a request reads or writes is still being migrated; the client should retry shortly.
+ */
+public class MigrationInProgressException extends RuntimeException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    public MigrationInProgressException(String message) {
+        super(message);
+    }
+}
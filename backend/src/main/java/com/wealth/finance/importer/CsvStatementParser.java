@@ -0,0 +1,214 @@
+package com.wealth.finance.importer;
+
+import com.wealth.finance.dto.TransactionRequest;
+import com.wealth.finance.model.Transaction.TransactionType;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Parses CSV statements with a header row. Recognised columns (case-insensitive): date, description
+ * (or memo/name/payee), amount, category, type and accountId. Without a type column the sign of the
+ * amount decides: negative amounts are expenses.
+ */
+public class CsvStatementParser implements StatementParser {
+    
+    private static final DateTimeFormatter US_DATE = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+    
+    // An unterminated quote would otherwise swallow the rest of the file into one field
+    static final int MAX_RECORD_LENGTH = 64 * 1024;
+    
+    @Override
+    public void parse(Reader reader, String defaultAccountId, Consumer<StatementRow> sink) throws IOException {
+        BufferedReader in = new BufferedReader(reader);
+        int[] line = {0};
+        
+        List<String> header;
+        try {
+            header = readRecord(in, line);
+        } catch (RecordTooLongException e) {
+            throw new RuntimeException("CSV header exceeds " + MAX_RECORD_LENGTH + " characters");
+        }
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.putIfAbsent(normalize(header.get(i)), i);
+        }
+        Integer dateColumn = columns.get("date");
+        Integer descriptionColumn = firstPresent(columns, "description", "memo", "name", "payee");
+        Integer amountColumn = columns.get("amount");
+        if (dateColumn == null || descriptionColumn == null || amountColumn == null) {
+            throw new RuntimeException("CSV header must contain date, description and amount columns");
+        }
+        Integer categoryColumn = columns.get("category");
+        Integer typeColumn = columns.get("type");
+        Integer accountColumn = firstPresent(columns, "accountid", "account");
+        
+        List<String> record;
+        while (true) {
+            int recordLine = line[0] + 1;
+            try {
+                record = readRecord(in, line);
+            } catch (RecordTooLongException e) {
+                sink.accept(StatementRow.rejected(recordLine, "Record exceeds " + MAX_RECORD_LENGTH + " characters"));
+                continue;
+            }
+            if (record == null) {
+                break;
+            }
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            try {
+                BigDecimal amount = new BigDecimal(field(record, amountColumn).replace(",", ""));
+                TransactionType type = typeColumn != null && !field(record, typeColumn).isBlank()
+                        ? parseType(field(record, typeColumn))
+                        : amount.signum() < 0 ? TransactionType.EXPENSE : TransactionType.INCOME;
+                String accountId = accountColumn != null && !field(record, accountColumn).isBlank()
+                        ? field(record, accountColumn) : defaultAccountId;
+                
+                TransactionRequest request = new TransactionRequest(field(record, descriptionColumn), amount.abs(),
+                        categoryColumn != null ? field(record, categoryColumn) : null,
+                        parseDate(field(record, dateColumn)), accountId, type);
+                sink.accept(StatementRow.parsed(recordLine, request));
+            } catch (NumberFormatException e) {
+                sink.accept(StatementRow.rejected(recordLine, "Invalid amount"));
+            } catch (DateTimeParseException e) {
+                sink.accept(StatementRow.rejected(recordLine, "Invalid date"));
+            } catch (IllegalArgumentException e) {
+                sink.accept(StatementRow.rejected(recordLine, e.getMessage()));
+            }
+        }
+    }
+    
+    // Reads one record, following quoted fields across line breaks for at most MAX_RECORD_LENGTH characters
+    private List<String> readRecord(BufferedReader in, int[] line) throws IOException {
+        String text = readLine(in, line, MAX_RECORD_LENGTH);
+        if (text == null) {
+            return null;
+        }
+        int length = text.length();
+        
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString().trim());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (!quoted) {
+                break;
+            }
+            // Parsing resumes after the line that went over the limit, as if the quote had been closed there
+            if (length >= MAX_RECORD_LENGTH) {
+                throw new RecordTooLongException();
+            }
+            text = readLine(in, line, MAX_RECORD_LENGTH - length - 1);
+            if (text == null) {
+                break;
+            }
+            length += text.length() + 1;
+            field.append('\n');
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+    
+    // Like BufferedReader.readLine, but keeps at most limit characters: the rest of a longer line is
+    // skipped without being buffered and the line is reported as too long
+    private String readLine(BufferedReader in, int[] line, int limit) throws IOException {
+        StringBuilder text = new StringBuilder();
+        boolean tooLong = false;
+        int c;
+        while ((c = in.read()) != -1 && c != '\n') {
+            if (c == '\r') {
+                in.mark(1);
+                if (in.read() != '\n') {
+                    in.reset();
+                }
+                break;
+            }
+            if (text.length() < limit) {
+                text.append((char) c);
+            } else {
+                tooLong = true;
+            }
+        }
+        if (c == -1 && text.length() == 0 && !tooLong) {
+            return null;
+        }
+        line[0]++;
+        if (tooLong) {
+            throw new RecordTooLongException();
+        }
+        return text.toString();
+    }
+    
+    private String field(List<String> record, int column) {
+        return column < record.size() ? record.get(column) : "";
+    }
+    
+    private Integer firstPresent(Map<String, Integer> columns, String... names) {
+        for (String name : names) {
+            if (columns.containsKey(name)) {
+                return columns.get(name);
+            }
+        }
+        return null;
+    }
+    
+    private String normalize(String column) {
+        return column.replace("\uFEFF", "").replace(" ", "").replace("_", "").toLowerCase(Locale.ROOT);
+    }
+    
+    private LocalDate parseDate(String value) {
+        return value.indexOf('/') > 0 ? LocalDate.parse(value, US_DATE) : LocalDate.parse(value);
+    }
+    
+    private TransactionType parseType(String value) {
+        switch (value.trim().toUpperCase(Locale.ROOT)) {
+            case "INCOME":
+            case "CREDIT":
+                return TransactionType.INCOME;
+            case "EXPENSE":
+            case "DEBIT":
+                return TransactionType.EXPENSE;
+            default:
+                throw new IllegalArgumentException("Unknown transaction type: " + value);
+        }
+    }
+    
+    private static class RecordTooLongException extends IOException {
+        
+        private static final long serialVersionUID = 1L;
+    }
+}
@@ -0,0 +1,121 @@
+package com.wealth.finance.importer;
+
+import com.wealth.finance.dto.TransactionRequest;
+import com.wealth.finance.model.Transaction.TransactionType;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Parses the STMTTRN records of OFX/QFX statements. Works on both SGML (OFX 1.x, unclosed leaf
+ * tags) and XML (OFX 2.x) files by tokenizing on tags instead of lines.
+ */
+public class OfxStatementParser implements StatementParser {
+    
+    private static final DateTimeFormatter OFX_DATE = DateTimeFormatter.BASIC_ISO_DATE;
+    
+    // Longer values and tags are not buffered: a value rejects its record, a tag the whole file
+    static final int MAX_VALUE_LENGTH = 64 * 1024;
+    static final int MAX_TAG_LENGTH = 1024;
+    
+    @Override
+    public void parse(Reader reader, String defaultAccountId, Consumer<StatementRow> sink) throws IOException {
+        BufferedReader in = new BufferedReader(reader);
+        Map<String, String> fields = null;
+        String openTag = null;
+        int record = 0;
+        
+        StringBuilder token = new StringBuilder();
+        boolean tooLong = false;
+        int c;
+        while ((c = in.read()) != -1) {
+            if (c != '<') {
+                if (token.length() == 0 && Character.isWhitespace(c)) {
+                    continue;
+                }
+                if (token.length() < MAX_VALUE_LENGTH) {
+                    token.append((char) c);
+                } else if (!tooLong) {
+                    tooLong = true;
+                    if (fields != null) {
+                        sink.accept(StatementRow.rejected(++record, "Value exceeds " + MAX_VALUE_LENGTH + " characters"));
+                        fields = null;
+                    }
+                }
+                continue;
+            }
+            // Text collected since the previous tag is the value of an SGML leaf element
+            String text = tooLong ? "" : token.toString().trim();
+            token.setLength(0);
+            tooLong = false;
+            if (fields != null && openTag != null && !text.isEmpty()) {
+                fields.put(openTag, text);
+            }
+            
+            String tag = readTag(in).toUpperCase(Locale.ROOT);
+            if (tag.equals("STMTTRN")) {
+                fields = new HashMap<>();
+                openTag = null;
+            } else if (tag.equals("/STMTTRN")) {
+                if (fields != null) {
+                    sink.accept(toRow(++record, fields, defaultAccountId));
+                }
+                fields = null;
+            } else {
+                openTag = tag.startsWith("/") ? null : tag;
+            }
+        }
+    }
+    
+    private String readTag(BufferedReader in) throws IOException {
+        StringBuilder tag = new StringBuilder();
+        int c;
+        while ((c = in.read()) != -1 && c != '>') {
+            if (tag.length() == MAX_TAG_LENGTH) {
+                throw new RuntimeException("OFX tag exceeds " + MAX_TAG_LENGTH + " characters");
+            }
+            tag.append((char) c);
+        }
+        return tag.toString().trim();
+    }
+    
+    private StatementRow toRow(int record, Map<String, String> fields, String defaultAccountId) {
+        try {
+            String rawAmount = fields.get("TRNAMT");
+            String rawDate = fields.get("DTPOSTED");
+            if (rawAmount == null || rawDate == null || rawDate.length() < 8) {
+                return StatementRow.rejected(record, "Missing TRNAMT or DTPOSTED");
+            }
+            BigDecimal amount = parseAmount(rawAmount);
+            LocalDate date = LocalDate.parse(rawDate.substring(0, 8), OFX_DATE);
+            String description = fields.getOrDefault("NAME", fields.get("MEMO"));
+            TransactionType type = amount.signum() < 0 ? TransactionType.EXPENSE : TransactionType.INCOME;
+            
+            return StatementRow.parsed(record, new TransactionRequest(description, amount.abs(), null, date, defaultAccountId, type));
+        } catch (NumberFormatException e) {
+            return StatementRow.rejected(record, "Invalid amount");
+        } catch (DateTimeParseException e) {
+            return StatementRow.rejected(record, "Invalid date");
+        }
+    }
+    
+    // Some banks write a decimal comma ("12,50"); otherwise commas are thousands separators ("1,234.56")
+    static BigDecimal parseAmount(String raw) {
+        int comma = raw.lastIndexOf(',');
+        if (comma < 0) {
+            return new BigDecimal(raw.trim());
+        }
+        if (comma > raw.lastIndexOf('.')) {
+            return new BigDecimal(raw.replace(".", "").replace(',', '.').trim());
+        }
+        return new BigDecimal(raw.replace(",", "").trim());
+    }
+}
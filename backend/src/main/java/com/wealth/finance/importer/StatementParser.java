@@ -0,0 +1,14 @@
+package com.wealth.finance.importer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.function.Consumer;
+
+/**
+ * Reads a bank statement record by record and hands each one to the sink as soon as it is parsed,
+ * so an upload is never held in memory as a whole.
+ */
+public interface StatementParser {
+    
+    void parse(Reader reader, String defaultAccountId, Consumer<StatementRow> sink) throws IOException;
+}
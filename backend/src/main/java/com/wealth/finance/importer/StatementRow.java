@@ -0,0 +1,43 @@
+package com.wealth.finance.importer;
+
+import com.wealth.finance.dto.TransactionRequest;
+
+/**
+ * One record read from an uploaded statement: either a parsed request or the reason it could not be parsed.
+ */
+public class StatementRow {
+    
+    private final int line;
+    private final TransactionRequest request;
+    private final String error;
+    
+    private StatementRow(int line, TransactionRequest request, String error) {
+        this.line = line;
+        this.request = request;
+        this.error = error;
+    }
+    
+    public static StatementRow parsed(int line, TransactionRequest request) {
+        return new StatementRow(line, request, null);
+    }
+    
+    public static StatementRow rejected(int line, String error) {
+        return new StatementRow(line, null, error);
+    }
+    
+    public int getLine() {
+        return line;
+    }
+    
+    public TransactionRequest getRequest() {
+        return request;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public boolean isRejected() {
+        return error != null;
+    }
+}
@@ -0,0 +1,84 @@
+package com.wealth.finance.job;
+
+import com.wealth.finance.config.TransactionSchemaMigration;
+import com.wealth.finance.dto.BalanceReconciliationResponse;
+import com.wealth.finance.model.Account;
+import com.wealth.finance.service.AccountService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.util.List;
+
+/**
+ * Recomputes account balances from the transaction ledger and reports drift, e.g. from writes
+ * that failed between saving a transaction and applying its balance change.
+ */
+@Component
+public class BalanceReconciliationJob {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BalanceReconciliationJob.class);
+    
+    @Autowired
+    private TransactionSchemaMigration schemaMigration;
+    
+    @Autowired
+    private AccountService accountService;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Value("${accounts.reconcile.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${accounts.reconcile.correct:true}")
+    private boolean correct;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnFirstStart() {
+        // Accounts created before balances followed the ledger have no opening balance yet
+        if (enabled && mongoTemplate.exists(new Query(Criteria.where("openingBalance").exists(false)), Account.class)) {
+            reconcileAll();
+        }
+    }
+    
+    @Scheduled(cron = "${accounts.reconcile.cron:0 0 4 * * *}")
+    public void scheduledReconcile() {
+        if (enabled) {
+            reconcileAll();
+        }
+    }
+    
+    public void reconcileAll() {
+        if (!schemaMigration.isComplete()) {
+            logger.info("Balance reconciliation skipped until the transaction schema migration has finished");
+            return;
+        }
+        long started = System.currentTimeMillis();
+        List<String> userIds = mongoTemplate.findDistinct(new Query(), "userId", Account.class, String.class);
+        
+        int accounts = 0;
+        int drifted = 0;
+        for (String userId : userIds) {
+            try {
+                for (BalanceReconciliationResponse result : accountService.reconcileUser(userId, correct)) {
+                    accounts++;
+                    if (result.getDrift().signum() != 0) {
+                        drifted++;
+                    }
+                }
+            } catch (RuntimeException e) {
+                logger.error("Balance reconciliation failed for user {}", userId, e);
+            }
+        }
+        logger.info("Balance reconciliation checked {} accounts in {} ms, {} had drifted{}",
+                accounts, System.currentTimeMillis() - started, drifted, correct ? " and were corrected" : "");
+    }
+}
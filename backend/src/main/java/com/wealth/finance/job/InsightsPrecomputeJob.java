@@ -0,0 +1,266 @@
+package com.wealth.finance.job;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoWriteException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.UpdateOptions;
+import com.wealth.finance.config.TransactionSchemaMigration;
+import com.wealth.finance.model.MonthlyRollup;
+import com.wealth.finance.service.GeminiAPIService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates AI insights for the month just closed ahead of the first views, which cluster in the first
+ * days of a month. Runs nightly during the first {@code gemini.precompute.window-days} days: each run
+ * visits every user with activity in the previous month, in user id order, with bounded parallelism and
+ * with model calls paced by a shared token bucket. Users whose stored insights still match their figures
+ * cost only a summary read, so later runs mostly pick up late imports and earlier failures.
+ *
+ * <p>The position is checkpointed after every batch of users; a run interrupted by a restart resumes
+ * from there once the application is ready, or once the schema migration has finished if it had not.
+ * Runs happen on a dedicated thread, so a long run never holds up the shared scheduler.
+ *
+ * <p>Every instance schedules the job, but only the holder of the lease on the checkpoint document runs
+ * it. The lease lasts {@code gemini.precompute.lease} and is renewed with every checkpoint, so it must
+ * outlast one batch; a lease left behind by a crashed instance expires and is taken over.
+ */
+@Component
+public class InsightsPrecomputeJob {
+    
+    private static final Logger logger = LoggerFactory.getLogger(InsightsPrecomputeJob.class);
+    
+    private static final String CHECKPOINT_ID = "ai-insights-precompute";
+    private static final String CHECKPOINTS = "job_checkpoints";
+    
+    @Autowired
+    private TransactionSchemaMigration schemaMigration;
+    
+    @Autowired
+    private GeminiAPIService geminiAPIService;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${gemini.precompute.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${gemini.precompute.window-days:5}")
+    private int windowDays;
+    
+    @Value("${gemini.precompute.parallelism:4}")
+    private int parallelism;
+    
+    @Value("${gemini.precompute.batch-size:100}")
+    private int batchSize;
+    
+    @Value("${gemini.precompute.lease:PT15M}")
+    private Duration lease;
+    
+    private final String owner = UUID.randomUUID().toString();
+    private final AtomicBoolean running = new AtomicBoolean();
+    // Set when a run was skipped because the schema migration had not finished
+    private volatile boolean resumePending;
+    private ExecutorService coordinator;
+    private ExecutorService workers;
+    
+    @PostConstruct
+    public void init() {
+        coordinator = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "insights-precompute");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger threads = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "insights-precompute-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+        workers.shutdownNow();
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeOnStart() {
+        Document checkpoint = checkpoints().find(new Document("_id", CHECKPOINT_ID)).first();
+        if (enabled && checkpoint != null && !checkpoint.getBoolean("done", false)
+                && previousMonth().toString().equals(checkpoint.getString("month"))) {
+            coordinator.execute(this::precompute);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${gemini.precompute.resume-check-ms:60000}")
+    public void resumeAfterMigration() {
+        if (enabled && resumePending && schemaMigration.isComplete()) {
+            resumePending = false;
+            coordinator.execute(this::precompute);
+        }
+    }
+    
+    @Scheduled(cron = "${gemini.precompute.cron:0 0 2 * * *}")
+    public void scheduledPrecompute() {
+        if (enabled && LocalDate.now().getDayOfMonth() <= windowDays) {
+            coordinator.execute(this::precompute);
+        }
+    }
+    
+    public void precompute() {
+        if (!schemaMigration.isComplete()) {
+            resumePending = true;
+            logger.info("Insights precompute postponed until the transaction schema migration has finished");
+            return;
+        }
+        if (!running.compareAndSet(false, true)) {
+            logger.info("Insights precompute already running, skipping");
+            return;
+        }
+        try {
+            if (!acquireLease()) {
+                logger.info("Insights precompute is running on another instance, skipping");
+                return;
+            }
+            try {
+                run(previousMonth());
+            } finally {
+                releaseLease();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.error("Insights precompute failed, it resumes from the last checkpoint", e);
+        } finally {
+            running.set(false);
+        }
+    }
+    
+    private void run(YearMonth month) throws InterruptedException {
+        MongoCollection<Document> checkpoints = checkpoints();
+        Document checkpoint = checkpoints.find(new Document("_id", CHECKPOINT_ID)).first();
+        // Resume an unfinished run for the same month; otherwise start over from the first user
+        String lastUserId = checkpoint != null && !checkpoint.getBoolean("done", false)
+                && month.toString().equals(checkpoint.getString("month")) ? checkpoint.getString("lastUserId") : null;
+        
+        // Users with any transaction in the month have rollups for it
+        List<String> userIds = mongoTemplate.findDistinct(new Query(Criteria.where("yearMonth").is(month.toString())),
+                "userId", MonthlyRollup.class, String.class);
+        String resumeAfter = lastUserId;
+        List<String> pending = userIds.stream()
+                .filter(userId -> resumeAfter == null || userId.compareTo(resumeAfter) > 0)
+                .sorted()
+                .toList();
+        
+        long started = System.currentTimeMillis();
+        int generated = 0;
+        int unchanged = 0;
+        int failed = 0;
+        for (int from = 0; from < pending.size(); from += batchSize) {
+            List<String> batch = pending.subList(from, Math.min(from + batchSize, pending.size()));
+            List<Future<Boolean>> results = new ArrayList<>(batch.size());
+            for (String userId : batch) {
+                results.add(workers.submit(() -> geminiAPIService.precompute(userId, month)));
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                try {
+                    if (results.get(i).get()) {
+                        generated++;
+                    } else {
+                        unchanged++;
+                    }
+                } catch (ExecutionException e) {
+                    // Left for the next run; a view before then generates on demand
+                    failed++;
+                    logger.warn("Insights precompute failed for user {}: {}", batch.get(i), e.getCause().toString());
+                }
+            }
+            // Renews the lease with the checkpoint; if another instance has taken over, leave the rest to it
+            if (checkpoints.updateOne(owned(), new Document("$set",
+                    new Document("month", month.toString()).append("lastUserId", batch.get(batch.size() - 1))
+                            .append("done", false).append("updatedAt", new Date()).append("leaseUntil", leaseUntil())))
+                    .getMatchedCount() == 0) {
+                logger.warn("Insights precompute lost its lease after user {}, stopping", batch.get(batch.size() - 1));
+                return;
+            }
+        }
+        
+        checkpoints.updateOne(owned(), new Document("$set",
+                new Document("month", month.toString()).append("done", true).append("finishedAt", new Date())));
+        meterRegistry.counter("ai.insights.precompute", "outcome", "generated").increment(generated);
+        meterRegistry.counter("ai.insights.precompute", "outcome", "unchanged").increment(unchanged);
+        meterRegistry.counter("ai.insights.precompute", "outcome", "failed").increment(failed);
+        logger.info("Insights precompute for {} visited {} users in {} ms: {} generated, {} unchanged, {} failed",
+                month, pending.size(), System.currentTimeMillis() - started, generated, unchanged, failed);
+    }
+    
+    // Takes the lease when it is free, expired or already ours; the upsert creates the document on first use
+    private boolean acquireLease() {
+        Document free = new Document("_id", CHECKPOINT_ID).append("$or", List.of(
+                new Document("owner", owner),
+                new Document("leaseUntil", new Document("$lt", new Date())),
+                new Document("leaseUntil", new Document("$exists", false))));
+        try {
+            checkpoints().updateOne(free, new Document("$set", new Document("owner", owner).append("leaseUntil", leaseUntil())),
+                    new UpdateOptions().upsert(true));
+            return true;
+        } catch (MongoWriteException e) {
+            // Held by another instance: the filter did not match and the upsert collided with its document
+            if (e.getError().getCategory() == ErrorCategory.DUPLICATE_KEY) {
+                return false;
+            }
+            throw e;
+        }
+    }
+    
+    private void releaseLease() {
+        checkpoints().updateOne(owned(), new Document("$set", new Document("leaseUntil", new Date())));
+    }
+    
+    private Document owned() {
+        return new Document("_id", CHECKPOINT_ID).append("owner", owner);
+    }
+    
+    private Date leaseUntil() {
+        return new Date(System.currentTimeMillis() + lease.toMillis());
+    }
+    
+    private MongoCollection<Document> checkpoints() {
+        return mongoTemplate.getCollection(CHECKPOINTS);
+    }
+    
+    private static YearMonth previousMonth() {
+        return YearMonth.now().minusMonths(1);
+    }
+}
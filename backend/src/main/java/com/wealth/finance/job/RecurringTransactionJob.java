@@ -0,0 +1,70 @@
+package com.wealth.finance.job;
+
+import com.wealth.finance.config.TransactionSchemaMigration;
+import com.wealth.finance.service.RecurringTransactionService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Creates due occurrences of recurring transactions shortly after midnight, and once at startup so
+ * occurrences missed while the application was down are caught up.
+ */
+@Component
+public class RecurringTransactionJob {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RecurringTransactionJob.class);
+    
+    @Autowired
+    private TransactionSchemaMigration schemaMigration;
+    
+    @Autowired
+    private RecurringTransactionService recurringService;
+    
+    @Value("${recurring.materialize.enabled:true}")
+    private boolean enabled;
+    
+    private final AtomicBoolean running = new AtomicBoolean();
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void catchUpOnStart() {
+        if (enabled) {
+            materialize();
+        }
+    }
+    
+    @Scheduled(cron = "${recurring.materialize.cron:0 5 0 * * *}")
+    public void scheduledMaterialize() {
+        if (enabled) {
+            materialize();
+        }
+    }
+    
+    public void materialize() {
+        if (!schemaMigration.isComplete()) {
+            logger.info("Recurring materialization skipped until the transaction schema migration has finished");
+            return;
+        }
+        if (!running.compareAndSet(false, true)) {
+            logger.info("Recurring materialization already running, skipping");
+            return;
+        }
+        try {
+            long started = System.currentTimeMillis();
+            int created = recurringService.materializeDue(LocalDate.now());
+            logger.info("Recurring materialization created {} transactions in {} ms",
+                    created, System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            logger.error("Recurring materialization failed", e);
+        } finally {
+            running.set(false);
+        }
+    }
+}
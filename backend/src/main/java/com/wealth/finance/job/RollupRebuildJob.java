@@ -0,0 +1,77 @@
+package com.wealth.finance.job;
+
+import com.wealth.finance.config.TransactionSchemaMigration;
+import com.wealth.finance.model.Transaction;
+import com.wealth.finance.repository.MonthlyRollupRepository;
+import com.wealth.finance.service.MonthlyRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.util.List;
+
+/**
+ * Recomputes monthly rollups from raw transactions and repairs any drift, e.g. from writes
+ * that failed between saving a transaction and applying its rollup delta.
+ */
+@Component
+public class RollupRebuildJob {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RollupRebuildJob.class);
+    
+    @Autowired
+    private TransactionSchemaMigration schemaMigration;
+    
+    @Autowired
+    private MonthlyRollupService rollupService;
+    
+    @Autowired
+    private MonthlyRollupRepository rollupRepository;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Value("${rollups.rebuild.enabled:true}")
+    private boolean enabled;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnFirstStart() {
+        // Existing deployments start with an empty rollup collection
+        if (enabled && rollupRepository.count() == 0) {
+            rebuildAll();
+        }
+    }
+    
+    @Scheduled(cron = "${rollups.rebuild.cron:0 30 3 * * *}")
+    public void scheduledRebuild() {
+        if (enabled) {
+            rebuildAll();
+        }
+    }
+    
+    public void rebuildAll() {
+        if (!schemaMigration.isComplete()) {
+            logger.info("Rollup rebuild skipped until the transaction schema migration has finished");
+            return;
+        }
+        long started = System.currentTimeMillis();
+        List<String> userIds = mongoTemplate.findDistinct(new Query(), "userId", Transaction.class, String.class);
+        
+        int drifted = 0;
+        for (String userId : userIds) {
+            try {
+                drifted += rollupService.rebuild(userId);
+            } catch (RuntimeException e) {
+                logger.error("Rollup rebuild failed for user {}", userId, e);
+            }
+        }
+        logger.info("Rollup rebuild checked {} users in {} ms, corrected {} drifted rollups",
+                userIds.size(), System.currentTimeMillis() - started, drifted);
+    }
+}
@@ -3,6 +3,8 @@ package com.wealth.finance.model;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -20,8 +22,13 @@ public class Account {
     
     @NotNull(message = "Balance is required")
     @Positive(message = "Balance must be positive")
+    @Field(targetType = FieldType.DECIMAL128)
     private BigDecimal balance;
     
+    // Balance before any recorded transaction; balance = openingBalance + income - expenses
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal openingBalance;
+    
     @NotNull(message = "Account type is required")
     private AccountType accountType;
     
@@ -78,6 +85,14 @@ public class Account {
         this.balance = balance;
     }
     
+    public BigDecimal getOpeningBalance() {
+        return openingBalance;
+    }
+    
+    public void setOpeningBalance(BigDecimal openingBalance) {
+        this.openingBalance = openingBalance;
+    }
+    
     public AccountType getAccountType() {
         return accountType;
     }
@@ -124,6 +139,7 @@ public class Account {
                 "id='" + id + '\'' +
                 ", accountName='" + accountName + '\'' +
                 ", balance=" + balance +
+                ", openingBalance=" + openingBalance +
                 ", accountType=" + accountType +
                 ", isDefault=" + isDefault +
                 ", userId='" + userId + '\'' +
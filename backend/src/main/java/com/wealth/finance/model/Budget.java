@@ -2,7 +2,7 @@ package com.wealth.finance.model;
 
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
-import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -11,13 +11,13 @@ import java.time.LocalDateTime;
 import java.time.YearMonth;
 
 @Document(collection = "budgets")
+@CompoundIndex(name = "user_year_month", def = "{'userId': 1, 'yearMonth': -1}")
 public class Budget {
     
     @Id
     private String id;
     
     @NotBlank(message = "User ID is required")
-    @Indexed
     private String userId;
     
     @NotNull(message = "Budget amount is required")
@@ -0,0 +1,129 @@
+package com.wealth.finance.model;
+
+import com.wealth.finance.model.Transaction.TransactionType;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDateTime;
+
+/**
+ * A transaction category with a compact integer id. Built-in categories have no user; custom
+ * categories belong to one user and may sit under a parent category.
+ */
+@Document(collection = "categories")
+@CompoundIndex(name = "user_name", def = "{'userId': 1, 'name': 1}", unique = true)
+public class Category {
+    
+    @Id
+    private Integer id;
+    
+    private String name;
+    
+    private String color;
+    
+    private Integer parentId;
+    
+    private TransactionType kind;
+    
+    // Null for built-in categories
+    private String userId;
+    
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    
+    // Constructors
+    public Category() {
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    public Category(Integer id, String name, String color, TransactionType kind, String userId) {
+        this();
+        this.id = id;
+        this.name = name;
+        this.color = color;
+        this.kind = kind;
+        this.userId = userId;
+    }
+    
+    public boolean isBuiltIn() {
+        return userId == null;
+    }
+    
+    // Getters and Setters
+    public Integer getId() {
+        return id;
+    }
+    
+    public void setId(Integer id) {
+        this.id = id;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public String getColor() {
+        return color;
+    }
+    
+    public void setColor(String color) {
+        this.color = color;
+    }
+    
+    public Integer getParentId() {
+        return parentId;
+    }
+    
+    public void setParentId(Integer parentId) {
+        this.parentId = parentId;
+    }
+    
+    public TransactionType getKind() {
+        return kind;
+    }
+    
+    public void setKind(TransactionType kind) {
+        this.kind = kind;
+    }
+    
+    public String getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+    
+    @Override
+    public String toString() {
+        return "Category{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                ", color='" + color + '\'' +
+                ", parentId=" + parentId +
+                ", kind=" + kind +
+                ", userId='" + userId + '\'' +
+                '}';
+    }
+}
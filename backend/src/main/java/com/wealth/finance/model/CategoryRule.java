@@ -0,0 +1,135 @@
+package com.wealth.finance.model;
+
+import com.wealth.finance.model.Transaction.TransactionType;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDateTime;
+
+/**
+ * Assigns a category to transactions whose description matches. Global rules have no user and apply
+ * to everyone; a user's own rules take precedence over them and over what was learned from their history.
+ */
+@Document(collection = "category_rules")
+public class CategoryRule {
+    
+    public enum MatchType {
+        // Whole words or phrases anywhere in the description, ignoring case and accents
+        KEYWORD,
+        // A regular expression searched in the raw description, ignoring case
+        REGEX,
+        // The normalized merchant name, e.g. "blue bottle" for "SQ *BLUE BOTTLE #0231"
+        MERCHANT
+    }
+    
+    @Id
+    private String id;
+    
+    // Null for global rules
+    @Indexed
+    private String userId;
+    
+    private MatchType matchType;
+    
+    private String pattern;
+    
+    private Integer categoryId;
+    
+    // Null when the rule applies to both income and expenses
+    private TransactionType type;
+    
+    // Higher wins when several rules match; ties go to the longer pattern
+    private int priority;
+    
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    
+    // Constructors
+    public CategoryRule() {
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    public CategoryRule(String userId, MatchType matchType, String pattern, Integer categoryId, TransactionType type, int priority) {
+        this();
+        this.userId = userId;
+        this.matchType = matchType;
+        this.pattern = pattern;
+        this.categoryId = categoryId;
+        this.type = type;
+        this.priority = priority;
+    }
+    
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
+    public String getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+    
+    public MatchType getMatchType() {
+        return matchType;
+    }
+    
+    public void setMatchType(MatchType matchType) {
+        this.matchType = matchType;
+    }
+    
+    public String getPattern() {
+        return pattern;
+    }
+    
+    public void setPattern(String pattern) {
+        this.pattern = pattern;
+    }
+    
+    public Integer getCategoryId() {
+        return categoryId;
+    }
+    
+    public void setCategoryId(Integer categoryId) {
+        this.categoryId = categoryId;
+    }
+    
+    public TransactionType getType() {
+        return type;
+    }
+    
+    public void setType(TransactionType type) {
+        this.type = type;
+    }
+    
+    public int getPriority() {
+        return priority;
+    }
+    
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,22 @@
+package com.wealth.finance.model;
+
+import org.springframework.data.mongodb.core.convert.MongoConversionContext;
+import org.springframework.data.mongodb.core.convert.MongoValueConverter;
+import java.math.BigDecimal;
+
+/**
+ * Persists a BigDecimal amount as a long count of cents. Both directions go through {@link Money},
+ * so an amount with sub-cent digits is rejected instead of silently rounded.
+ */
+public class CentsConverter implements MongoValueConverter<BigDecimal, Long> {
+    
+    @Override
+    public BigDecimal read(Long value, MongoConversionContext context) {
+        return Money.ofCents(value).toBigDecimal();
+    }
+    
+    @Override
+    public Long write(BigDecimal value, MongoConversionContext context) {
+        return Money.of(value).getCents();
+    }
+}
@@ -0,0 +1,22 @@
+package com.wealth.finance.model;
+
+import org.springframework.data.mongodb.core.convert.MongoConversionContext;
+import org.springframework.data.mongodb.core.convert.MongoValueConverter;
+import java.time.LocalDate;
+
+/**
+ * Persists a LocalDate as its epoch day: a 32-bit int instead of a BSON date, and free of the
+ * time zone the JVM would otherwise use to place the date on the timeline.
+ */
+public class EpochDayConverter implements MongoValueConverter<LocalDate, Integer> {
+    
+    @Override
+    public LocalDate read(Integer value, MongoConversionContext context) {
+        return LocalDate.ofEpochDay(value);
+    }
+    
+    @Override
+    public Integer write(LocalDate value, MongoConversionContext context) {
+        return Math.toIntExact(value.toEpochDay());
+    }
+}
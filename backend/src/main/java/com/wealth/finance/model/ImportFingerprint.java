@@ -0,0 +1,47 @@
+package com.wealth.finance.model;
+
+import com.wealth.finance.model.Transaction.TransactionType;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Identifies a statement row across imports. The fingerprint hashes the account, date, amount in cents,
+ * type and normalized description, so the same row exported again (even with different letter case, spacing
+ * or punctuation) hashes the same. Identical rows within one statement, like two coffees on the same day,
+ * are told apart by their ordinal: the first is 0, the next 1, and a re-import assigns them the same way.
+ */
+public final class ImportFingerprint {
+    
+    // 128 bits of SHA-256: collisions are out of reach at any ledger size, at half the storage
+    private static final int BYTES = 16;
+    
+    private ImportFingerprint() {}
+    
+    /**
+     * The part shared by identical rows; rows with the same key are numbered to get their fingerprints.
+     */
+    public static String key(String accountId, long epochDay, long cents, TransactionType type, String description) {
+        // Amounts are stored unsigned, so a charge and a refund of the same amount differ only by type
+        return accountId + '|' + epochDay + '|' + cents + '|' + type + '|' + String.join(" ", SearchTokens.words(description));
+    }
+    
+    public static String of(String key, int ordinal) {
+        byte[] digest = sha256().digest((key + '#' + ordinal).getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest, 0, BYTES);
+    }
+    
+    public static String of(Transaction transaction, int ordinal) {
+        return of(key(transaction.getAccountId(), transaction.getDate().toEpochDay(),
+                Money.of(transaction.getAmount()).getCents(), transaction.getType(), transaction.getDescription()), ordinal);
+    }
+    
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
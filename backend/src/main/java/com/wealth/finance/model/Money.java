@@ -0,0 +1,84 @@
+package com.wealth.finance.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Immutable monetary amount held as a {@code long} count of cents. Used where many amounts are summed,
+ * such as summaries and rollup deltas, so adding does not allocate a BigDecimal per step. Conversions
+ * to and from BigDecimal are exact: an amount with sub-cent digits or outside the long range is
+ * rejected, and arithmetic overflow throws instead of wrapping.
+ */
+public final class Money implements Comparable<Money> {
+    
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+    
+    private final long cents;
+    
+    private Money(long cents) {
+        this.cents = cents;
+    }
+    
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+    
+    public static Money of(BigDecimal amount) {
+        try {
+            return ofCents(amount.movePointRight(SCALE).longValueExact());
+        } catch (ArithmeticException e) {
+            throw new ArithmeticException("Amount " + amount.toPlainString() + " is not representable in whole cents");
+        }
+    }
+    
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+    
+    public Money minus(Money other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+    
+    public Money negate() {
+        return ofCents(Math.negateExact(cents));
+    }
+    
+    /**
+     * Share of {@code total} in percent, or 0 when the total is not positive.
+     */
+    public double percentOf(Money total) {
+        return total.cents > 0 ? cents * 100.0 / total.cents : 0;
+    }
+    
+    public int signum() {
+        return Long.signum(cents);
+    }
+    
+    public long getCents() {
+        return cents;
+    }
+    
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+    
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+    
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Money && ((Money) other).cents == cents;
+    }
+    
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+    
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
@@ -0,0 +1,129 @@
+package com.wealth.finance.model;
+
+import com.wealth.finance.model.Transaction.TransactionType;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Materialized per-month totals of a user's transactions, one document per (type, category id).
+ * Maintained incrementally by transaction writes; see MonthlyRollupService.
+ */
+@Document(collection = "monthly_rollups")
+@CompoundIndex(name = "user_month_type_category_id", def = "{'userId': 1, 'yearMonth': 1, 'type': 1, 'categoryId': 1}", unique = true)
+public class MonthlyRollup {
+    
+    @Id
+    private String id;
+    
+    private String userId;
+    
+    // Stored as yyyy-MM so month ranges sort and compare lexically
+    private String yearMonth;
+    
+    private TransactionType type;
+    
+    private Integer categoryId;
+    
+    @Field(targetType = FieldType.DECIMAL128)
+    private BigDecimal total;
+    
+    private long count;
+    
+    private LocalDateTime updatedAt;
+    
+    // Constructors
+    public MonthlyRollup() {}
+    
+    public MonthlyRollup(String userId, String yearMonth, TransactionType type, Integer categoryId, BigDecimal total, long count) {
+        this.userId = userId;
+        this.yearMonth = yearMonth;
+        this.type = type;
+        this.categoryId = categoryId;
+        this.total = total;
+        this.count = count;
+    }
+    
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
+    public String getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+    
+    public String getYearMonth() {
+        return yearMonth;
+    }
+    
+    public void setYearMonth(String yearMonth) {
+        this.yearMonth = yearMonth;
+    }
+    
+    public TransactionType getType() {
+        return type;
+    }
+    
+    public void setType(TransactionType type) {
+        this.type = type;
+    }
+    
+    public Integer getCategoryId() {
+        return categoryId;
+    }
+    
+    public void setCategoryId(Integer categoryId) {
+        this.categoryId = categoryId;
+    }
+    
+    public BigDecimal getTotal() {
+        return total;
+    }
+    
+    public void setTotal(BigDecimal total) {
+        this.total = total;
+    }
+    
+    public long getCount() {
+        return count;
+    }
+    
+    public void setCount(long count) {
+        this.count = count;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+    
+    @Override
+    public String toString() {
+        return "MonthlyRollup{" +
+                "id='" + id + '\'' +
+                ", userId='" + userId + '\'' +
+                ", yearMonth='" + yearMonth + '\'' +
+                ", type=" + type +
+                ", categoryId=" + categoryId +
+                ", total=" + total +
+                ", count=" + count +
+                ", updatedAt=" + updatedAt +
+                '}';
+    }
+}
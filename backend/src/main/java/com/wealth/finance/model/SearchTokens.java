@@ -0,0 +1,72 @@
+package com.wealth.finance.model;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Turns free text into the search tokens stored on a transaction. Words are lowercased and stripped of
+ * accents, and every prefix of a word from {@link #MIN_PREFIX} characters up is stored alongside it, so
+ * both whole-word and prefix searches are exact matches on one multikey index.
+ */
+public final class SearchTokens {
+    
+    public static final int MIN_PREFIX = 2;
+    public static final int MAX_WORD_LENGTH = 20;
+    
+    // Bounds the index entries of a single document for unusually long descriptions
+    private static final int MAX_TOKENS = 128;
+    
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    
+    private SearchTokens() {}
+    
+    /**
+     * Tokens to store for the given text: each distinct word and its prefixes.
+     */
+    public static List<String> of(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String word : words(text)) {
+            for (int length = Math.min(MIN_PREFIX, word.length()); length <= word.length(); length++) {
+                if (tokens.size() == MAX_TOKENS) {
+                    return new ArrayList<>(tokens);
+                }
+                tokens.add(word.substring(0, length));
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+    
+    /**
+     * The normalized distinct words of the text, each cut to {@link #MAX_WORD_LENGTH} characters.
+     * A search term is matched by looking it up as a token.
+     */
+    public static List<String> words(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        if (text == null) {
+            return new ArrayList<>(words);
+        }
+        String normalized = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFKD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        for (String word : SEPARATORS.split(normalized)) {
+            if (!word.isEmpty()) {
+                words.add(word.length() > MAX_WORD_LENGTH ? word.substring(0, MAX_WORD_LENGTH) : word);
+            }
+        }
+        return new ArrayList<>(words);
+    }
+    
+    /**
+     * Whether a search term matches the text the way it would match stored tokens: a whole word, or the
+     * prefix of a word when the term has at least {@link #MIN_PREFIX} characters.
+     */
+    public static boolean matches(String term, String text) {
+        return words(text).stream().anyMatch(word -> word.equals(term)
+                || term.length() >= MIN_PREFIX && word.startsWith(term));
+    }
+}
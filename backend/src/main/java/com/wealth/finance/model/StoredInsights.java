@@ -0,0 +1,102 @@
+package com.wealth.finance.model;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Generated insights of one user's month, kept so that repeat views and the nightly precompute survive
+ * restarts. Valid only while the month's figures still produce the same prompt, which the stored
+ * fingerprint (SHA-256 of the prompt) is compared against.
+ */
+@Document(collection = "ai_insights")
+@CompoundIndex(name = "user_month", def = "{'userId': 1, 'month': 1}", unique = true)
+public class StoredInsights {
+    
+    @Id
+    private String id;
+    
+    private String userId;
+    
+    // Stored as yyyy-MM, like the rollups
+    private String month;
+    
+    private String fingerprint;
+    
+    private List<String> insights;
+    
+    private String summary;
+    
+    private LocalDateTime generatedAt;
+    
+    // Constructors
+    public StoredInsights() {}
+    
+    public StoredInsights(String userId, String month, String fingerprint, List<String> insights, String summary) {
+        this.userId = userId;
+        this.month = month;
+        this.fingerprint = fingerprint;
+        this.insights = insights;
+        this.summary = summary;
+        this.generatedAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
+    public String getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+    
+    public String getMonth() {
+        return month;
+    }
+    
+    public void setMonth(String month) {
+        this.month = month;
+    }
+    
+    public String getFingerprint() {
+        return fingerprint;
+    }
+    
+    public void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+    
+    public List<String> getInsights() {
+        return insights;
+    }
+    
+    public void setInsights(List<String> insights) {
+        this.insights = insights;
+    }
+    
+    public String getSummary() {
+        return summary;
+    }
+    
+    public void setSummary(String summary) {
+        this.summary = summary;
+    }
+    
+    public LocalDateTime getGeneratedAt() {
+        return generatedAt;
+    }
+    
+    public void setGeneratedAt(LocalDateTime generatedAt) {
+        this.generatedAt = generatedAt;
+    }
+}
@@ -1,7 +1,13 @@
 package com.wealth.finance.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.TypeAlias;
+import org.springframework.data.convert.ValueConverter;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -9,41 +15,98 @@ import jakarta.validation.constraints.DecimalMin;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
 
+// Persisted in a compact form: short keys, amounts in cents and dates as epoch days. Queries and
+// aggregations keep using the property names, which the mapping layer translates; index definitions
+// are not translated and therefore name the stored keys
 @Document(collection = "transactions")
+@TypeAlias("tx")
+@CompoundIndexes({
+    @CompoundIndex(name = "user_date_id", def = "{'u': 1, 'dt': -1, '_id': -1}"),
+    @CompoundIndex(name = "user_type_date", def = "{'u': 1, 't': 1, 'dt': 1}"),
+    @CompoundIndex(name = "user_account_date_id", def = "{'u': 1, 'ac': 1, 'dt': -1, '_id': -1}"),
+    @CompoundIndex(name = "user_category_date_id", def = "{'u': 1, 'ci': 1, 'dt': -1, '_id': -1}"),
+    @CompoundIndex(name = "user_tokens_date_id", def = "{'u': 1, 'tk': 1, 'dt': -1, '_id': -1}"),
+    @CompoundIndex(name = "user_fingerprint", def = "{'u': 1, 'fp': 1}", unique = true,
+            partialFilter = "{'fp': {'$exists': true}}"),
+    @CompoundIndex(name = "recurring_due", def = "{'nr': 1, '_id': 1}",
+            partialFilter = "{'nr': {'$exists': true}}"),
+    @CompoundIndex(name = "recurring_occurrence", def = "{'rs': 1, 'dt': 1}", unique = true,
+            partialFilter = "{'rs': {'$exists': true}}")
+})
 public class Transaction {
     
     @Id
     private String id;
     
     @NotBlank(message = "Description is required")
+    @Field("d")
     private String description;
     
+    // Words of the description and their prefixes (see SearchTokens); derived, so not part of the API
+    @JsonIgnore
+    @Field("tk")
+    private List<String> searchTokens;
+    
     @NotNull(message = "Amount is required")
     @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
+    @Field("a")
+    @ValueConverter(CentsConverter.class)
     private BigDecimal amount;
     
     @NotBlank(message = "Category is required")
+    @Field("c")
     private String category;
     
+    // Registry id of the category; aggregations group by this rather than by the name
+    @Field("ci")
+    private Integer categoryId;
+    
     @NotNull(message = "Date is required")
+    @Field("dt")
+    @ValueConverter(EpochDayConverter.class)
     private LocalDate date;
     
     @NotBlank(message = "Account ID is required")
     @Indexed
+    @Field("ac")
     private String accountId;
     
     @NotBlank(message = "User ID is required")
-    @Indexed
+    @Field("u")
     private String userId;
     
     @NotNull(message = "Transaction type is required")
+    @Field("t")
     private TransactionType type;
     
+    @Field("r")
     private boolean isRecurring;
+    
+    @Field("ri")
     private RecurringInterval recurringInterval;
     
+    // Set on recurring templates only: the date of the next occurrence still to be created
+    @Field("nr")
+    @ValueConverter(EpochDayConverter.class)
+    private LocalDate nextRecurringDate;
+    
+    // Set on generated occurrences only: the id of the template they were created from
+    @Field("rs")
+    private String recurringSourceId;
+    
+    // Identity of the statement row this was imported from (see ImportFingerprint). Kept when the
+    // transaction is edited, so importing the same statement again still recognizes the row
+    @JsonIgnore
+    @Field("fp")
+    private String importFingerprint;
+    
+    @Field("ca")
     private LocalDateTime createdAt;
+    
+    @Field("ua")
     private LocalDateTime updatedAt;
     
     // Transaction Type Enum
@@ -53,7 +116,38 @@ public class Transaction {
     
     // Recurring Interval Enum
     public enum RecurringInterval {
-        DAILY, WEEKLY, MONTHLY, YEARLY
+        DAILY, WEEKLY, MONTHLY, YEARLY;
+        
+        /**
+         * First occurrence of a schedule anchored at {@code anchor} that falls strictly after {@code after}.
+         * Occurrences are always counted from the anchor, so a series starting on the 31st keeps
+         * returning to month ends instead of drifting to the 28th after February.
+         */
+        public LocalDate nextAfter(LocalDate anchor, LocalDate after) {
+            if (after.isBefore(anchor)) {
+                return anchor;
+            }
+            ChronoUnit unit = unit();
+            long step = this == WEEKLY ? 7 : 1;
+            long periods = unit.between(anchor, after) / step;
+            LocalDate next = anchor.plus(periods * step, unit);
+            while (!next.isAfter(after)) {
+                periods++;
+                next = anchor.plus(periods * step, unit);
+            }
+            return next;
+        }
+        
+        private ChronoUnit unit() {
+            switch (this) {
+                case MONTHLY:
+                    return ChronoUnit.MONTHS;
+                case YEARLY:
+                    return ChronoUnit.YEARS;
+                default:
+                    return ChronoUnit.DAYS;
+            }
+        }
     }
     
     // Constructors
@@ -91,6 +185,22 @@ public class Transaction {
         this.description = description;
     }
     
+    public List<String> getSearchTokens() {
+        return searchTokens;
+    }
+    
+    public void setSearchTokens(List<String> searchTokens) {
+        this.searchTokens = searchTokens;
+    }
+    
+    public String getImportFingerprint() {
+        return importFingerprint;
+    }
+    
+    public void setImportFingerprint(String importFingerprint) {
+        this.importFingerprint = importFingerprint;
+    }
+    
     public BigDecimal getAmount() {
         return amount;
     }
@@ -107,6 +217,14 @@ public class Transaction {
         this.category = category;
     }
     
+    public Integer getCategoryId() {
+        return categoryId;
+    }
+    
+    public void setCategoryId(Integer categoryId) {
+        this.categoryId = categoryId;
+    }
+    
     public LocalDate getDate() {
         return date;
     }
@@ -155,6 +273,22 @@ public class Transaction {
         this.recurringInterval = recurringInterval;
     }
     
+    public LocalDate getNextRecurringDate() {
+        return nextRecurringDate;
+    }
+    
+    public void setNextRecurringDate(LocalDate nextRecurringDate) {
+        this.nextRecurringDate = nextRecurringDate;
+    }
+    
+    public String getRecurringSourceId() {
+        return recurringSourceId;
+    }
+    
+    public void setRecurringSourceId(String recurringSourceId) {
+        this.recurringSourceId = recurringSourceId;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -178,12 +312,15 @@ public class Transaction {
                 ", description='" + description + '\'' +
                 ", amount=" + amount +
                 ", category='" + category + '\'' +
+                ", categoryId=" + categoryId +
                 ", date=" + date +
                 ", accountId='" + accountId + '\'' +
                 ", userId='" + userId + '\'' +
                 ", type=" + type +
                 ", isRecurring=" + isRecurring +
                 ", recurringInterval=" + recurringInterval +
+                ", nextRecurringDate=" + nextRecurringDate +
+                ", recurringSourceId='" + recurringSourceId + '\'' +
                 ", createdAt=" + createdAt +
                 ", updatedAt=" + updatedAt +
                 '}';
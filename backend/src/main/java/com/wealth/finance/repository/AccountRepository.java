@@ -7,7 +7,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface AccountRepository extends MongoRepository<Account, String> {
+public interface AccountRepository extends MongoRepository<Account, String>, AccountRepositoryCustom {
     
     List<Account> findByUserId(String userId);
     
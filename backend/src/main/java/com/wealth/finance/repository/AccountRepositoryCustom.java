@@ -0,0 +1,15 @@
+package com.wealth.finance.repository;
+
+import com.wealth.finance.model.Account.AccountType;
+import java.math.BigDecimal;
+
+public interface AccountRepositoryCustom {
+    
+    boolean incrementBalance(String accountId, String userId, BigDecimal delta);
+    
+    boolean setBalance(String accountId, String userId, BigDecimal balance);
+    
+    boolean updateDetails(String accountId, String userId, String accountName, AccountType accountType);
+    
+    boolean setDefault(String accountId, String userId, boolean isDefault);
+}
@@ -0,0 +1,91 @@
+package com.wealth.finance.repository;
+
+import com.wealth.finance.model.Account;
+import com.wealth.finance.model.Account.AccountType;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.aggregation.SetOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class AccountRepositoryImpl implements AccountRepositoryCustom {
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Override
+    public boolean incrementBalance(String accountId, String userId, BigDecimal delta) {
+        // A single-document pipeline update: atomic like $inc, but it also accepts balances persisted
+        // as strings by older versions and pins the opening balance the first time the ledger moves
+        SetOperation set = SetOperation.set("openingBalance")
+                .toValue(ConditionalOperators.ifNull("openingBalance").then(ConvertOperators.valueOf("balance").convertToDecimal()))
+                .and()
+                .set("balance")
+                .toValue(ArithmeticOperators.valueOf(ConvertOperators.valueOf("balance").convertToDecimal()).add(new Decimal128(delta)))
+                .and()
+                .set("updatedAt")
+                .toValue(LocalDateTime.now());
+        
+        return updatePipeline(accountId, userId, set);
+    }
+    
+    @Override
+    public boolean setBalance(String accountId, String userId, BigDecimal balance) {
+        // A manual balance moves the opening balance by the difference to whatever the balance is at the
+        // moment of the update, so ledger changes applied concurrently stay counted
+        AggregationExpression current = ConvertOperators.valueOf("balance").convertToDecimal();
+        AggregationExpression opening = ConditionalOperators.ifNull("openingBalance").then(current);
+        SetOperation set = SetOperation.set("openingBalance")
+                .toValue(ArithmeticOperators.valueOf(ArithmeticOperators.valueOf(opening).add(new Decimal128(balance))).subtract(current))
+                .and()
+                .set("balance")
+                .toValue(new Decimal128(balance))
+                .and()
+                .set("updatedAt")
+                .toValue(LocalDateTime.now());
+        return updatePipeline(accountId, userId, set);
+    }
+    
+    @Override
+    public boolean updateDetails(String accountId, String userId, String accountName, AccountType accountType) {
+        Update update = new Update()
+                .set("accountName", accountName)
+                .set("accountType", accountType)
+                .set("updatedAt", LocalDateTime.now());
+        return mongoTemplate.updateFirst(byId(accountId, userId), update, Account.class).getMatchedCount() > 0;
+    }
+    
+    @Override
+    public boolean setDefault(String accountId, String userId, boolean isDefault) {
+        Update update = new Update()
+                .set("isDefault", isDefault)
+                .set("updatedAt", LocalDateTime.now());
+        return mongoTemplate.updateFirst(byId(accountId, userId), update, Account.class).getMatchedCount() > 0;
+    }
+    
+    private Query byId(String accountId, String userId) {
+        return new Query(Criteria.where("id").is(accountId).and("userId").is(userId));
+    }
+    
+    private boolean updatePipeline(String accountId, String userId, SetOperation set) {
+        if (!ObjectId.isValid(accountId)) {
+            return false;
+        }
+        
+        // Addressed by collection name: mapping against Account would coerce the "$field" references
+        // to Decimal128 because of the typed balance fields
+        Query query = new Query(Criteria.where("_id").is(new ObjectId(accountId)).and("userId").is(userId));
+        String collection = mongoTemplate.getCollectionName(Account.class);
+        return mongoTemplate.updateFirst(query, AggregationUpdate.update().set(set), collection).getMatchedCount() > 0;
+    }
+}
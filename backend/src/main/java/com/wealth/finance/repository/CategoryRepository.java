@@ -0,0 +1,12 @@
+package com.wealth.finance.repository;
+
+import com.wealth.finance.model.Category;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+import java.util.Optional;
+
+@Repository
+public interface CategoryRepository extends MongoRepository<Category, Integer>, CategoryRepositoryCustom {
+    
+    Optional<Category> findByIdAndUserId(Integer id, String userId);
+}
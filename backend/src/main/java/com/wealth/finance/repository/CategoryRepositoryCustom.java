@@ -0,0 +1,6 @@
+package com.wealth.finance.repository;
+
+public interface CategoryRepositoryCustom {
+    
+    int nextId();
+}
@@ -0,0 +1,29 @@
+package com.wealth.finance.repository;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+public class CategoryRepositoryImpl implements CategoryRepositoryCustom {
+    
+    private static final String COUNTERS = "counters";
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Override
+    public int nextId() {
+        // A single atomic counter keeps ids dense and unique across instances
+        Document counter = mongoTemplate.findAndModify(
+                new Query(Criteria.where("_id").is("categories")),
+                new Update().inc("seq", 1),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                Document.class,
+                COUNTERS);
+        return counter.getInteger("seq");
+    }
+}
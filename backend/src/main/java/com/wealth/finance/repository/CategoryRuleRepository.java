@@ -0,0 +1,17 @@
+package com.wealth.finance.repository;
+
+import com.wealth.finance.model.CategoryRule;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CategoryRuleRepository extends MongoRepository<CategoryRule, String> {
+    
+    List<CategoryRule> findByUserId(String userId);
+    
+    Optional<CategoryRule> findByIdAndUserId(String id, String userId);
+    
+    long countByUserId(String userId);
+}
@@ -0,0 +1,68 @@
+package com.wealth.finance.repository;
+
+import com.wealth.finance.model.Transaction.TransactionType;
+import java.math.BigDecimal;
+
+/**
+ * One aggregated row: the total and number of transactions of a type within a category.
+ */
+public class CategoryTotal {
+    
+    private TransactionType type;
+    private Integer categoryId;
+    private BigDecimal total;
+    private long count;
+    
+    // Constructors
+    public CategoryTotal() {}
+    
+    public CategoryTotal(TransactionType type, Integer categoryId, BigDecimal total, long count) {
+        this.type = type;
+        this.categoryId = categoryId;
+        this.total = total;
+        this.count = count;
+    }
+    
+    // Getters and Setters
+    public TransactionType getType() {
+        return type;
+    }
+    
+    public void setType(TransactionType type) {
+        this.type = type;
+    }
+    
+    public Integer getCategoryId() {
+        return categoryId;
+    }
+    
+    public void setCategoryId(Integer categoryId) {
+        this.categoryId = categoryId;
+    }
+    
+    public BigDecimal getTotal() {
+        return total;
+    }
+    
+    public void setTotal(BigDecimal total) {
+        this.total = total;
+    }
+    
+    public long getCount() {
+        return count;
+    }
+    
+    public void setCount(long count) {
+        this.count = count;
+    }
+    
+    @Override
+    public String toString() {
+        return "CategoryTotal{" +
+                "type=" + type +
+                ", categoryId=" + categoryId +
+                ", total=" + total +
+                ", count=" + count +
+                '}';
+    }
+}
@@ -0,0 +1,20 @@
+package com.wealth.finance.repository;
+
+import com.wealth.finance.model.MonthlyRollup;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface MonthlyRollupRepository extends MongoRepository<MonthlyRollup, String>, MonthlyRollupRepositoryCustom {
+    
+    List<MonthlyRollup> findByUserId(String userId);
+    
+    List<MonthlyRollup> findByUserIdAndYearMonth(String userId, String yearMonth);
+    
+    @Query("{'userId': ?0, 'yearMonth': {$gte: ?1, $lte: ?2}}")
+    List<MonthlyRollup> findByUserIdAndYearMonthRange(String userId, String fromMonth, String toMonth);
+    
+    long deleteByUserIdAndCategoryIdIsNull(String userId);
+}
@@ -0,0 +1,8 @@
+package com.wealth.finance.repository;
+
+import java.util.Collection;
+
+public interface MonthlyRollupRepositoryCustom {
+    
+    void applyDeltas(Collection<RollupDelta> deltas);
+}
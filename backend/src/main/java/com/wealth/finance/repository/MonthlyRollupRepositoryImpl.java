@@ -0,0 +1,46 @@
+package com.wealth.finance.repository;
+
+import com.wealth.finance.model.MonthlyRollup;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public class MonthlyRollupRepositoryImpl implements MonthlyRollupRepositoryCustom {
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Override
+    public void applyDeltas(Collection<RollupDelta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        // Ordered so a rollup's removal below runs after its own $inc in the same round trip
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, MonthlyRollup.class);
+        for (RollupDelta delta : deltas) {
+            Query key = new Query(Criteria.where("userId").is(delta.getUserId())
+                    .and("yearMonth").is(delta.getYearMonth())
+                    .and("type").is(delta.getType())
+                    .and("categoryId").is(delta.getCategoryId()));
+            // $inc keeps concurrent writers correct without reading the current totals first
+            Update update = new Update()
+                    .inc("total", new Decimal128(delta.getAmount()))
+                    .inc("count", delta.getCount())
+                    .set("updatedAt", now);
+            operations.upsert(key, update);
+            if (delta.getCount() < 0) {
+                // Drop rollups whose last transaction was removed so reads stay O(live categories)
+                operations.remove(Query.of(key).addCriteria(Criteria.where("count").lte(0)));
+            }
+        }
+        operations.execute();
+    }
+}
@@ -0,0 +1,12 @@
+package com.wealth.finance.repository;
+
+import com.wealth.finance.model.MonthlyRollup;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+@Repository
+public interface ReactiveMonthlyRollupRepository extends ReactiveMongoRepository<MonthlyRollup, String> {
+    
+    Flux<MonthlyRollup> findByUserIdAndYearMonth(String userId, String yearMonth);
+}
@@ -0,0 +1,13 @@
+package com.wealth.finance.repository;
+
+import com.wealth.finance.model.Transaction;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Non-blocking counterpart of {@link TransactionRepository} for the streaming read endpoints. Reads only:
+ * writes keep going through the blocking repository, which maintains rollups and caches.
+ */
+@Repository
+public interface ReactiveTransactionRepository extends ReactiveMongoRepository<Transaction, String>, ReactiveTransactionRepositoryCustom {
+}
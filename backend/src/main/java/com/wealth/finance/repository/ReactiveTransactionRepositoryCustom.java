@@ -0,0 +1,12 @@
+package com.wealth.finance.repository;
+
+import com.wealth.finance.model.Transaction;
+import reactor.core.publisher.Flux;
+import java.time.LocalDate;
+
+public interface ReactiveTransactionRepositoryCustom {
+    
+    Flux<Transaction> streamAll(String userId, String accountId, LocalDate startDate, LocalDate endDate, int batchSize);
+    
+    Flux<CategoryTotal> sumByTypeAndCategory(String userId, String accountId, LocalDate startDate, LocalDate endDate);
+}
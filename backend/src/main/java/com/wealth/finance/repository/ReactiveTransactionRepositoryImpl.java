@@ -0,0 +1,45 @@
+package com.wealth.finance.repository;
+
+import com.wealth.finance.model.Transaction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import java.time.LocalDate;
+
+/**
+ * Same query shapes as {@link TransactionRepositoryImpl}, so they are served by the same indexes.
+ */
+public class ReactiveTransactionRepositoryImpl implements ReactiveTransactionRepositoryCustom {
+    
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+    
+    @Override
+    public Flux<Transaction> streamAll(String userId, String accountId, LocalDate startDate, LocalDate endDate, int batchSize) {
+        // The driver fetches the next batch only as the subscriber requests more, so a slow client holds
+        // back the cursor instead of filling memory
+        Query query = new Query(new Criteria().andOperator(TransactionRepositoryImpl.filters(userId, accountId, startDate, endDate)))
+                .with(Sort.by(Sort.Direction.DESC, "date", "id"))
+                .cursorBatchSize(batchSize);
+        return reactiveMongoTemplate.find(query, Transaction.class);
+    }
+    
+    @Override
+    public Flux<CategoryTotal> sumByTypeAndCategory(String userId, String accountId, LocalDate startDate, LocalDate endDate) {
+        TypedAggregation<Transaction> aggregation = Aggregation.newAggregation(Transaction.class,
+                Aggregation.match(new Criteria().andOperator(TransactionRepositoryImpl.filters(userId, accountId, startDate, endDate))),
+                Aggregation.group("type", "categoryId")
+                        .sum("amount").as("cents")
+                        .count().as("count"),
+                Aggregation.project("type", "categoryId", "count")
+                        .and(TransactionRepositoryImpl.fromCents("cents")).as("total")
+                        .andExclude("_id"));
+        
+        return reactiveMongoTemplate.aggregate(aggregation, CategoryTotal.class);
+    }
+}
@@ -0,0 +1,32 @@
+package com.wealth.finance.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Moves a recurring template's next occurrence forward. The write only applies while the template
+ * still holds the date the occurrences were generated from, so a concurrent edit is never overwritten.
+ */
+public class RecurringAdvance {
+    
+    private final String templateId;
+    private final LocalDate expectedDate;
+    private final LocalDate nextDate;
+    
+    public RecurringAdvance(String templateId, LocalDate expectedDate, LocalDate nextDate) {
+        this.templateId = templateId;
+        this.expectedDate = expectedDate;
+        this.nextDate = nextDate;
+    }
+    
+    public String getTemplateId() {
+        return templateId;
+    }
+    
+    public LocalDate getExpectedDate() {
+        return expectedDate;
+    }
+    
+    public LocalDate getNextDate() {
+        return nextDate;
+    }
+}
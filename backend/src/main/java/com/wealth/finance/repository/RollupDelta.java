@@ -0,0 +1,63 @@
+package com.wealth.finance.repository;
+
+import com.wealth.finance.model.Money;
+import com.wealth.finance.model.Transaction.TransactionType;
+import java.math.BigDecimal;
+
+/**
+ * A pending change to one monthly rollup document. Deltas for the same key are merged
+ * before being written so a batch touches each rollup at most once.
+ */
+public class RollupDelta {
+    
+    private final String userId;
+    private final String yearMonth;
+    private final TransactionType type;
+    private final Integer categoryId;
+    private Money amount = Money.ZERO;
+    private long count;
+    
+    public RollupDelta(String userId, String yearMonth, TransactionType type, Integer categoryId) {
+        this.userId = userId;
+        this.yearMonth = yearMonth;
+        this.type = type;
+        this.categoryId = categoryId;
+    }
+    
+    public void add(Money amount, long count) {
+        this.amount = this.amount.plus(amount);
+        this.count += count;
+    }
+    
+    public String key() {
+        return userId + '|' + yearMonth + '|' + type + '|' + categoryId;
+    }
+    
+    public boolean isEmpty() {
+        return amount.signum() == 0 && count == 0;
+    }
+    
+    public String getUserId() {
+        return userId;
+    }
+    
+    public String getYearMonth() {
+        return yearMonth;
+    }
+    
+    public TransactionType getType() {
+        return type;
+    }
+    
+    public Integer getCategoryId() {
+        return categoryId;
+    }
+    
+    public BigDecimal getAmount() {
+        return amount.toBigDecimal();
+    }
+    
+    public long getCount() {
+        return count;
+    }
+}
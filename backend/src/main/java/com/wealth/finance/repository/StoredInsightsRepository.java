@@ -0,0 +1,12 @@
+package com.wealth.finance.repository;
+
+import com.wealth.finance.model.StoredInsights;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+import java.util.Optional;
+
+@Repository
+public interface StoredInsightsRepository extends MongoRepository<StoredInsights, String> {
+    
+    Optional<StoredInsights> findByUserIdAndMonth(String userId, String month);
+}
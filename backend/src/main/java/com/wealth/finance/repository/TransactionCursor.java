@@ -0,0 +1,49 @@
+package com.wealth.finance.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position for transaction listings ordered by (date desc, id desc).
+ * Encoded as an opaque URL-safe token so clients never build cursors themselves.
+ */
+public class TransactionCursor {
+    
+    private static final char SEPARATOR = '|';
+    
+    private final LocalDate date;
+    private final String id;
+    
+    public TransactionCursor(LocalDate date, String id) {
+        this.date = date;
+        this.id = id;
+    }
+    
+    public static TransactionCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator <= 0 || separator == raw.length() - 1) {
+                throw new RuntimeException("Invalid cursor");
+            }
+            return new TransactionCursor(LocalDate.parse(raw.substring(0, separator)), raw.substring(separator + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+    
+    public String encode() {
+        String raw = date.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public LocalDate getDate() {
+        return date;
+    }
+    
+    public String getId() {
+        return id;
+    }
+}
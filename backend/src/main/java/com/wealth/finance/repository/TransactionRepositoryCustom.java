@@ -0,0 +1,56 @@
+package com.wealth.finance.repository;
+
+import com.wealth.finance.model.MonthlyRollup;
+import com.wealth.finance.model.Transaction;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public interface TransactionRepositoryCustom {
+    
+    List<Transaction> findPage(String userId, String accountId, LocalDate startDate, LocalDate endDate,
+                               TransactionCursor after, int limit);
+    
+    List<Transaction> search(String userId, Map<String, Set<Integer>> terms, BigDecimal minAmount, BigDecimal maxAmount,
+                             LocalDate startDate, LocalDate endDate, TransactionCursor after, int limit);
+    
+    List<Transaction> findLedgerFieldsByIds(String userId, Collection<String> ids);
+    
+    long deleteByVersions(String userId, Collection<Transaction> transactions);
+    
+    long updateCategoryByVersions(String userId, Collection<Transaction> transactions, String category, Integer categoryId,
+                                  LocalDateTime updatedAt);
+    
+    List<Transaction> insertUnordered(List<Transaction> transactions);
+    
+    List<String> findExistingFingerprints(String userId, Collection<String> fingerprints);
+    
+    Stream<String> streamFingerprints(String userId, int batchSize);
+    
+    Stream<Transaction> streamAll(String userId, String accountId, LocalDate startDate, LocalDate endDate, int batchSize);
+    
+    List<Transaction> findRecentDescriptions(String userId, int limit);
+    
+    Stream<Transaction> streamLedgerFields(String userId, int batchSize);
+    
+    List<CategoryTotal> sumByTypeAndCategory(String userId, String accountId, LocalDate startDate, LocalDate endDate);
+    
+    List<MonthlyRollup> computeMonthlyRollups(String userId);
+    
+    List<Transaction> findWrittenSince(String userId, LocalDateTime since);
+    
+    long renameCategory(String userId, Integer categoryId, String category);
+    
+    long assignCategoryIds(String userId, String category, Integer categoryId);
+    
+    Map<String, BigDecimal> sumNetByAccount(String userId, String accountId);
+    
+    List<Transaction> findDueRecurring(LocalDate dueBy, LocalDate afterDate, String afterId, int limit);
+    
+    long advanceRecurring(Collection<RecurringAdvance> advances);
+}
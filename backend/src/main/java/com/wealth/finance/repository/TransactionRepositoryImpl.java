@@ -0,0 +1,360 @@
+package com.wealth.finance.repository;
+
+import com.wealth.finance.model.Money;
+import com.wealth.finance.model.MonthlyRollup;
+import com.wealth.finance.model.Transaction;
+import com.wealth.finance.model.Transaction.TransactionType;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationExpression;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ComparisonOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.aggregation.DateOperators;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class TransactionRepositoryImpl implements TransactionRepositoryCustom {
+    
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
+    @Override
+    public List<Transaction> findPage(String userId, String accountId, LocalDate startDate, LocalDate endDate,
+                                      TransactionCursor after, int limit) {
+        List<Criteria> filters = filters(userId, accountId, startDate, endDate);
+        if (after != null) {
+            filters.add(seekAfter(after));
+        }
+        
+        Query query = new Query(new Criteria().andOperator(filters))
+                .with(Sort.by(Sort.Direction.DESC, "date", "id"))
+                .limit(limit);
+        return mongoTemplate.find(query, Transaction.class);
+    }
+    
+    @Override
+    public List<Transaction> search(String userId, Map<String, Set<Integer>> terms, BigDecimal minAmount, BigDecimal maxAmount,
+                                    LocalDate startDate, LocalDate endDate, TransactionCursor after, int limit) {
+        List<Criteria> filters = filters(userId, null, startDate, endDate);
+        // Every term must match: as a description token, or through one of the categories whose name it matches
+        terms.forEach((term, categoryIds) -> filters.add(categoryIds.isEmpty()
+                ? Criteria.where("searchTokens").is(term)
+                : new Criteria().orOperator(
+                        Criteria.where("searchTokens").is(term),
+                        Criteria.where("categoryId").in(categoryIds))));
+        if (minAmount != null) {
+            filters.add(Criteria.where("amount").gte(minAmount));
+        }
+        if (maxAmount != null) {
+            filters.add(Criteria.where("amount").lte(maxAmount));
+        }
+        if (after != null) {
+            filters.add(seekAfter(after));
+        }
+        
+        Query query = new Query(new Criteria().andOperator(filters))
+                .with(Sort.by(Sort.Direction.DESC, "date", "id"))
+                .limit(limit);
+        return mongoTemplate.find(query, Transaction.class);
+    }
+    
+    @Override
+    public List<Transaction> findLedgerFieldsByIds(String userId, Collection<String> ids) {
+        // Only the fields that feed derived data are needed to reverse a batch change; the description
+        // lets a recategorization teach the categorization engine
+        Query query = byIds(userId, ids);
+        query.fields().include("userId", "accountId", "amount", "description", "category", "categoryId", "date", "type",
+                "updatedAt");
+        return mongoTemplate.find(query, Transaction.class);
+    }
+    
+    @Override
+    public long deleteByVersions(String userId, Collection<Transaction> transactions) {
+        return mongoTemplate.remove(byVersions(userId, transactions), Transaction.class).getDeletedCount();
+    }
+    
+    @Override
+    public long updateCategoryByVersions(String userId, Collection<Transaction> transactions, String category,
+                                         Integer categoryId, LocalDateTime updatedAt) {
+        Update update = new Update()
+                .set("category", category)
+                .set("categoryId", categoryId)
+                .set("updatedAt", updatedAt);
+        return mongoTemplate.updateMulti(byVersions(userId, transactions), update, Transaction.class).getModifiedCount();
+    }
+    
+    @Override
+    public List<Transaction> insertUnordered(List<Transaction> transactions) {
+        if (transactions.isEmpty()) {
+            return transactions;
+        }
+        // Ids are assigned up front because bulk inserts do not write generated ids back to the entities
+        transactions.forEach(transaction -> {
+            if (transaction.getId() == null) {
+                transaction.setId(new ObjectId().toHexString());
+            }
+        });
+        
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Transaction.class)
+                    .insert(transactions)
+                    .execute();
+            return transactions;
+        } catch (BulkOperationException e) {
+            // Unordered: every row without a write error was still stored
+            Set<Integer> failed = e.getErrors().stream()
+                    .map(BulkWriteError::getIndex)
+                    .collect(Collectors.toSet());
+            List<Transaction> inserted = new ArrayList<>(transactions.size() - failed.size());
+            for (int i = 0; i < transactions.size(); i++) {
+                if (!failed.contains(i)) {
+                    inserted.add(transactions.get(i));
+                }
+            }
+            return inserted;
+        }
+    }
+    
+    @Override
+    public List<String> findExistingFingerprints(String userId, Collection<String> fingerprints) {
+        if (fingerprints.isEmpty()) {
+            return List.of();
+        }
+        // Answered from user_fingerprint alone: only the matched keys are read
+        Query query = new Query(Criteria.where("userId").is(userId).and("importFingerprint").in(fingerprints));
+        query.fields().include("importFingerprint").exclude("id");
+        return mongoTemplate.find(query, Transaction.class).stream()
+                .map(Transaction::getImportFingerprint)
+                .collect(Collectors.toList());
+    }
+    
+    @Override
+    public Stream<String> streamFingerprints(String userId, int batchSize) {
+        Query query = new Query(Criteria.where("userId").is(userId).and("importFingerprint").exists(true))
+                .cursorBatchSize(batchSize);
+        query.fields().include("importFingerprint").exclude("id");
+        return mongoTemplate.stream(query, Transaction.class).map(Transaction::getImportFingerprint);
+    }
+    
+    @Override
+    public Stream<Transaction> streamAll(String userId, String accountId, LocalDate startDate, LocalDate endDate, int batchSize) {
+        // Backed by a server-side cursor: only one batch of documents is held in memory at a time
+        Query query = new Query(new Criteria().andOperator(filters(userId, accountId, startDate, endDate)))
+                .with(Sort.by(Sort.Direction.DESC, "date", "id"))
+                .cursorBatchSize(batchSize);
+        return mongoTemplate.stream(query, Transaction.class);
+    }
+    
+    @Override
+    public List<Transaction> findRecentDescriptions(String userId, int limit) {
+        // Walks user_date_id from the newest row; only what autocomplete and categorization need is read
+        Query query = new Query(Criteria.where("userId").is(userId))
+                .with(Sort.by(Sort.Direction.DESC, "date", "id"))
+                .limit(limit);
+        query.fields().include("description", "categoryId", "date", "type", "importFingerprint", "recurringSourceId");
+        return mongoTemplate.find(query, Transaction.class);
+    }
+    
+    @Override
+    public Stream<Transaction> streamLedgerFields(String userId, int batchSize) {
+        // Oldest first, so the in-memory columns can be filled in date order without sorting
+        Query query = new Query(Criteria.where("userId").is(userId))
+                .with(Sort.by(Sort.Direction.ASC, "date", "id"))
+                .cursorBatchSize(batchSize);
+        query.fields().include("accountId", "amount", "categoryId", "date", "type");
+        return mongoTemplate.stream(query, Transaction.class);
+    }
+    
+    @Override
+    public List<CategoryTotal> sumByTypeAndCategory(String userId, String accountId, LocalDate startDate, LocalDate endDate) {
+        // Amounts are stored in cents: sum exactly as integers and scale once per group
+        TypedAggregation<Transaction> aggregation = Aggregation.newAggregation(Transaction.class,
+                Aggregation.match(new Criteria().andOperator(filters(userId, accountId, startDate, endDate))),
+                Aggregation.group("type", "categoryId")
+                        .sum("amount").as("cents")
+                        .count().as("count"),
+                Aggregation.project("type", "categoryId", "count")
+                        .and(fromCents("cents")).as("total")
+                        .andExclude("_id"));
+        
+        return mongoTemplate.aggregate(aggregation, CategoryTotal.class).getMappedResults();
+    }
+    
+    @Override
+    public List<MonthlyRollup> computeMonthlyRollups(String userId) {
+        TypedAggregation<Transaction> aggregation = Aggregation.newAggregation(Transaction.class,
+                Aggregation.match(Criteria.where("userId").is(userId)),
+                Aggregation.project("type", "categoryId", "amount")
+                        .and(DateOperators.dateOf(fromEpochDay("date")).toString("%Y-%m")).as("yearMonth"),
+                Aggregation.group("yearMonth", "type", "categoryId")
+                        .sum("amount").as("cents")
+                        .count().as("count"),
+                Aggregation.project("yearMonth", "type", "categoryId", "count")
+                        .and(fromCents("cents")).as("total")
+                        .andExclude("_id"));
+        
+        List<MonthlyRollup> rollups = mongoTemplate.aggregate(aggregation, MonthlyRollup.class).getMappedResults();
+        rollups.forEach(rollup -> rollup.setUserId(userId));
+        return rollups;
+    }
+    
+    @Override
+    public List<Transaction> findWrittenSince(String userId, LocalDateTime since) {
+        Query query = new Query(Criteria.where("userId").is(userId).and("updatedAt").gte(since));
+        query.fields().include("date", "accountId");
+        return mongoTemplate.find(query, Transaction.class);
+    }
+    
+    @Override
+    public long renameCategory(String userId, Integer categoryId, String category) {
+        Update update = new Update()
+                .set("category", category)
+                .set("updatedAt", LocalDateTime.now());
+        return mongoTemplate.updateMulti(new Query(Criteria.where("userId").is(userId).and("categoryId").is(categoryId)),
+                update, Transaction.class).getModifiedCount();
+    }
+    
+    @Override
+    public long assignCategoryIds(String userId, String category, Integer categoryId) {
+        Query query = new Query(Criteria.where("userId").is(userId).and("category").is(category)
+                .and("categoryId").exists(false));
+        return mongoTemplate.updateMulti(query, new Update().set("categoryId", categoryId), Transaction.class).getModifiedCount();
+    }
+    
+    @Override
+    public Map<String, BigDecimal> sumNetByAccount(String userId, String accountId) {
+        // Income credits the account and expenses debit it; accountId narrows the scan to one ledger
+        Criteria match = Criteria.where("userId").is(userId);
+        if (accountId != null) {
+            match.and("accountId").is(accountId);
+        }
+        TypedAggregation<Transaction> aggregation = Aggregation.newAggregation(Transaction.class,
+                Aggregation.match(match),
+                Aggregation.project("accountId")
+                        .and(ConditionalOperators.when(ComparisonOperators.valueOf("type").equalToValue(TransactionType.INCOME.name()))
+                                .thenValueOf("amount")
+                                .otherwiseValueOf(ArithmeticOperators.valueOf("amount").multiplyBy(-1))).as("net"),
+                Aggregation.group("accountId").sum("net").as("net"));
+        
+        Map<String, BigDecimal> totals = new HashMap<>();
+        for (Document row : mongoTemplate.aggregate(aggregation, Document.class).getMappedResults()) {
+            long cents = row.get("net", Number.class).longValue();
+            totals.put(row.getString("_id"), Money.ofCents(cents).toBigDecimal());
+        }
+        return totals;
+    }
+    
+    @Override
+    public List<Transaction> findDueRecurring(LocalDate dueBy, LocalDate afterDate, String afterId, int limit) {
+        // Walks the recurring_due index in (nextRecurringDate, _id) order; the keyset keeps the scan moving
+        // past templates that are skipped or only partly caught up in this run
+        Criteria due = Criteria.where("nextRecurringDate").lte(dueBy);
+        if (afterDate != null) {
+            due = new Criteria().andOperator(due, new Criteria().orOperator(
+                    Criteria.where("nextRecurringDate").gt(afterDate),
+                    new Criteria().andOperator(
+                            Criteria.where("nextRecurringDate").is(afterDate),
+                            Criteria.where("id").gt(toStoredId(afterId)))));
+        }
+        
+        Query query = new Query(due)
+                .with(Sort.by(Sort.Direction.ASC, "nextRecurringDate", "id"))
+                .limit(limit);
+        return mongoTemplate.find(query, Transaction.class);
+    }
+    
+    @Override
+    public long advanceRecurring(Collection<RecurringAdvance> advances) {
+        if (advances.isEmpty()) {
+            return 0;
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Transaction.class);
+        for (RecurringAdvance advance : advances) {
+            Query query = new Query(Criteria.where("id").is(advance.getTemplateId())
+                    .and("nextRecurringDate").is(advance.getExpectedDate()));
+            operations.updateOne(query, new Update()
+                    .set("nextRecurringDate", advance.getNextDate())
+                    .set("updatedAt", now));
+        }
+        return operations.execute().getModifiedCount();
+    }
+    
+    // Epoch days back to a BSON date (UTC midnight) for the date operators
+    private AggregationExpression fromEpochDay(String field) {
+        return ConvertOperators.valueOf(ArithmeticOperators.valueOf(field).multiplyBy(MILLIS_PER_DAY)).convertToDate();
+    }
+    
+    static AggregationExpression fromCents(String field) {
+        return ArithmeticOperators.valueOf(ConvertOperators.valueOf(field).convertToDecimal()).divideBy(100);
+    }
+    
+    private Query byIds(String userId, Collection<String> ids) {
+        return new Query(Criteria.where("id").in(ids).and("userId").is(userId));
+    }
+    
+    // Matches each row only while it still has the updatedAt it was read with, so a batch write never
+    // applies to a row that changed after its values were read
+    private Query byVersions(String userId, Collection<Transaction> transactions) {
+        Criteria[] versions = transactions.stream()
+                .map(transaction -> Criteria.where("id").is(transaction.getId()).and("updatedAt").is(transaction.getUpdatedAt()))
+                .toArray(Criteria[]::new);
+        return new Query(Criteria.where("userId").is(userId).orOperator(versions));
+    }
+    
+    // Date bounds stay separate criteria: the query mapper applies the epoch-day converter only to
+    // single-operator documents, so {$gte, $lte} on one key would fail to map
+    static List<Criteria> filters(String userId, String accountId, LocalDate startDate, LocalDate endDate) {
+        List<Criteria> filters = new ArrayList<>();
+        filters.add(Criteria.where("userId").is(userId));
+        if (accountId != null) {
+            filters.add(Criteria.where("accountId").is(accountId));
+        }
+        if (startDate != null) {
+            filters.add(Criteria.where("date").gte(startDate));
+        }
+        if (endDate != null) {
+            filters.add(Criteria.where("date").lte(endDate));
+        }
+        return filters;
+    }
+    
+    // Seek past the last row of the previous page: (date, id) < (cursor.date, cursor.id)
+    private Criteria seekAfter(TransactionCursor after) {
+        return new Criteria().orOperator(
+                Criteria.where("date").lt(after.getDate()),
+                new Criteria().andOperator(
+                        Criteria.where("date").is(after.getDate()),
+                        Criteria.where("id").lt(toStoredId(after.getId()))));
+    }
+    
+    // Range operators on _id are not converted by the query mapper, so match the stored ObjectId form here
+    private Object toStoredId(String id) {
+        return ObjectId.isValid(id) ? new ObjectId(id) : id;
+    }
+}
@@ -0,0 +1,69 @@
+package com.wealth.finance.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.wealth.finance.dto.AIInsightsResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.HexFormat;
+
+/**
+ * In-process cache of generated insights, addressed by the content of the prompt they were generated
+ * from. Any change to the month's figures (a new transaction, an edit, a budget change) changes the
+ * prompt and so its fingerprint, which makes the next request a miss without any invalidation from the
+ * write path. Entries of superseded fingerprints are never hit again and leave through the TTL or the
+ * size bound.
+ */
+@Component
+public class AIInsightsCache {
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${gemini.insights-cache.max-size:10000}")
+    private long maxSize;
+    
+    @Value("${gemini.insights-cache.ttl:PT24H}")
+    private Duration ttl;
+    
+    private Cache<InsightsKey, AIInsightsResponse> cache;
+    
+    private record InsightsKey(String userId, YearMonth month, String fingerprint) {}
+    
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "aiInsights");
+    }
+    
+    public AIInsightsResponse get(String userId, YearMonth month, String prompt) {
+        return cache.getIfPresent(new InsightsKey(userId, month, fingerprint(prompt)));
+    }
+    
+    // Only generated insights are stored; fallbacks are not, so the next request tries the model again
+    public void put(String userId, YearMonth month, String prompt, AIInsightsResponse insights) {
+        cache.put(new InsightsKey(userId, month, fingerprint(prompt)), insights);
+    }
+    
+    static String fingerprint(String prompt) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(prompt.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
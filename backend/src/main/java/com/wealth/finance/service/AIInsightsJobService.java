@@ -0,0 +1,201 @@
+package com.wealth.finance.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.wealth.finance.dto.AIInsightsJobResponse;
+import com.wealth.finance.dto.AIInsightsJobResponse.Status;
+import com.wealth.finance.dto.AIInsightsResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs AI insight requests as background jobs, so the remote model call never holds a request thread.
+ * Jobs run on a dedicated pool with a bounded queue: when it is full, submission fails at once with a
+ * {@link RejectedExecutionException} (answered with 429) instead of queueing without limit. Finished jobs
+ * are kept for {@code gemini.jobs.retention} for polling; they live in memory, so a job is only visible
+ * on the instance that accepted it. The synchronous insights endpoints run on the same pool through
+ * {@link #submitForResult}, so they are bounded by the same queue.
+ */
+@Service
+public class AIInsightsJobService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AIInsightsJobService.class);
+    
+    @Autowired
+    private GeminiAPIService geminiAPIService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${gemini.jobs.threads:4}")
+    private int threads;
+    
+    @Value("${gemini.jobs.queue-capacity:100}")
+    private int queueCapacity;
+    
+    @Value("${gemini.jobs.retention:PT30M}")
+    private Duration retention;
+    
+    @Value("${gemini.jobs.max-jobs:10000}")
+    private long maxJobs;
+    
+    @Value("${gemini.jobs.sse-timeout:PT2M}")
+    private Duration sseTimeout;
+    
+    private ThreadPoolExecutor executor;
+    private Cache<String, Job> jobs;
+    private Counter rejected;
+    
+    @PostConstruct
+    public void init() {
+        AtomicInteger count = new AtomicInteger();
+        rejected = meterRegistry.counter("ai.insights.jobs.rejected");
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "ai-insights-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, pool) -> {
+                    rejected.increment();
+                    throw new RejectedExecutionException("Too many AI insight requests in progress, try again shortly");
+                });
+        // Pool size, active threads, queue depth and completed tasks under executor.* with name aiInsightsJobs
+        new ExecutorServiceMetrics(executor, "aiInsightsJobs", Tags.empty()).bindTo(meterRegistry);
+        jobs = Caffeine.newBuilder()
+                .maximumSize(maxJobs)
+                .expireAfterWrite(retention)
+                .build();
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    public AIInsightsJobResponse submit(String userId, YearMonth month) {
+        return enqueue(userId, month).toResponse();
+    }
+    
+    /**
+     * Submits a job and completes with its insights, or exceptionally with the job's failure.
+     *
+     * @throws RejectedExecutionException if the job queue is full
+     */
+    public CompletableFuture<AIInsightsResponse> submitForResult(String userId, YearMonth month) {
+        Job job = enqueue(userId, month);
+        return job.done.thenApply(ignored -> {
+            if (job.error != null) {
+                throw new RuntimeException(job.error);
+            }
+            return job.result;
+        });
+    }
+    
+    public AIInsightsJobResponse getJob(String jobId, String userId) {
+        return find(jobId, userId).toResponse();
+    }
+    
+    /**
+     * Sends the job's current state as a "status" event, then its final state as a "result" event once it
+     * has finished, and completes. No thread waits in between.
+     */
+    public SseEmitter subscribe(String jobId, String userId) {
+        Job job = find(jobId, userId);
+        SseEmitter emitter = new SseEmitter(sseTimeout.toMillis());
+        try {
+            emitter.send(SseEmitter.event().name("status").data(job.toResponse()));
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+            return emitter;
+        }
+        job.done.whenComplete((ignored, error) -> {
+            try {
+                emitter.send(SseEmitter.event().name("result").data(job.toResponse()));
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                // The client went away or the emitter timed out; the result stays available for polling
+                emitter.completeWithError(e);
+            }
+        });
+        return emitter;
+    }
+    
+    private Job enqueue(String userId, YearMonth month) {
+        Job job = new Job(UUID.randomUUID().toString(), userId, month);
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.invalidate(job.id);
+            throw e;
+        }
+        return job;
+    }
+    
+    private Job find(String jobId, String userId) {
+        Job job = jobs.getIfPresent(jobId);
+        if (job == null || !job.userId.equals(userId)) {
+            throw new RuntimeException("Job not found");
+        }
+        return job;
+    }
+    
+    private void run(Job job) {
+        job.status = Status.RUNNING;
+        try {
+            job.result = geminiAPIService.getAIInsights(job.userId, job.month);
+        } catch (RuntimeException e) {
+            logger.warn("AI insight job {} for user {} failed", job.id, job.userId, e);
+            job.error = e.getMessage();
+        }
+        // Status last, so a poller that sees a final status also sees the result and completion time
+        job.completedAt = LocalDateTime.now();
+        job.status = job.error == null ? Status.SUCCEEDED : Status.FAILED;
+        job.done.complete(null);
+    }
+    
+    private static final class Job {
+        
+        private final String id;
+        private final String userId;
+        private final YearMonth month;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private volatile Status status = Status.QUEUED;
+        private volatile AIInsightsResponse result;
+        private volatile String error;
+        private volatile LocalDateTime completedAt;
+        
+        private Job(String id, String userId, YearMonth month) {
+            this.id = id;
+            this.userId = userId;
+            this.month = month;
+        }
+        
+        private AIInsightsJobResponse toResponse() {
+            return new AIInsightsJobResponse(id, userId, month.toString(), status, result, error, submittedAt, completedAt);
+        }
+    }
+}
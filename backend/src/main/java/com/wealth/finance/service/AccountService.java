@@ -1,20 +1,42 @@
 package com.wealth.finance.service;
 
 import com.wealth.finance.model.Account;
+import com.wealth.finance.model.Transaction;
 import com.wealth.finance.repository.AccountRepository;
+import com.wealth.finance.repository.TransactionRepository;
 import com.wealth.finance.dto.AccountRequest;
+import com.wealth.finance.dto.BalanceReconciliationResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class AccountService {
     
+    private static final Logger logger = LoggerFactory.getLogger(AccountService.class);
+    
     @Autowired
     private AccountRepository accountRepository;
     
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Value("${accounts.reconcile.settle:PT5M}")
+    private Duration settle;
+    
     public List<Account> getAllAccountsByUserId(String userId) {
         return accountRepository.findByUserId(userId);
     }
@@ -23,6 +45,7 @@ public class AccountService {
         Account account = new Account();
         account.setAccountName(accountRequest.getAccountName());
         account.setBalance(accountRequest.getBalance());
+        account.setOpeningBalance(accountRequest.getBalance());
         account.setAccountType(accountRequest.getAccountType());
         account.setDefault(accountRequest.isDefault());
         account.setUserId(userId);
@@ -31,13 +54,7 @@ public class AccountService {
         
         // If this account is set as default, unset other default accounts
         if (accountRequest.isDefault()) {
-            Optional<Account> currentDefault = accountRepository.findByUserIdAndIsDefaultTrue(userId);
-            if (currentDefault.isPresent()) {
-                Account defaultAccount = currentDefault.get();
-                defaultAccount.setDefault(false);
-                defaultAccount.setUpdatedAt(LocalDateTime.now());
-                accountRepository.save(defaultAccount);
-            }
+            unsetDefault(userId);
         }
         
         return accountRepository.save(account);
@@ -51,27 +68,24 @@ public class AccountService {
     public Account updateAccount(String accountId, AccountRequest accountRequest, String userId) {
         Account account = getAccountById(accountId, userId);
         
-        account.setAccountName(accountRequest.getAccountName());
-        account.setBalance(accountRequest.getBalance());
-        account.setAccountType(accountRequest.getAccountType());
-        account.setUpdatedAt(LocalDateTime.now());
+        // Only the edited fields are written: saving the whole document would overwrite balance
+        // changes applied by transaction writes since it was read
+        if (accountRequest.getBalance().compareTo(account.getBalance()) != 0) {
+            // A manually entered balance is a correction of the starting point, not a ledger entry
+            accountRepository.setBalance(accountId, userId, accountRequest.getBalance());
+        }
+        accountRepository.updateDetails(accountId, userId, accountRequest.getAccountName(), accountRequest.getAccountType());
         
         // Handle default account logic
         if (accountRequest.isDefault() && !account.isDefault()) {
             // Unset current default account
-            Optional<Account> currentDefault = accountRepository.findByUserIdAndIsDefaultTrue(userId);
-            if (currentDefault.isPresent()) {
-                Account defaultAccount = currentDefault.get();
-                defaultAccount.setDefault(false);
-                defaultAccount.setUpdatedAt(LocalDateTime.now());
-                accountRepository.save(defaultAccount);
-            }
-            account.setDefault(true);
+            unsetDefault(userId);
+            accountRepository.setDefault(accountId, userId, true);
         } else if (!accountRequest.isDefault() && account.isDefault()) {
-            account.setDefault(false);
+            accountRepository.setDefault(accountId, userId, false);
         }
         
-        return accountRepository.save(account);
+        return getAccountById(accountId, userId);
     }
     
     public void deleteAccount(String accountId, String userId) {
@@ -81,22 +95,104 @@ public class AccountService {
     
     public Account setDefaultAccount(String accountId, String userId) {
         // Unset current default account
-        Optional<Account> currentDefault = accountRepository.findByUserIdAndIsDefaultTrue(userId);
-        if (currentDefault.isPresent()) {
-            Account defaultAccount = currentDefault.get();
-            defaultAccount.setDefault(false);
-            defaultAccount.setUpdatedAt(LocalDateTime.now());
-            accountRepository.save(defaultAccount);
-        }
+        unsetDefault(userId);
         
         // Set new default account
-        Account account = getAccountById(accountId, userId);
-        account.setDefault(true);
-        account.setUpdatedAt(LocalDateTime.now());
-        return accountRepository.save(account);
+        getAccountById(accountId, userId);
+        accountRepository.setDefault(accountId, userId, true);
+        return getAccountById(accountId, userId);
+    }
+    
+    private void unsetDefault(String userId) {
+        accountRepository.findByUserIdAndIsDefaultTrue(userId)
+                .ifPresent(defaultAccount -> accountRepository.setDefault(defaultAccount.getId(), userId, false));
     }
     
     public Optional<Account> getDefaultAccount(String userId) {
         return accountRepository.findByUserIdAndIsDefaultTrue(userId);
     }
+    
+    /**
+     * Moves account balances by the net effect of a ledger change: the removed transactions are
+     * reversed and the added ones applied, so an update that changes an account or flips a type
+     * touches both sides while untouched accounts cancel out. One atomic update per account.
+     */
+    public void applyLedgerChanges(Collection<Transaction> removed, Collection<Transaction> added) {
+        Map<AccountKey, BigDecimal> deltas = new LinkedHashMap<>();
+        removed.forEach(transaction -> accumulate(deltas, transaction, -1));
+        added.forEach(transaction -> accumulate(deltas, transaction, 1));
+        
+        deltas.forEach((key, delta) -> {
+            if (delta.signum() != 0 && !accountRepository.incrementBalance(key.accountId(), key.userId(), delta)) {
+                logger.warn("Balance change of {} skipped for missing account {}", delta, key.accountId());
+            }
+        });
+    }
+    
+    public BalanceReconciliationResponse reconcileAccount(String accountId, String userId, boolean correct) {
+        LocalDateTime cutoff = LocalDateTime.now().minus(settle);
+        Account account = getAccountById(accountId, userId);
+        BigDecimal net = transactionRepository.sumNetByAccount(userId, accountId).getOrDefault(accountId, BigDecimal.ZERO);
+        return reconcile(account, net, correct && !writtenSince(userId, cutoff).contains(accountId));
+    }
+    
+    /**
+     * Recomputes every balance of a user as opening balance plus ledger and reports the drift.
+     * The ledger sum and the balances are not one snapshot, so accounts written within
+     * {@code accounts.reconcile.settle} are reported but left for the next run to correct.
+     */
+    public List<BalanceReconciliationResponse> reconcileUser(String userId, boolean correct) {
+        LocalDateTime cutoff = LocalDateTime.now().minus(settle);
+        List<Account> accounts = accountRepository.findByUserId(userId);
+        Map<String, BigDecimal> nets = transactionRepository.sumNetByAccount(userId, null);
+        Set<String> written = writtenSince(userId, cutoff);
+        return accounts.stream()
+                .map(account -> reconcile(account, nets.getOrDefault(account.getId(), BigDecimal.ZERO),
+                        correct && !written.contains(account.getId())))
+                .collect(Collectors.toList());
+    }
+    
+    private Set<String> writtenSince(String userId, LocalDateTime cutoff) {
+        // Read after the ledger sum, so a balance change that landed meanwhile is seen by its stamp;
+        // transactions whose balance change is still on its way are found by their own stamp
+        Set<String> written = new HashSet<>();
+        accountRepository.findByUserId(userId).stream()
+                .filter(account -> account.getUpdatedAt() != null && !account.getUpdatedAt().isBefore(cutoff))
+                .forEach(account -> written.add(account.getId()));
+        transactionRepository.findWrittenSince(userId, cutoff)
+                .forEach(transaction -> written.add(transaction.getAccountId()));
+        return written;
+    }
+    
+    private BalanceReconciliationResponse reconcile(Account account, BigDecimal net, boolean correct) {
+        BigDecimal expected = openingBalance(account).add(net);
+        BigDecimal drift = expected.subtract(account.getBalance());
+        
+        boolean corrected = false;
+        if (drift.signum() != 0) {
+            logger.warn("Account {} balance drifted by {} (recorded {}, ledger {})",
+                    account.getId(), drift, account.getBalance(), expected);
+            // Corrected with the same relative update so concurrent ledger changes are not overwritten
+            corrected = correct && accountRepository.incrementBalance(account.getId(), account.getUserId(), drift);
+        } else if (correct && account.getOpeningBalance() == null) {
+            // A zero change still pins the opening balance of an account that predates ledger tracking
+            accountRepository.incrementBalance(account.getId(), account.getUserId(), BigDecimal.ZERO);
+        }
+        return new BalanceReconciliationResponse(account.getId(), account.getBalance(), expected, corrected);
+    }
+    
+    // Accounts created before balances tracked the ledger hold their opening balance in balance
+    private BigDecimal openingBalance(Account account) {
+        return account.getOpeningBalance() != null ? account.getOpeningBalance() : account.getBalance();
+    }
+    
+    private void accumulate(Map<AccountKey, BigDecimal> deltas, Transaction transaction, int sign) {
+        BigDecimal amount = transaction.getType() == Transaction.TransactionType.INCOME
+                ? transaction.getAmount()
+                : transaction.getAmount().negate();
+        deltas.merge(new AccountKey(transaction.getUserId(), transaction.getAccountId()),
+                sign < 0 ? amount.negate() : amount, BigDecimal::add);
+    }
+    
+    private record AccountKey(String userId, String accountId) {}
 } 
\ No newline at end of file
@@ -0,0 +1,154 @@
+package com.wealth.finance.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.wealth.finance.dto.DescriptionSuggestion;
+import com.wealth.finance.model.Transaction;
+import com.wealth.finance.repository.TransactionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Suggests descriptions, with the category they are usually filed under, while the user types. Each active
+ * user has a {@link DescriptionTrie} built from their most recent transactions and updated in place as
+ * transactions are written. Tries are rebuilt from MongoDB after {@code autocomplete.rebuild-after}, which
+ * also retires uses of deleted or edited transactions that the incremental path does not subtract.
+ */
+@Service
+public class AutocompleteService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AutocompleteService.class);
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private CategoryRegistry categoryRegistry;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${autocomplete.max-bytes:268435456}")
+    private long maxBytes;
+    
+    @Value("${autocomplete.rebuild-after:PT6H}")
+    private Duration rebuildAfter;
+    
+    @Value("${autocomplete.history-size:5000}")
+    private int historySize;
+    
+    @Value("${autocomplete.max-descriptions:5000}")
+    private int maxDescriptions;
+    
+    @Value("${autocomplete.max-suggestions:8}")
+    private int maxSuggestions;
+    
+    @Value("${autocomplete.half-life-days:30}")
+    private double halfLifeDays;
+    
+    private Cache<String, DescriptionTrie> tries;
+    
+    @PostConstruct
+    public void init() {
+        tries = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String userId, DescriptionTrie trie) -> (int) Math.min(trie.sizeInBytes(), Integer.MAX_VALUE))
+                .expireAfter(new SinceLoad())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, tries, "descriptionSuggestions");
+    }
+    
+    public List<DescriptionSuggestion> suggest(String userId, String prefix, Integer limit) {
+        int count = limit == null ? maxSuggestions : Math.max(1, Math.min(limit, maxSuggestions));
+        return tries.get(userId, this::load).suggest(prefix == null ? "" : prefix, count).stream()
+                .map(suggestion -> new DescriptionSuggestion(suggestion.description(), suggestion.categoryId(),
+                        categoryRegistry.getName(suggestion.categoryId()),
+                        suggestion.categoryId() != null ? categoryRegistry.getColor(suggestion.categoryId()) : null,
+                        suggestion.uses()))
+                .collect(Collectors.toList());
+    }
+    
+    public void recordCreated(Collection<Transaction> transactions) {
+        record(transactions);
+    }
+    
+    // Only a new description or category is a new use; other edits would count the same use twice
+    public void recordUpdated(Collection<Transaction> before, Collection<Transaction> after) {
+        Map<String, Transaction> previous = before.stream()
+                .collect(Collectors.toMap(Transaction::getId, Function.identity(), (first, second) -> first));
+        List<Transaction> uses = new ArrayList<>();
+        for (Transaction transaction : after) {
+            Transaction old = previous.get(transaction.getId());
+            if (old == null || !Objects.equals(old.getDescription(), transaction.getDescription())
+                    || !Objects.equals(old.getCategoryId(), transaction.getCategoryId())) {
+                uses.add(transaction);
+            }
+        }
+        record(uses);
+    }
+    
+    // Users without a trie are skipped; their next lookup loads the stored state. Going through
+    // computeIfPresent has the cache weigh the grown trie again
+    private void record(Collection<Transaction> transactions) {
+        Map<String, List<Transaction>> byUser = transactions.stream()
+                .filter(transaction -> transaction.getDescription() != null)
+                .collect(Collectors.groupingBy(Transaction::getUserId));
+        byUser.forEach((userId, uses) -> tries.asMap().computeIfPresent(userId, (key, trie) -> {
+            uses.forEach(transaction -> trie.add(transaction.getDescription(), transaction.getCategoryId(),
+                    transaction.getDate().toEpochDay()));
+            return trie;
+        }));
+    }
+    
+    private DescriptionTrie load(String userId) {
+        long started = System.nanoTime();
+        DescriptionTrie trie = new DescriptionTrie(maxSuggestions, maxDescriptions, LocalDate.now().toEpochDay(), halfLifeDays);
+        for (Transaction transaction : transactionRepository.findRecentDescriptions(userId, historySize)) {
+            if (transaction.getDescription() != null) {
+                trie.add(transaction.getDescription(), transaction.getCategoryId(), transaction.getDate().toEpochDay());
+            }
+        }
+        logger.debug("Built description trie with {} entries ({} bytes) for user {} in {} ms", trie.size(),
+                trie.sizeInBytes(), userId, (System.nanoTime() - started) / 1_000_000);
+        return trie;
+    }
+    
+    /**
+     * Expires a trie {@code rebuild-after} its load. Recording uses replaces the entry so it is weighed
+     * again, which must not restart that clock.
+     */
+    private class SinceLoad implements Expiry<String, DescriptionTrie> {
+        
+        @Override
+        public long expireAfterCreate(String userId, DescriptionTrie trie, long currentTime) {
+            return rebuildAfter.toNanos();
+        }
+        
+        @Override
+        public long expireAfterUpdate(String userId, DescriptionTrie trie, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+        
+        @Override
+        public long expireAfterRead(String userId, DescriptionTrie trie, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,455 @@
+package com.wealth.finance.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.wealth.finance.dto.CategoryRuleRequest;
+import com.wealth.finance.model.Category;
+import com.wealth.finance.model.CategoryRule;
+import com.wealth.finance.model.CategoryRule.MatchType;
+import com.wealth.finance.model.Transaction;
+import com.wealth.finance.model.Transaction.TransactionType;
+import com.wealth.finance.repository.CategoryRuleRepository;
+import com.wealth.finance.repository.TransactionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Picks a category for a transaction description. In order of precedence it tries the user's own rules,
+ * the category the user has most often chosen for the same merchant, the global rules and finally the
+ * "Other" category of the transaction's type.
+ *
+ * <p>Keyword rules are compiled into one {@link KeywordMatcher}, so a description is scanned once no matter
+ * how many rules exist. Compiled rules and learned merchants are built per user on first use and cached;
+ * {@link #categorizer} hands out that state for a batch such as a statement import.
+ */
+@Service
+public class CategorizationEngine {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CategorizationEngine.class);
+    
+    // Built-in categories and the keywords that identify them
+    private static final Object[][] GLOBAL_KEYWORDS = {
+        {"Food & Dining", TransactionType.EXPENSE, new String[] {"restaurant", "cafe", "coffee", "starbucks", "mcdonalds",
+                "burger", "pizza", "bakery", "grocery", "groceries", "supermarket", "doordash", "grubhub", "uber eats",
+                "deliveroo", "swiggy", "zomato", "kfc", "subway", "dominos"}},
+        {"Transportation", TransactionType.EXPENSE, new String[] {"uber", "lyft", "ola", "taxi", "cab", "fuel", "petrol",
+                "gas station", "shell", "chevron", "exxon", "parking", "toll", "metro", "transit", "railway"}},
+        {"Shopping", TransactionType.EXPENSE, new String[] {"amazon", "walmart", "target", "ebay", "flipkart", "ikea",
+                "costco", "best buy", "etsy", "zara", "h&m"}},
+        {"Entertainment", TransactionType.EXPENSE, new String[] {"netflix", "spotify", "hulu", "disney", "prime video",
+                "cinema", "movie", "theatre", "steam", "playstation", "xbox", "concert"}},
+        {"Bills & Utilities", TransactionType.EXPENSE, new String[] {"electric", "electricity", "water bill", "utility",
+                "internet", "broadband", "comcast", "verizon", "at&t", "t mobile", "phone bill", "insurance", "rent"}},
+        {"Healthcare", TransactionType.EXPENSE, new String[] {"pharmacy", "hospital", "clinic", "dental", "dentist",
+                "doctor", "cvs", "walgreens", "medical"}},
+        {"Education", TransactionType.EXPENSE, new String[] {"tuition", "udemy", "coursera", "school", "university",
+                "college", "bookstore"}},
+        {"Travel", TransactionType.EXPENSE, new String[] {"airline", "airlines", "airways", "hotel", "airbnb", "booking com",
+                "expedia", "flight", "hostel"}},
+        {"Salary", TransactionType.INCOME, new String[] {"salary", "payroll", "wages"}},
+        {"Freelance", TransactionType.INCOME, new String[] {"upwork", "fiverr", "invoice", "consulting"}},
+        {"Investment", TransactionType.INCOME, new String[] {"dividend", "interest", "brokerage", "capital gain"}}
+    };
+    
+    @Autowired
+    private CategoryRuleRepository ruleRepository;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private CategoryRegistry categoryRegistry;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${categorization.max-users:10000}")
+    private long maxUsers;
+    
+    @Value("${categorization.rebuild-after:PT6H}")
+    private Duration rebuildAfter;
+    
+    @Value("${categorization.history-size:20000}")
+    private int historySize;
+    
+    @Value("${categorization.max-rules-per-user:500}")
+    private int maxRulesPerUser;
+    
+    // Characters a regular expression may read per description before it is treated as not matching
+    @Value("${categorization.regex-step-limit:20000}")
+    private int regexStepLimit;
+    
+    private volatile RuleSet globalRules;
+    
+    private Cache<String, UserModel> models;
+    
+    /**
+     * Categorizes descriptions against one snapshot of a user's rules and learned merchants.
+     */
+    @FunctionalInterface
+    public interface Categorizer {
+        Category categorize(String description, TransactionType type);
+    }
+    
+    @PostConstruct
+    public void init() {
+        models = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(rebuildAfter)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, models, "categorization");
+        
+        if (ruleRepository.countByUserId(null) == 0) {
+            seedGlobalRules();
+        }
+        refreshGlobalRules();
+    }
+    
+    @Scheduled(fixedDelayString = "${categories.refresh-interval-ms:300000}")
+    public void refreshGlobalRules() {
+        globalRules = RuleSet.compile(ruleRepository.findByUserId(null), regexStepLimit);
+    }
+    
+    public Categorizer categorizer(String userId) {
+        UserModel model = models.get(userId, this::load);
+        RuleSet global = globalRules;
+        return (description, type) -> {
+            List<String> words = MerchantNormalizer.words(description);
+            String normalized = MerchantNormalizer.normalize(words);
+            String merchant = MerchantNormalizer.merchant(words);
+            
+            Category category = visible(model.rules.match(description, normalized, merchant, type), userId);
+            if (category == null) {
+                category = visible(categoryRegistry.get(model.merchants.lookup(type, merchant)), userId);
+            }
+            if (category == null) {
+                category = visible(global.match(description, normalized, merchant, type), userId);
+            }
+            return category != null ? category : fallback(type);
+        };
+    }
+    
+    public Category categorize(String userId, String description, TransactionType type) {
+        return categorizer(userId).categorize(description, type);
+    }
+    
+    /**
+     * Learns the user's choices from written transactions. Only users whose model is cached are updated;
+     * others learn the same choices from their history when the model is built.
+     */
+    public void learn(Collection<Transaction> transactions) {
+        for (Transaction transaction : transactions) {
+            UserModel model = models.getIfPresent(transaction.getUserId());
+            if (model != null && isLearnable(transaction)) {
+                model.merchants.add(transaction.getType(), MerchantNormalizer.merchant(transaction.getDescription()),
+                        transaction.getCategoryId());
+            }
+        }
+    }
+    
+    public List<CategoryRule> getRules(String userId) {
+        List<CategoryRule> rules = new ArrayList<>(ruleRepository.findByUserId(userId));
+        rules.sort(Comparator.comparing(CategoryRule::getPriority).reversed().thenComparing(CategoryRule::getCreatedAt));
+        return rules;
+    }
+    
+    public CategoryRule createRule(CategoryRuleRequest request, String userId) {
+        if (ruleRepository.countByUserId(userId) >= maxRulesPerUser) {
+            throw new RuntimeException("Cannot have more than " + maxRulesPerUser + " categorization rules");
+        }
+        if (visible(categoryRegistry.get(request.getCategoryId()), userId) == null) {
+            throw new RuntimeException("Category not found");
+        }
+        validatePattern(request.getMatchType(), request.getPattern());
+        
+        CategoryRule rule = new CategoryRule(userId, request.getMatchType(), request.getPattern().trim(),
+                request.getCategoryId(), request.getType(), request.getPriority());
+        CategoryRule saved = ruleRepository.save(rule);
+        models.invalidate(userId);
+        return saved;
+    }
+    
+    public void deleteRule(String ruleId, String userId) {
+        CategoryRule rule = ruleRepository.findByIdAndUserId(ruleId, userId)
+                .orElseThrow(() -> new RuntimeException("Rule not found"));
+        ruleRepository.delete(rule);
+        models.invalidate(userId);
+    }
+    
+    private UserModel load(String userId) {
+        long started = System.nanoTime();
+        RuleSet rules = RuleSet.compile(ruleRepository.findByUserId(userId), regexStepLimit);
+        LearnedMerchants merchants = new LearnedMerchants();
+        for (Transaction transaction : transactionRepository.findRecentDescriptions(userId, historySize)) {
+            // Imported rows and recurring occurrences carry the engine's own guess, not a choice of the user
+            if (transaction.getImportFingerprint() == null && transaction.getRecurringSourceId() == null && isLearnable(transaction)) {
+                merchants.add(transaction.getType(), MerchantNormalizer.merchant(transaction.getDescription()),
+                        transaction.getCategoryId());
+            }
+        }
+        logger.debug("Built categorization model for user {} in {} ms", userId, (System.nanoTime() - started) / 1_000_000);
+        return new UserModel(rules, merchants);
+    }
+    
+    // The fallback categories say nothing about a merchant, so they are never learned
+    private boolean isLearnable(Transaction transaction) {
+        if (transaction.getDescription() == null || transaction.getCategoryId() == null || transaction.getType() == null) {
+            return false;
+        }
+        Category category = categoryRegistry.get(transaction.getCategoryId());
+        return category != null && !(category.isBuiltIn()
+                && (CategoryRegistry.FALLBACK_EXPENSE.equals(category.getName()) || CategoryRegistry.FALLBACK_INCOME.equals(category.getName())));
+    }
+    
+    private Category visible(CategoryRule rule, String userId) {
+        return rule != null ? visible(categoryRegistry.get(rule.getCategoryId()), userId) : null;
+    }
+    
+    // Rules may outlive their category, and a user may only be given their own or a built-in one
+    private Category visible(Category category, String userId) {
+        return category != null && (category.isBuiltIn() || userId.equals(category.getUserId())) ? category : null;
+    }
+    
+    private Category fallback(TransactionType type) {
+        return categoryRegistry.getFallback(type);
+    }
+    
+    private void validatePattern(MatchType matchType, String pattern) {
+        switch (matchType) {
+            case REGEX:
+                try {
+                    Pattern.compile(pattern);
+                } catch (PatternSyntaxException e) {
+                    throw new RuntimeException("Invalid regular expression: " + e.getDescription());
+                }
+                break;
+            case MERCHANT:
+                if (MerchantNormalizer.merchant(pattern).isEmpty()) {
+                    throw new RuntimeException("Merchant pattern must contain a merchant name");
+                }
+                break;
+            default:
+                if (MerchantNormalizer.normalize(pattern).isBlank()) {
+                    throw new RuntimeException("Keyword pattern must contain a letter or digit");
+                }
+        }
+    }
+    
+    private void seedGlobalRules() {
+        List<CategoryRule> rules = new ArrayList<>();
+        for (Object[] group : GLOBAL_KEYWORDS) {
+            Category category = categoryRegistry.getBuiltIn((String) group[0]);
+            if (category == null) {
+                continue;
+            }
+            for (String keyword : (String[]) group[2]) {
+                CategoryRule rule = new CategoryRule(null, MatchType.KEYWORD, keyword, category.getId(), (TransactionType) group[1], 0);
+                // A fixed id per keyword makes the save an upsert, so instances seeding at the same time write the same documents
+                rule.setId("global:" + MatchType.KEYWORD + ":" + keyword);
+                rules.add(rule);
+            }
+        }
+        ruleRepository.saveAll(rules);
+        logger.info("Seeded {} global categorization rules", rules.size());
+    }
+    
+    private record UserModel(RuleSet rules, LearnedMerchants merchants) {}
+    
+    /**
+     * Compiled form of a set of rules: keywords in one automaton, merchants in a map and regular expressions
+     * in priority order.
+     */
+    private static final class RuleSet {
+        
+        private final KeywordMatcher<CategoryRule> keywords;
+        private final Map<String, List<CategoryRule>> merchants;
+        private final List<Map.Entry<Pattern, CategoryRule>> regexes;
+        private final int regexStepLimit;
+        
+        private RuleSet(KeywordMatcher<CategoryRule> keywords, Map<String, List<CategoryRule>> merchants,
+                        List<Map.Entry<Pattern, CategoryRule>> regexes, int regexStepLimit) {
+            this.keywords = keywords;
+            this.merchants = merchants;
+            this.regexes = regexes;
+            this.regexStepLimit = regexStepLimit;
+        }
+        
+        static RuleSet compile(List<CategoryRule> rules, int regexStepLimit) {
+            List<String> keywordPatterns = new ArrayList<>();
+            List<CategoryRule> keywordRules = new ArrayList<>();
+            Map<String, List<CategoryRule>> merchants = new HashMap<>();
+            List<Map.Entry<Pattern, CategoryRule>> regexes = new ArrayList<>();
+            
+            for (CategoryRule rule : rules) {
+                if (rule.getMatchType() == null || rule.getPattern() == null || rule.getCategoryId() == null) {
+                    continue;
+                }
+                switch (rule.getMatchType()) {
+                    case KEYWORD:
+                        String keyword = MerchantNormalizer.normalize(rule.getPattern());
+                        if (!keyword.isBlank()) {
+                            keywordPatterns.add(keyword);
+                            keywordRules.add(rule);
+                        }
+                        break;
+                    case MERCHANT:
+                        String merchant = MerchantNormalizer.merchant(rule.getPattern());
+                        if (!merchant.isEmpty()) {
+                            merchants.computeIfAbsent(merchant, key -> new ArrayList<>()).add(rule);
+                        }
+                        break;
+                    case REGEX:
+                        try {
+                            regexes.add(Map.entry(Pattern.compile(rule.getPattern(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE), rule));
+                        } catch (PatternSyntaxException e) {
+                            logger.warn("Skipping categorization rule {} with an invalid regular expression", rule.getId());
+                        }
+                        break;
+                }
+            }
+            regexes.sort(Comparator.comparing((Map.Entry<Pattern, CategoryRule> entry) -> entry.getValue().getPriority()).reversed());
+            return new RuleSet(KeywordMatcher.build(keywordPatterns, keywordRules), merchants, regexes, regexStepLimit);
+        }
+        
+        CategoryRule match(String description, String normalized, String merchant, TransactionType type) {
+            CategoryRule[] best = new CategoryRule[1];
+            if (!keywords.isEmpty()) {
+                keywords.forEachMatch(normalized, rule -> best[0] = better(best[0], rule, type));
+            }
+            for (CategoryRule rule : merchants.getOrDefault(merchant, List.of())) {
+                best[0] = better(best[0], rule, type);
+            }
+            for (Map.Entry<Pattern, CategoryRule> regex : regexes) {
+                CategoryRule rule = regex.getValue();
+                if (best[0] != null && best[0].getPriority() > rule.getPriority()) {
+                    // Sorted by priority: no remaining expression can win
+                    break;
+                }
+                if (applies(rule, type) && find(regex.getKey(), description)) {
+                    best[0] = better(best[0], rule, type);
+                }
+            }
+            return best[0];
+        }
+        
+        private boolean find(Pattern pattern, String description) {
+            try {
+                return pattern.matcher(new BoundedCharSequence(description, regexStepLimit)).find();
+            } catch (BoundedCharSequence.LimitExceededException e) {
+                return false;
+            }
+        }
+        
+        private static CategoryRule better(CategoryRule current, CategoryRule candidate, TransactionType type) {
+            if (!applies(candidate, type)) {
+                return current;
+            }
+            if (current == null || candidate.getPriority() > current.getPriority()
+                    || candidate.getPriority() == current.getPriority() && candidate.getPattern().length() > current.getPattern().length()) {
+                return candidate;
+            }
+            return current;
+        }
+        
+        private static boolean applies(CategoryRule rule, TransactionType type) {
+            return rule.getType() == null || rule.getType() == type;
+        }
+    }
+    
+    /**
+     * Per-merchant counts of the categories a user chose; the most chosen category is the learned one.
+     */
+    private static final class LearnedMerchants {
+        
+        private final Map<String, Map<Integer, Integer>> counts = new HashMap<>();
+        private final Map<String, Integer> learned = new HashMap<>();
+        
+        synchronized void add(TransactionType type, String merchant, Integer categoryId) {
+            if (merchant.isEmpty()) {
+                return;
+            }
+            String key = key(type, merchant);
+            Map<Integer, Integer> categories = counts.computeIfAbsent(key, ignored -> new HashMap<>(4));
+            int count = categories.merge(categoryId, 1, Integer::sum);
+            Integer current = learned.get(key);
+            if (current == null || !current.equals(categoryId) && count > categories.getOrDefault(current, 0)) {
+                learned.put(key, categoryId);
+            }
+        }
+        
+        synchronized Integer lookup(TransactionType type, String merchant) {
+            return merchant.isEmpty() ? null : learned.get(key(type, merchant));
+        }
+        
+        private static String key(TransactionType type, String merchant) {
+            return type + ":" + merchant;
+        }
+    }
+    
+    /**
+     * Text for regular expressions that gives up after a fixed number of character reads, so a user's
+     * pathological expression cannot hold an import thread by backtracking.
+     */
+    private static final class BoundedCharSequence implements CharSequence {
+        
+        private final String text;
+        private final int[] remaining;
+        
+        BoundedCharSequence(String text, int limit) {
+            this(text, new int[] {limit});
+        }
+        
+        private BoundedCharSequence(String text, int[] remaining) {
+            this.text = text;
+            this.remaining = remaining;
+        }
+        
+        @Override
+        public char charAt(int index) {
+            if (--remaining[0] < 0) {
+                throw new LimitExceededException();
+            }
+            return text.charAt(index);
+        }
+        
+        @Override
+        public int length() {
+            return text.length();
+        }
+        
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new BoundedCharSequence(text.substring(start, end), remaining);
+        }
+        
+        @Override
+        public String toString() {
+            return text;
+        }
+        
+        private static final class LimitExceededException extends RuntimeException {
+            private static final long serialVersionUID = 1L;
+            
+            LimitExceededException() {
+                super(null, null, false, false);
+            }
+        }
+    }
+}
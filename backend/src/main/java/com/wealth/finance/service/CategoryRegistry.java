@@ -0,0 +1,302 @@
+package com.wealth.finance.service;
+
+import com.wealth.finance.dto.CategoryRequest;
+import com.wealth.finance.model.Category;
+import com.wealth.finance.model.Transaction.TransactionType;
+import com.wealth.finance.repository.CategoryRepository;
+import com.wealth.finance.repository.TransactionRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory registry of all categories, loaded once at startup. Lookups by id or name read without
+ * locking; a change replaces only the affected user's name map, and a periodic reload picks up
+ * categories created by other instances.
+ */
+@Service
+public class CategoryRegistry {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CategoryRegistry.class);
+    
+    public static final String FALLBACK_EXPENSE = "Other Expense";
+    public static final String FALLBACK_INCOME = "Other Income";
+    
+    private static final String DEFAULT_COLOR = "#BB8FCE";
+    
+    // Colors handed out to custom categories created without one
+    private static final String[] PALETTE = {
+        "#FF6B6B", "#4ECDC4", "#45B7D1", "#96CEB4", "#FFEAA7", "#DDA0DD", "#98D8C8", "#F7DC6F", "#BB8FCE"
+    };
+    
+    @Autowired
+    private CategoryRepository categoryRepository;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private ExpenseSummaryCache summaryCache;
+    
+    private volatile Map<Integer, Category> byId = new ConcurrentHashMap<>();
+    
+    private volatile Map<String, Category> builtIns = Map.of();
+    
+    // Immutable name maps per user, each replaced as a whole when one of the user's categories changes
+    private volatile Map<String, Map<String, Category>> custom = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    public void init() {
+        if (categoryRepository.count() == 0) {
+            seedBuiltIns();
+        }
+        refresh();
+    }
+    
+    @Scheduled(fixedDelayString = "${categories.refresh-interval-ms:300000}")
+    public synchronized void refresh() {
+        List<Category> categories = categoryRepository.findAll();
+        Map<Integer, Category> loadedById = new ConcurrentHashMap<>();
+        Map<String, Category> loadedBuiltIns = new HashMap<>();
+        Map<String, Map<String, Category>> byUser = new HashMap<>();
+        for (Category category : categories) {
+            loadedById.put(category.getId(), category);
+            if (category.isBuiltIn()) {
+                loadedBuiltIns.put(category.getName(), category);
+            } else {
+                byUser.computeIfAbsent(category.getUserId(), key -> new HashMap<>()).put(category.getName(), category);
+            }
+        }
+        Map<String, Map<String, Category>> loadedCustom = new ConcurrentHashMap<>();
+        byUser.forEach((userId, names) -> loadedCustom.put(userId, Map.copyOf(names)));
+        
+        byId = loadedById;
+        builtIns = Map.copyOf(loadedBuiltIns);
+        custom = loadedCustom;
+        logger.debug("Category registry loaded {} categories", categories.size());
+    }
+    
+    public Category get(Integer id) {
+        return id != null ? byId.get(id) : null;
+    }
+    
+    public Category getBuiltIn(String name) {
+        return builtIns.get(name);
+    }
+    
+    /**
+     * The built-in category for transactions of the given kind that fit nowhere else.
+     */
+    public Category getFallback(TransactionType kind) {
+        return getBuiltIn(kind == TransactionType.INCOME ? FALLBACK_INCOME : FALLBACK_EXPENSE);
+    }
+    
+    public String getName(Integer id) {
+        Category category = get(id);
+        return category != null ? category.getName() : null;
+    }
+    
+    public String getColor(Integer id) {
+        Category category = get(id);
+        return category != null && category.getColor() != null ? category.getColor() : DEFAULT_COLOR;
+    }
+    
+    /**
+     * Built-in categories followed by the user's own, each group ordered by id.
+     */
+    public List<Category> getCategories(String userId) {
+        List<Category> categories = new ArrayList<>(builtIns.values());
+        categories.addAll(custom.getOrDefault(userId, Map.of()).values());
+        categories.sort(Comparator.comparing(Category::isBuiltIn).reversed().thenComparing(Category::getId));
+        return categories;
+    }
+    
+    /**
+     * Finds the category a transaction refers to by name: the user's own first, then the built-ins.
+     * An unknown name becomes a new custom category of the user, so free-form categories entered
+     * in forms still get an id.
+     */
+    public Category resolve(String userId, String name, TransactionType kind) {
+        String trimmed = name.trim();
+        Category existing = find(userId, trimmed);
+        if (existing != null) {
+            return existing;
+        }
+        
+        Category category = new Category(null, trimmed, null, kind != null ? kind : TransactionType.EXPENSE, userId);
+        try {
+            return register(save(category));
+        } catch (DuplicateKeyException e) {
+            // Created concurrently, possibly by another instance
+            refresh();
+            Category created = find(userId, trimmed);
+            if (created == null) {
+                throw new RuntimeException("Category could not be created");
+            }
+            return created;
+        }
+    }
+    
+    /**
+     * Like {@link #resolve}, but an unknown name maps to the fallback category of its kind instead
+     * of creating one, so a statement cannot fill the registry with whatever its category column holds.
+     */
+    public Category resolveExisting(String userId, String name, TransactionType kind) {
+        Category existing = find(userId, name.trim());
+        return existing != null ? existing : getFallback(kind);
+    }
+    
+    public Category createCategory(CategoryRequest request, String userId) {
+        String name = request.getName().trim();
+        if (find(userId, name) != null) {
+            throw new RuntimeException("Category already exists");
+        }
+        validateParent(request.getParentId(), null, userId);
+        
+        Category category = new Category(null, name, request.getColor(), request.getKind(), userId);
+        category.setParentId(request.getParentId());
+        try {
+            return register(save(category));
+        } catch (DuplicateKeyException e) {
+            throw new RuntimeException("Category already exists");
+        }
+    }
+    
+    public Category updateCategory(Integer categoryId, CategoryRequest request, String userId) {
+        Category category = getOwnCategory(categoryId, userId);
+        String name = request.getName().trim();
+        Category sameName = find(userId, name);
+        if (sameName != null && !sameName.getId().equals(categoryId)) {
+            throw new RuntimeException("Category already exists");
+        }
+        validateParent(request.getParentId(), categoryId, userId);
+        
+        boolean renamed = !category.getName().equals(name);
+        category.setName(name);
+        category.setColor(request.getColor() != null ? request.getColor() : category.getColor());
+        category.setParentId(request.getParentId());
+        category.setKind(request.getKind());
+        category.setUpdatedAt(LocalDateTime.now());
+        Category saved = register(categoryRepository.save(category));
+        
+        if (renamed) {
+            // Transactions keep the name for display, so carry the rename over to them
+            transactionRepository.renameCategory(userId, categoryId, name);
+        }
+        summaryCache.invalidateUser(userId);
+        return saved;
+    }
+    
+    public void deleteCategory(Integer categoryId, String userId) {
+        Category category = getOwnCategory(categoryId, userId);
+        if (transactionRepository.existsByUserIdAndCategoryId(userId, categoryId)) {
+            throw new RuntimeException("Category is still used by transactions");
+        }
+        categoryRepository.delete(category);
+        unregister(category);
+        summaryCache.invalidateUser(userId);
+    }
+    
+    private Category getOwnCategory(Integer categoryId, String userId) {
+        return categoryRepository.findByIdAndUserId(categoryId, userId)
+                .orElseThrow(() -> new RuntimeException("Category not found"));
+    }
+    
+    private void validateParent(Integer parentId, Integer categoryId, String userId) {
+        if (parentId == null) {
+            return;
+        }
+        Category parent = get(parentId);
+        if (parent == null || (!parent.isBuiltIn() && !userId.equals(parent.getUserId()))) {
+            throw new RuntimeException("Parent category not found");
+        }
+        // Walk up the chain so an update cannot create a cycle
+        for (Category ancestor = parent; ancestor != null; ancestor = get(ancestor.getParentId())) {
+            if (ancestor.getId().equals(categoryId)) {
+                throw new RuntimeException("A category cannot be its own ancestor");
+            }
+        }
+    }
+    
+    private Category save(Category category) {
+        category.setId(categoryRepository.nextId());
+        if (category.getColor() == null) {
+            category.setColor(PALETTE[category.getId() % PALETTE.length]);
+        }
+        return categoryRepository.insert(category);
+    }
+    
+    private Category find(String userId, String name) {
+        Category own = custom.getOrDefault(userId, Map.of()).get(name);
+        return own != null ? own : builtIns.get(name);
+    }
+    
+    private synchronized Category register(Category category) {
+        Category previous = byId.put(category.getId(), category);
+        if (category.isBuiltIn()) {
+            Map<String, Category> names = new HashMap<>(builtIns);
+            if (previous != null) {
+                names.remove(previous.getName());
+            }
+            names.put(category.getName(), category);
+            builtIns = Map.copyOf(names);
+        } else {
+            custom.compute(category.getUserId(), (userId, current) -> {
+                Map<String, Category> names = current != null ? new HashMap<>(current) : new HashMap<>();
+                if (previous != null) {
+                    names.remove(previous.getName());
+                }
+                names.put(category.getName(), category);
+                return Map.copyOf(names);
+            });
+        }
+        return category;
+    }
+    
+    private synchronized void unregister(Category category) {
+        byId.remove(category.getId());
+        custom.computeIfPresent(category.getUserId(), (userId, current) -> {
+            Map<String, Category> names = new HashMap<>(current);
+            names.remove(category.getName());
+            return names.isEmpty() ? null : Map.copyOf(names);
+        });
+    }
+    
+    private void seedBuiltIns() {
+        Object[][] seeds = {
+            {"Food & Dining", "#FF6B6B", TransactionType.EXPENSE},
+            {"Transportation", "#4ECDC4", TransactionType.EXPENSE},
+            {"Shopping", "#45B7D1", TransactionType.EXPENSE},
+            {"Entertainment", "#96CEB4", TransactionType.EXPENSE},
+            {"Bills & Utilities", "#FFEAA7", TransactionType.EXPENSE},
+            {"Healthcare", "#DDA0DD", TransactionType.EXPENSE},
+            {"Education", "#98D8C8", TransactionType.EXPENSE},
+            {"Travel", "#F7DC6F", TransactionType.EXPENSE},
+            {FALLBACK_EXPENSE, "#BB8FCE", TransactionType.EXPENSE},
+            {"Salary", "#2ECC71", TransactionType.INCOME},
+            {"Freelance", "#27AE60", TransactionType.INCOME},
+            {"Investment", "#1ABC9C", TransactionType.INCOME},
+            {"Gift", "#58D68D", TransactionType.INCOME},
+            {FALLBACK_INCOME, "#82E0AA", TransactionType.INCOME}
+        };
+        for (Object[] builtIn : seeds) {
+            try {
+                save(new Category(null, (String) builtIn[0], (String) builtIn[1], (TransactionType) builtIn[2], null));
+            } catch (DuplicateKeyException e) {
+                // Seeded concurrently by another instance
+            }
+        }
+        logger.info("Seeded {} built-in categories", seeds.length);
+    }
+}
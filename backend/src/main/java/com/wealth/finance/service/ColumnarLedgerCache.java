@@ -0,0 +1,177 @@
+package com.wealth.finance.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.wealth.finance.config.TransactionSchemaMigration;
+import com.wealth.finance.model.MonthlyRollup;
+import com.wealth.finance.model.Transaction;
+import com.wealth.finance.repository.CategoryTotal;
+import com.wealth.finance.repository.TransactionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Optional per-user column store of the ledger for analytics. A user's columns are loaded from MongoDB
+ * on first use and then kept current by applying every transaction write to them, so summaries, trends
+ * and arbitrary date ranges are answered from memory. Entries are weighed by their size and evicted once
+ * the memory budget is exceeded. Columns are also reloaded once they are older than {@code max-age}, however
+ * busy the user: writes applied by other instances never reach this one's copy.
+ */
+@Component
+public class ColumnarLedgerCache {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarLedgerCache.class);
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private TransactionSchemaMigration schemaMigration;
+    
+    @Value("${analytics.columnar.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${analytics.columnar.max-bytes:268435456}")
+    private long maxBytes;
+    
+    @Value("${analytics.columnar.expire-after-access:PT1H}")
+    private Duration expireAfterAccess;
+    
+    @Value("${analytics.columnar.max-age:PT6H}")
+    private Duration maxAge;
+    
+    @Value("${analytics.columnar.load-batch-size:2000}")
+    private int loadBatchSize;
+    
+    private Cache<String, LedgerColumns> cache;
+    
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String userId, LedgerColumns columns) -> (int) Math.min(columns.sizeInBytes(), Integer.MAX_VALUE))
+                .expireAfter(new IdleOrAged())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "ledgerColumns");
+    }
+    
+    public boolean isEnabled() {
+        // Columns loaded before the schema migration finished would miss the unconverted transactions
+        return enabled && schemaMigration.isComplete();
+    }
+    
+    public List<CategoryTotal> getCategoryTotals(String userId, LocalDate startDate, LocalDate endDate, String accountId) {
+        return columns(userId).categoryTotals(startDate, endDate, accountId);
+    }
+    
+    public List<MonthlyRollup> getRollups(String userId, YearMonth from, YearMonth to) {
+        return columns(userId).monthlyRollups(userId, from, to);
+    }
+    
+    /**
+     * Applies a write to the columns of every affected user that is currently cached. Users that are not
+     * cached are skipped: their next load reads the stored state.
+     */
+    public void apply(Collection<Transaction> removed, Collection<Transaction> added) {
+        if (!enabled) {
+            return;
+        }
+        Map<String, Change> changes = new LinkedHashMap<>();
+        removed.forEach(transaction -> change(changes, transaction.getUserId()).removed.add(transaction));
+        added.forEach(transaction -> change(changes, transaction.getUserId()).added.add(transaction));
+        
+        // computeIfPresent waits for a load of the same user in progress, so no write slips between the two
+        changes.forEach((userId, change) -> cache.asMap().computeIfPresent(userId, (key, columns) -> {
+            try {
+                return columns.apply(change.removed, change.added);
+            } catch (IllegalArgumentException e) {
+                logger.warn("Dropping cached ledger columns for user {}: {}", userId, e.getMessage());
+                return null;
+            }
+        }));
+    }
+    
+    public void invalidate(String userId) {
+        if (enabled) {
+            cache.invalidate(userId);
+        }
+    }
+    
+    private LedgerColumns columns(String userId) {
+        if (!enabled) {
+            throw new IllegalStateException("Columnar ledger cache is disabled");
+        }
+        return cache.get(userId, this::load);
+    }
+    
+    private LedgerColumns load(String userId) {
+        long started = System.nanoTime();
+        LedgerColumns.Builder builder = new LedgerColumns.Builder(loadBatchSize);
+        try (Stream<Transaction> rows = transactionRepository.streamLedgerFields(userId, loadBatchSize)) {
+            rows.forEach(builder::add);
+        }
+        LedgerColumns columns = builder.build();
+        logger.debug("Loaded {} ledger rows ({} bytes) for user {} in {} ms", columns.size(), columns.sizeInBytes(),
+                userId, (System.nanoTime() - started) / 1_000_000);
+        return columns;
+    }
+    
+    private Change change(Map<String, Change> changes, String userId) {
+        return changes.computeIfAbsent(userId, key -> new Change());
+    }
+    
+    /**
+     * Expires columns that have been idle for {@code expire-after-access} or were loaded more than {@code max-age}
+     * ago. Applying a write replaces the entry, so the age is taken from the load rather than from the last update.
+     */
+    private class IdleOrAged implements Expiry<String, LedgerColumns> {
+        
+        @Override
+        public long expireAfterCreate(String userId, LedgerColumns columns, long currentTime) {
+            return remaining(columns, currentTime);
+        }
+        
+        @Override
+        public long expireAfterUpdate(String userId, LedgerColumns columns, long currentTime, long currentDuration) {
+            return remaining(columns, currentTime);
+        }
+        
+        @Override
+        public long expireAfterRead(String userId, LedgerColumns columns, long currentTime, long currentDuration) {
+            return remaining(columns, currentTime);
+        }
+        
+        private long remaining(LedgerColumns columns, long currentTime) {
+            long age = maxAge.toNanos() - (currentTime - columns.loadedAt());
+            return Math.max(0, Math.min(expireAfterAccess.toNanos(), age));
+        }
+    }
+    
+    private static class Change {
+        private final List<Transaction> removed = new ArrayList<>();
+        private final List<Transaction> added = new ArrayList<>();
+    }
+}
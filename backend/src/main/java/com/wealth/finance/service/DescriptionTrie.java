@@ -0,0 +1,221 @@
+package com.wealth.finance.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Prefix trie over one user's transaction descriptions. Every node keeps the {@code k} best entries below
+ * it, so a lookup costs one walk down the typed prefix.
+ *
+ * <p>Entries are weighted with forward decay: a use on day {@code d} adds {@code 2^((d - landmark) / halfLife)}.
+ * Newer uses count exponentially more, yet a score never has to be decayed as time passes, because all
+ * scores share the same landmark. Scores therefore only grow, and keeping the per-node lists current on an
+ * increment is a local re-sort along one path.
+ */
+final class DescriptionTrie {
+    
+    // Longer descriptions are matched on their first characters only
+    private static final int MAX_KEY_LENGTH = 64;
+    private static final double MAX_EXPONENT = 900;
+    
+    // Rough heap cost, for weighing tries in the cache: a node with its top-k array and edge arrays, one
+    // more edge, and an entry with its map slot and category scores, besides the characters of its text
+    private static final long BYTES_PER_NODE = 80;
+    private static final long BYTES_PER_TOP_SLOT = 4;
+    private static final long BYTES_PER_EDGE = 6;
+    private static final long BYTES_PER_ENTRY = 240;
+    
+    private final int k;
+    private final int maxEntries;
+    private final long landmarkDay;
+    private final double halfLifeDays;
+    private final Node root = new Node();
+    private final Map<String, Entry> entries = new HashMap<>();
+    private long nodes = 1;
+    private long characters;
+    
+    DescriptionTrie(int k, int maxEntries, long landmarkDay, double halfLifeDays) {
+        this.k = k;
+        this.maxEntries = maxEntries;
+        this.landmarkDay = landmarkDay;
+        this.halfLifeDays = halfLifeDays;
+    }
+    
+    /**
+     * Records one use of a description with its category on the given day.
+     */
+    synchronized void add(String description, Integer categoryId, long epochDay) {
+        String key = key(description);
+        if (key.isEmpty()) {
+            return;
+        }
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            if (entries.size() >= maxEntries) {
+                return;
+            }
+            entry = new Entry(description.trim());
+            entries.put(key, entry);
+            characters += key.length() + entry.text.length();
+        }
+        
+        // Clamped so dates far from the landmark stay within double range
+        double exponent = Math.max(-MAX_EXPONENT, Math.min(MAX_EXPONENT, (epochDay - landmarkDay) / halfLifeDays));
+        double weight = Math.pow(2, exponent);
+        entry.score += weight;
+        entry.uses++;
+        if (epochDay >= entry.lastDay) {
+            // The most recent spelling is the one suggested
+            entry.text = description.trim();
+            entry.lastDay = epochDay;
+        }
+        if (categoryId != null) {
+            entry.categoryScores.merge(categoryId, weight, Double::sum);
+        }
+        
+        Node node = root;
+        node.offer(entry, k);
+        for (int i = 0; i < key.length(); i++) {
+            Node child = node.find(key.charAt(i));
+            if (child == null) {
+                child = node.child(key.charAt(i));
+                nodes++;
+            }
+            node = child;
+            node.offer(entry, k);
+        }
+    }
+    
+    /**
+     * Up to {@code limit} suggestions for the prefix, best first.
+     */
+    synchronized List<Suggestion> suggest(String prefix, int limit) {
+        String key = key(prefix);
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.find(key.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+        List<Suggestion> suggestions = new ArrayList<>();
+        for (int i = 0; i < node.size && i < limit; i++) {
+            Entry entry = node.top[i];
+            suggestions.add(new Suggestion(entry.text, entry.topCategory(), entry.uses));
+        }
+        return suggestions;
+    }
+    
+    synchronized int size() {
+        return entries.size();
+    }
+    
+    /**
+     * Estimated heap size. Dominated by the nodes, since every node keeps its own top-k list.
+     */
+    synchronized long sizeInBytes() {
+        return nodes * (BYTES_PER_NODE + BYTES_PER_EDGE + k * BYTES_PER_TOP_SLOT)
+                + entries.size() * BYTES_PER_ENTRY + 2 * characters;
+    }
+    
+    private static String key(String text) {
+        String key = text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+    
+    record Suggestion(String description, Integer categoryId, long uses) {}
+    
+    private static final class Entry {
+        
+        private String text;
+        private double score;
+        private long uses;
+        private long lastDay = Long.MIN_VALUE;
+        private final Map<Integer, Double> categoryScores = new HashMap<>(4);
+        
+        private Entry(String text) {
+            this.text = text;
+        }
+        
+        private Integer topCategory() {
+            Integer best = null;
+            double bestScore = -1;
+            for (Map.Entry<Integer, Double> category : categoryScores.entrySet()) {
+                if (category.getValue() > bestScore) {
+                    best = category.getKey();
+                    bestScore = category.getValue();
+                }
+            }
+            return best;
+        }
+    }
+    
+    // Children in parallel arrays sorted by character: a few bytes per edge instead of a map per node
+    private static final class Node {
+        
+        private static final char[] NO_LABELS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+        
+        private char[] labels = NO_LABELS;
+        private Node[] children = NO_CHILDREN;
+        private Entry[] top;
+        private int size;
+        
+        private Node find(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            return index >= 0 ? children[index] : null;
+        }
+        
+        private Node child(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertAt = -index - 1;
+            Node child = new Node();
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newLabels[insertAt] = label;
+            newChildren[insertAt] = child;
+            System.arraycopy(labels, insertAt, newLabels, insertAt + 1, labels.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            labels = newLabels;
+            children = newChildren;
+            return child;
+        }
+        
+        // Called after the entry's score grew: move it up, or into the list if it now beats the last one
+        private void offer(Entry entry, int k) {
+            if (top == null) {
+                top = new Entry[k];
+            }
+            int position = -1;
+            for (int i = 0; i < size; i++) {
+                if (top[i] == entry) {
+                    position = i;
+                    break;
+                }
+            }
+            if (position < 0) {
+                if (size < k) {
+                    position = size++;
+                } else if (entry.score > top[k - 1].score) {
+                    position = k - 1;
+                } else {
+                    return;
+                }
+                top[position] = entry;
+            }
+            while (position > 0 && top[position - 1].score < entry.score) {
+                top[position] = top[position - 1];
+                top[--position] = entry;
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.wealth.finance.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.wealth.finance.repository.TransactionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Finds statement rows that were imported before. Each importing user has a {@link FingerprintFilter}
+ * loaded from their stored fingerprints; rows the filter rules out are new without a database round trip,
+ * and only the rows it flags are looked up, in one query per batch. The unique user_fingerprint index
+ * remains the authority: a duplicate that slips past (another import running at the same time) is
+ * rejected on insert and reported as a duplicate by the caller.
+ */
+@Service
+public class DuplicateDetector {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DuplicateDetector.class);
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${transactions.import.duplicates.max-bytes:67108864}")
+    private long maxBytes;
+    
+    @Value("${transactions.import.duplicates.expire-after-access:PT1H}")
+    private Duration expireAfterAccess;
+    
+    @Value("${transactions.import.duplicates.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+    
+    @Value("${transactions.import.duplicates.min-capacity:10000}")
+    private long minCapacity;
+    
+    @Value("${transactions.import.duplicates.load-batch-size:5000}")
+    private int loadBatchSize;
+    
+    private Cache<String, FingerprintFilter> filters;
+    
+    @PostConstruct
+    public void init() {
+        filters = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String userId, FingerprintFilter filter) -> (int) Math.min(filter.sizeInBytes(), Integer.MAX_VALUE))
+                .expireAfterAccess(expireAfterAccess)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, filters, "importFingerprints");
+    }
+    
+    /**
+     * The fingerprints among the given ones that the user has already imported.
+     */
+    public Set<String> findDuplicates(String userId, Collection<String> fingerprints) {
+        FingerprintFilter filter = filters.get(userId, this::load);
+        List<String> candidates = new ArrayList<>();
+        for (String fingerprint : fingerprints) {
+            if (filter.mightContain(fingerprint)) {
+                candidates.add(fingerprint);
+            }
+        }
+        return findExisting(userId, candidates);
+    }
+    
+    /**
+     * Looks the fingerprints up in MongoDB without consulting the filter.
+     */
+    public Set<String> findExisting(String userId, Collection<String> fingerprints) {
+        return new HashSet<>(transactionRepository.findExistingFingerprints(userId, fingerprints));
+    }
+    
+    /**
+     * Adds newly stored fingerprints to the user's filter, if it is loaded. A filter that has outgrown its
+     * capacity is dropped and sized anew from the stored state on the next import.
+     */
+    public void recordImported(String userId, Collection<String> fingerprints) {
+        FingerprintFilter filter = filters.getIfPresent(userId);
+        if (filter == null) {
+            return;
+        }
+        fingerprints.forEach(filter::add);
+        if (filter.isSaturated()) {
+            filters.invalidate(userId);
+        }
+    }
+    
+    private FingerprintFilter load(String userId) {
+        long started = System.nanoTime();
+        long stored = transactionRepository.countByUserIdAndImportFingerprintExists(userId, true);
+        // Room to double before the filter has to be rebuilt
+        FingerprintFilter filter = new FingerprintFilter(Math.max(minCapacity, stored * 2), falsePositiveRate);
+        try (Stream<String> fingerprints = transactionRepository.streamFingerprints(userId, loadBatchSize)) {
+            fingerprints.forEach(filter::add);
+        }
+        logger.debug("Loaded import fingerprint filter for user {} with {} entries in {} ms", userId, stored,
+                (System.nanoTime() - started) / 1_000_000);
+        return filter;
+    }
+}
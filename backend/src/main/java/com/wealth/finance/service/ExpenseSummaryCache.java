@@ -0,0 +1,66 @@
+package com.wealth.finance.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.wealth.finance.dto.ExpenseSummaryResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.function.Supplier;
+
+/**
+ * In-process cache of monthly expense summaries. A month only changes when one of the user's
+ * transactions in it is written, so entries are invalidated from the write path rather than
+ * relying on a short TTL; the TTL only bounds how long idle entries hold memory.
+ */
+@Component
+public class ExpenseSummaryCache {
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${analytics.summary-cache.max-size:10000}")
+    private long maxSize;
+    
+    @Value("${analytics.summary-cache.ttl:PT30M}")
+    private Duration ttl;
+    
+    @Value("${analytics.trends.summary-months:6}")
+    private int trendMonths;
+    
+    private Cache<SummaryKey, ExpenseSummaryResponse> cache;
+    
+    private record SummaryKey(String userId, YearMonth month) {}
+    
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "expenseSummary");
+    }
+    
+    public ExpenseSummaryResponse get(String userId, YearMonth month, Supplier<ExpenseSummaryResponse> loader) {
+        // Concurrent misses for the same key wait on a single computation
+        return cache.get(new SummaryKey(userId, month), key -> loader.get());
+    }
+    
+    public void invalidate(String userId, YearMonth month) {
+        // A summary's monthlyTrends covers the months before it, so the following months go stale too
+        for (int i = 0; i < trendMonths; i++) {
+            cache.invalidate(new SummaryKey(userId, month.plusMonths(i)));
+        }
+    }
+    
+    // For changes that affect every month of a user, such as renaming a category
+    public void invalidateUser(String userId) {
+        cache.asMap().keySet().removeIf(key -> key.userId().equals(userId));
+    }
+}
@@ -0,0 +1,66 @@
+package com.wealth.finance.service;
+
+/**
+ * Bloom filter over the import fingerprints of one user. {@link #mightContain} never misses a fingerprint
+ * that was added, and answers "maybe" for an absent one only at the configured false-positive rate, so an
+ * import asks MongoDB about the few rows the filter flags instead of about every row.
+ *
+ * <p>Fingerprints are already uniformly distributed SHA-256 bits, so the two halves of the hash are used
+ * directly for double hashing ({@code h1 + i * h2}) instead of hashing again.
+ */
+final class FingerprintFilter {
+    
+    private static final double LN2 = Math.log(2);
+    
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final long capacity;
+    private long size;
+    
+    FingerprintFilter(long capacity, double falsePositiveRate) {
+        this.capacity = Math.max(1, capacity);
+        long wanted = (long) Math.ceil(-this.capacity * Math.log(falsePositiveRate) / (LN2 * LN2));
+        this.bits = new long[(int) Math.max(1, Math.min(Integer.MAX_VALUE - 8, (wanted + 63) / 64))];
+        this.bitCount = bits.length * 64L;
+        this.hashCount = (int) Math.max(1, Math.round((double) bitCount / this.capacity * LN2));
+    }
+    
+    synchronized void add(String fingerprint) {
+        long h1 = half(fingerprint, 0);
+        long h2 = half(fingerprint, 16);
+        for (int i = 0; i < hashCount; i++) {
+            long index = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            bits[(int) (index >>> 6)] |= 1L << index;
+        }
+        size++;
+    }
+    
+    synchronized boolean mightContain(String fingerprint) {
+        long h1 = half(fingerprint, 0);
+        long h2 = half(fingerprint, 16);
+        for (int i = 0; i < hashCount; i++) {
+            long index = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            if ((bits[(int) (index >>> 6)] & 1L << index) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Whether more fingerprints were added than the filter was sized for, which raises the false-positive
+     * rate above the configured one.
+     */
+    synchronized boolean isSaturated() {
+        return size > capacity;
+    }
+    
+    long sizeInBytes() {
+        return bits.length * 8L + 64;
+    }
+    
+    private static long half(String fingerprint, int offset) {
+        return Long.parseUnsignedLong(fingerprint, offset, offset + 16, 16);
+    }
+}
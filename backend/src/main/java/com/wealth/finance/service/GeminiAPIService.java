@@ -3,19 +3,47 @@ package com.wealth.finance.service;
 import com.wealth.finance.dto.AIInsightsResponse;
 import com.wealth.finance.dto.ExpenseSummaryResponse;
 import com.wealth.finance.model.Budget;
+import com.wealth.finance.model.StoredInsights;
+import com.wealth.finance.repository.StoredInsightsRepository;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import java.time.Duration;
 import java.time.YearMonth;
 import java.util.List;
 import java.util.Map;
 import java.util.HashMap;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class GeminiAPIService {
     
+    private static final Logger logger = LoggerFactory.getLogger(GeminiAPIService.class);
+    
+    private static final String UPSTREAM = "gemini";
+    
     @Value("${gemini.api.key}")
     private String apiKey;
     
@@ -28,44 +56,207 @@ public class GeminiAPIService {
     @Autowired
     private BudgetService budgetService;
     
-    private final WebClient webClient;
+    @Autowired
+    private AIInsightsCache insightsCache;
+    
+    @Autowired
+    private StoredInsightsRepository storedInsightsRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${gemini.api.connect-timeout:PT2S}")
+    private Duration connectTimeout;
+    
+    @Value("${gemini.api.read-timeout:PT10S}")
+    private Duration readTimeout;
+    
+    @Value("${gemini.api.call-timeout:PT15S}")
+    private Duration callTimeout;
+    
+    @Value("${gemini.api.circuit-breaker.failure-rate-threshold:50}")
+    private float failureRateThreshold;
+    
+    @Value("${gemini.api.circuit-breaker.sliding-window-size:20}")
+    private int slidingWindowSize;
+    
+    @Value("${gemini.api.circuit-breaker.minimum-calls:10}")
+    private int minimumCalls;
+    
+    @Value("${gemini.api.circuit-breaker.open-duration:PT30S}")
+    private Duration openDuration;
+    
+    @Value("${gemini.api.circuit-breaker.half-open-calls:3}")
+    private int halfOpenCalls;
     
-    public GeminiAPIService() {
-        this.webClient = WebClient.builder().build();
+    @Value("${gemini.api.bulkhead.max-concurrent-calls:8}")
+    private int maxConcurrentCalls;
+    
+    @Value("${gemini.precompute.rate-per-minute:60}")
+    private double precomputeRatePerMinute;
+    
+    @Value("${gemini.precompute.burst:5}")
+    private int precomputeBurst;
+    
+    private WebClient webClient;
+    private CircuitBreaker circuitBreaker;
+    private Bulkhead bulkhead;
+    private TokenBucket precomputeRateLimit;
+    
+    private final ConcurrentHashMap<InFlightKey, CompletableFuture<AIInsightsResponse>> inFlight = new ConcurrentHashMap<>();
+    
+    private record InFlightKey(String userId, YearMonth month) {}
+    
+    private record MonthData(ExpenseSummaryResponse expenseSummary, Optional<Budget> budget, String prompt) {}
+    
+    @PostConstruct
+    public void init() {
+        HttpClient httpClient = HttpClient.create()
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(readTimeout);
+        this.webClient = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+        
+        // Opens when too many recent calls failed or timed out; while open, calls fail at once and the
+        // fallback is served without waiting on the upstream
+        CircuitBreakerRegistry circuitBreakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumCalls)
+                .waitDurationInOpenState(openDuration)
+                .permittedNumberOfCallsInHalfOpenState(halfOpenCalls)
+                .build());
+        // Caps concurrent upstream calls, so a slow model cannot take every thread that reaches it
+        BulkheadRegistry bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        circuitBreaker = circuitBreakers.circuitBreaker(UPSTREAM);
+        bulkhead = bulkheads.bulkhead(UPSTREAM);
+        circuitBreaker.getEventPublisher().onStateTransition(event ->
+                logger.warn("Gemini circuit breaker {}", event.getStateTransition()));
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakers).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheads).bindTo(meterRegistry);
+        
+        // Paces only the batch precompute, which would otherwise send one call per user in a burst;
+        // interactive calls are bounded by the bulkhead instead of waiting for tokens
+        precomputeRateLimit = new TokenBucket(precomputeBurst, precomputeRatePerMinute / 60);
     }
     
+    /**
+     * Insights for the user's month. Concurrent calls for the same user and month (two open dashboards,
+     * a retried request) share one computation: the first caller does the work, the others wait for its
+     * result instead of reading the summary and calling the model again.
+     */
     public AIInsightsResponse getAIInsights(String userId, YearMonth month) {
+        InFlightKey key = new InFlightKey(userId, month);
+        CompletableFuture<AIInsightsResponse> flight = new CompletableFuture<>();
+        CompletableFuture<AIInsightsResponse> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            try {
+                return leader.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        
         try {
-            // Get financial data for the month
-            ExpenseSummaryResponse expenseSummary = transactionService.getExpenseSummary(userId, month);
-            Optional<Budget> budget = budgetService.getBudgetByMonth(userId, month);
-            
-            // Prepare data for AI analysis
-            Map<String, Object> financialData = new HashMap<>();
-            financialData.put("totalSpent", expenseSummary.getTotalSpent());
-            financialData.put("totalIncome", expenseSummary.getTotalIncome());
-            financialData.put("netFlow", expenseSummary.getNetFlow());
-            financialData.put("budgetAmount", budget.map(Budget::getAmount).orElse(null));
-            financialData.put("categoryBreakdown", expenseSummary.getCategoryBreakdown());
-            financialData.put("month", month.toString());
-            
-            // Create prompt for Gemini
-            String prompt = createAnalysisPrompt(financialData);
-            
-            // Call Gemini API
-            String aiResponse = callGeminiAPI(prompt);
-            
-            // Parse AI response and create insights
-            List<String> insights = parseAIResponse(aiResponse);
-            String summary = generateSummary(expenseSummary, budget);
-            
-            return new AIInsightsResponse(userId, month.toString(), insights, summary);
-            
+            AIInsightsResponse insights = computeInsights(userId, month);
+            flight.complete(insights);
+            return insights;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            // Callers arriving from now on start a new computation, which sees any write made meanwhile
+            inFlight.remove(key, flight);
+        }
+    }
+    
+    private AIInsightsResponse computeInsights(String userId, YearMonth month) {
+        MonthData data = readMonth(userId, month);
+        
+        // The prompt holds every figure the insights depend on: an unchanged month is answered from memory
+        AIInsightsResponse cached = insightsCache.get(userId, month, data.prompt());
+        if (cached != null) {
+            return cached;
+        }
+        // or from the stored insights, e.g. those precomputed overnight for the month just closed
+        Optional<StoredInsights> stored = storedInsightsRepository.findByUserIdAndMonth(userId, month.toString());
+        if (stored.isPresent() && stored.get().getFingerprint().equals(AIInsightsCache.fingerprint(data.prompt()))) {
+            AIInsightsResponse response = new AIInsightsResponse(userId, month.toString(), stored.get().getInsights(),
+                    stored.get().getSummary());
+            insightsCache.put(userId, month, data.prompt(), response);
+            return response;
+        }
+        
+        try {
+            return generate(userId, month, data, stored.orElse(null));
         } catch (Exception e) {
-            // Return default insights if AI service fails
-            ExpenseSummaryResponse expenseSummary = transactionService.getExpenseSummary(userId, month);
-            return createDefaultInsights(userId, month, expenseSummary);
+            // Return default insights if AI service fails, built from the summary already read
+            return createDefaultInsights(userId, month, data.expenseSummary());
+        }
+    }
+    
+    /**
+     * Generates and stores the insights of a user's month ahead of the first view, unless the stored ones
+     * were generated from the same figures. Calls to the model are paced by the shared token bucket.
+     *
+     * @return whether the model was called and its insights stored
+     * @throws RuntimeException if the model call failed; nothing is stored then
+     */
+    public boolean precompute(String userId, YearMonth month) throws InterruptedException {
+        MonthData data = readMonth(userId, month);
+        Optional<StoredInsights> stored = storedInsightsRepository.findByUserIdAndMonth(userId, month.toString());
+        if (stored.isPresent() && stored.get().getFingerprint().equals(AIInsightsCache.fingerprint(data.prompt()))) {
+            return false;
         }
+        precomputeRateLimit.acquire();
+        generate(userId, month, data, stored.orElse(null));
+        return true;
+    }
+    
+    private MonthData readMonth(String userId, YearMonth month) {
+        // Get financial data for the month
+        ExpenseSummaryResponse expenseSummary = transactionService.getExpenseSummary(userId, month);
+        Optional<Budget> budget = budgetService.getBudgetByMonth(userId, month);
+        
+        // Prepare data for AI analysis
+        Map<String, Object> financialData = new HashMap<>();
+        financialData.put("totalSpent", expenseSummary.getTotalSpent());
+        financialData.put("totalIncome", expenseSummary.getTotalIncome());
+        financialData.put("netFlow", expenseSummary.getNetFlow());
+        financialData.put("budgetAmount", budget.map(Budget::getAmount).orElse(null));
+        financialData.put("categoryBreakdown", expenseSummary.getCategoryBreakdown());
+        financialData.put("month", month.toString());
+        
+        // Create prompt for Gemini
+        return new MonthData(expenseSummary, budget, createAnalysisPrompt(financialData));
+    }
+    
+    private AIInsightsResponse generate(String userId, YearMonth month, MonthData data, StoredInsights previous) {
+        // Call Gemini API
+        String aiResponse = callGeminiAPI(data.prompt());
+        
+        // Parse AI response and create insights
+        List<String> insights = parseAIResponse(aiResponse);
+        String summary = generateSummary(data.expenseSummary(), data.budget());
+        
+        AIInsightsResponse response = new AIInsightsResponse(userId, month.toString(), insights, summary);
+        insightsCache.put(userId, month, data.prompt(), response);
+        
+        StoredInsights stored = new StoredInsights(userId, month.toString(), AIInsightsCache.fingerprint(data.prompt()), insights, summary);
+        if (previous != null) {
+            stored.setId(previous.getId());
+        }
+        try {
+            storedInsightsRepository.save(stored);
+        } catch (RuntimeException e) {
+            // Another instance stored the same month first; the insights are still valid for this caller
+            logger.debug("Insights for user {} and {} not stored: {}", userId, month, e.toString());
+        }
+        return response;
     }
     
     private String createAnalysisPrompt(Map<String, Object> financialData) {
@@ -115,12 +306,30 @@ public class GeminiAPIService {
             "parts", List.of(Map.of("text", prompt))
         )));
         
-        return webClient.post()
-                .uri(baseUrl + "?key=" + apiKey)
-                .bodyValue(requestBody)
-                .retrieve()
-                .bodyToMono(String.class)
-                .block();
+        // The bulkhead is outermost: a call it turns away is not an upstream failure and must not count
+        // towards opening the circuit
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return Bulkhead.decorateSupplier(bulkhead, CircuitBreaker.decorateSupplier(circuitBreaker, () ->
+                    webClient.post()
+                            .uri(baseUrl + "?key=" + apiKey)
+                            .bodyValue(requestBody)
+                            .retrieve()
+                            .bodyToMono(String.class)
+                            .timeout(callTimeout)
+                            .block())).get();
+        } catch (CallNotPermittedException | BulkheadFullException e) {
+            outcome = "rejected";
+            logger.debug("Gemini call not attempted: {}", e.getMessage());
+            throw e;
+        } catch (RuntimeException e) {
+            outcome = "failure";
+            logger.warn("Gemini call failed: {}", e.toString());
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer("ai.insights.upstream", "outcome", outcome));
+        }
     }
     
     private List<String> parseAIResponse(String aiResponse) {
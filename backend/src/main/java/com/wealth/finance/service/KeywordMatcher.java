@@ -0,0 +1,154 @@
+package com.wealth.finance.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.function.Consumer;
+
+/**
+ * Aho-Corasick automaton over a fixed set of keywords. Finds every keyword occurring in a text in one pass
+ * over the text, however many keywords there are. Immutable once built and safe to share between threads.
+ *
+ * @param <T> the value reported for a matching keyword
+ */
+final class KeywordMatcher<T> {
+    
+    private static final char[] NO_LABELS = new char[0];
+    private static final int[] NO_TARGETS = new int[0];
+    
+    // State 0 is the root; edges of each state are kept sorted by label for binary search
+    private final char[][] labels;
+    private final int[][] targets;
+    private final int[] fail;
+    private final int[][] outputs;
+    private final List<T> values;
+    
+    private KeywordMatcher(char[][] labels, int[][] targets, int[] fail, int[][] outputs, List<T> values) {
+        this.labels = labels;
+        this.targets = targets;
+        this.fail = fail;
+        this.outputs = outputs;
+        this.values = values;
+    }
+    
+    /**
+     * Builds the automaton; {@code keywords.get(i)} reports {@code values.get(i)}.
+     */
+    static <T> KeywordMatcher<T> build(List<String> keywords, List<T> values) {
+        List<char[]> labels = new ArrayList<>();
+        List<int[]> targets = new ArrayList<>();
+        List<int[]> outputs = new ArrayList<>();
+        labels.add(NO_LABELS);
+        targets.add(NO_TARGETS);
+        outputs.add(NO_TARGETS);
+        
+        for (int keyword = 0; keyword < keywords.size(); keyword++) {
+            String text = keywords.get(keyword);
+            int state = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char label = text.charAt(i);
+                int index = Arrays.binarySearch(labels.get(state), label);
+                if (index >= 0) {
+                    state = targets.get(state)[index];
+                    continue;
+                }
+                int next = labels.size();
+                labels.add(NO_LABELS);
+                targets.add(NO_TARGETS);
+                outputs.add(NO_TARGETS);
+                int insertAt = -index - 1;
+                labels.set(state, insert(labels.get(state), insertAt, label));
+                targets.set(state, insert(targets.get(state), insertAt, next));
+                state = next;
+            }
+            outputs.set(state, append(outputs.get(state), keyword));
+        }
+        
+        // Breadth-first, so the failure state of every shallower state is final before it is used
+        int[] fail = new int[labels.size()];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int child : targets.get(0)) {
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.remove();
+            char[] stateLabels = labels.get(state);
+            int[] stateTargets = targets.get(state);
+            for (int i = 0; i < stateLabels.length; i++) {
+                int child = stateTargets[i];
+                int fallback = fail[state];
+                int next = step(labels, targets, fallback, stateLabels[i]);
+                while (next < 0 && fallback != 0) {
+                    fallback = fail[fallback];
+                    next = step(labels, targets, fallback, stateLabels[i]);
+                }
+                fail[child] = next >= 0 && next != child ? next : 0;
+                // A state also reports every keyword that ends at its failure state
+                for (int output : outputs.get(fail[child])) {
+                    outputs.set(child, append(outputs.get(child), output));
+                }
+                queue.add(child);
+            }
+        }
+        
+        return new KeywordMatcher<>(labels.toArray(new char[0][]), targets.toArray(new int[0][]), fail,
+                outputs.toArray(new int[0][]), List.copyOf(values));
+    }
+    
+    /**
+     * Reports the value of every keyword occurrence in the text, in order of where the occurrence ends.
+     */
+    void forEachMatch(CharSequence text, Consumer<T> consumer) {
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char label = text.charAt(i);
+            int next = next(state, label);
+            while (next < 0 && state != 0) {
+                state = fail[state];
+                next = next(state, label);
+            }
+            state = Math.max(next, 0);
+            for (int output : outputs[state]) {
+                consumer.accept(values.get(output));
+            }
+        }
+    }
+    
+    boolean isEmpty() {
+        return values.isEmpty();
+    }
+    
+    private int next(int state, char label) {
+        int index = Arrays.binarySearch(labels[state], label);
+        return index >= 0 ? targets[state][index] : -1;
+    }
+    
+    private static int step(List<char[]> labels, List<int[]> targets, int state, char label) {
+        int index = Arrays.binarySearch(labels.get(state), label);
+        return index >= 0 ? targets.get(state)[index] : -1;
+    }
+    
+    private static char[] insert(char[] array, int at, char value) {
+        char[] copy = new char[array.length + 1];
+        System.arraycopy(array, 0, copy, 0, at);
+        copy[at] = value;
+        System.arraycopy(array, at, copy, at + 1, array.length - at);
+        return copy;
+    }
+    
+    private static int[] insert(int[] array, int at, int value) {
+        int[] copy = new int[array.length + 1];
+        System.arraycopy(array, 0, copy, 0, at);
+        copy[at] = value;
+        System.arraycopy(array, at, copy, at + 1, array.length - at);
+        return copy;
+    }
+    
+    private static int[] append(int[] array, int value) {
+        int[] copy = Arrays.copyOf(array, array.length + 1);
+        copy[array.length] = value;
+        return copy;
+    }
+}
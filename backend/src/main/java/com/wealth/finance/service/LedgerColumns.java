@@ -0,0 +1,337 @@
+package com.wealth.finance.service;
+
+import com.wealth.finance.model.Money;
+import com.wealth.finance.model.MonthlyRollup;
+import com.wealth.finance.model.Transaction;
+import com.wealth.finance.model.Transaction.TransactionType;
+import com.wealth.finance.repository.CategoryTotal;
+import org.bson.types.ObjectId;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Immutable column store of one user's ledger: one primitive array per field, rows sorted by date.
+ * Range queries binary-search the date column and sum the slice in a single pass without touching
+ * any objects. Writes never modify an instance; {@link #apply} returns a new one.
+ *
+ * <p>Rows carry the transaction's ObjectId so that a change can be applied exactly once, even when
+ * the columns were loaded after the change had already been stored.
+ */
+final class LedgerColumns {
+    
+    // Per row: day, cents, category, account, type and the 12-byte id
+    private static final int BYTES_PER_ROW = 4 + 8 + 4 + 4 + 1 + 8 + 4;
+    private static final int BYTES_PER_ACCOUNT = 80;
+    private static final int BYTES_PER_CATEGORY = 24;
+    private static final int OVERHEAD_BYTES = 256;
+    
+    // Ordinals of Transaction.TransactionType
+    private static final TransactionType[] TYPES = TransactionType.values();
+    
+    private final int size;
+    private final int[] days;
+    private final long[] cents;
+    private final int[] categories;
+    private final int[] accounts;
+    private final byte[] types;
+    private final long[] idHigh;
+    private final int[] idLow;
+    private final String[] accountIds;
+    // Category ids of the user in first-seen order; rows hold an index into it, so accumulators
+    // are sized by the categories this user has rather than by the largest id in the registry
+    private final Integer[] categoryIds;
+    // System.nanoTime() of the load from MongoDB; copies made by apply keep it
+    private final long loadedAt;
+    
+    private LedgerColumns(int size, int[] days, long[] cents, int[] categories, int[] accounts, byte[] types,
+                          long[] idHigh, int[] idLow, String[] accountIds, Integer[] categoryIds, long loadedAt) {
+        this.size = size;
+        this.days = days;
+        this.cents = cents;
+        this.categories = categories;
+        this.accounts = accounts;
+        this.types = types;
+        this.idHigh = idHigh;
+        this.idLow = idLow;
+        this.accountIds = accountIds;
+        this.categoryIds = categoryIds;
+        this.loadedAt = loadedAt;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public long loadedAt() {
+        return loadedAt;
+    }
+    
+    /**
+     * Approximate heap footprint, used to weigh entries against the cache's memory budget.
+     */
+    public long sizeInBytes() {
+        return OVERHEAD_BYTES + (long) days.length * BYTES_PER_ROW + (long) accountIds.length * BYTES_PER_ACCOUNT
+                + (long) categoryIds.length * BYTES_PER_CATEGORY;
+    }
+    
+    /**
+     * Totals per type and category for the inclusive date range, optionally limited to one account.
+     */
+    public List<CategoryTotal> categoryTotals(LocalDate startDate, LocalDate endDate, String accountId) {
+        int account = -1;
+        if (accountId != null) {
+            account = Arrays.asList(accountIds).indexOf(accountId);
+            if (account < 0) {
+                return List.of();
+            }
+        }
+        
+        // Sums in the first half, counts in the second, one slot per type and category
+        long[] accumulator = new long[2 * TYPES.length * categoryIds.length];
+        accumulate(lowerBound((int) startDate.toEpochDay()), lowerBound((int) endDate.toEpochDay() + 1), account, accumulator);
+        List<CategoryTotal> totals = new ArrayList<>();
+        drain(accumulator, totals::add);
+        return totals;
+    }
+    
+    /**
+     * The same documents the rollup collection holds for these months, computed from the columns.
+     */
+    public List<MonthlyRollup> monthlyRollups(String userId, YearMonth from, YearMonth to) {
+        List<MonthlyRollup> rollups = new ArrayList<>();
+        long[] accumulator = new long[2 * TYPES.length * categoryIds.length];
+        int start = lowerBound((int) from.atDay(1).toEpochDay());
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            // Each month starts where the previous one ended, so the range is walked once
+            int end = lowerBound((int) month.plusMonths(1).atDay(1).toEpochDay());
+            accumulate(start, end, -1, accumulator);
+            String yearMonth = month.toString();
+            drain(accumulator, total -> rollups.add(new MonthlyRollup(userId, yearMonth, total.getType(),
+                    total.getCategoryId(), total.getTotal(), total.getCount())));
+            start = end;
+        }
+        return rollups;
+    }
+    
+    /**
+     * Returns a copy without the rows of {@code removed} and with the rows of {@code added}. Rows are matched
+     * by id on their own date, so removing a row that is not present and adding one that already is are both
+     * no-ops.
+     *
+     * @throws IllegalArgumentException if a transaction id is not an ObjectId
+     */
+    public LedgerColumns apply(Collection<Transaction> removed, Collection<Transaction> added) {
+        boolean[] dropped = new boolean[size];
+        int dropCount = 0;
+        for (Transaction transaction : removed) {
+            int row = find(transaction, dropped);
+            if (row >= 0) {
+                dropped[row] = true;
+                dropCount++;
+            }
+        }
+        
+        List<Transaction> inserts = new ArrayList<>(added.size());
+        for (Transaction transaction : added) {
+            boolean duplicate = inserts.stream().anyMatch(other -> other.getId().equals(transaction.getId()));
+            if (!duplicate && find(transaction, dropped) < 0) {
+                inserts.add(transaction);
+            }
+        }
+        if (dropCount == 0 && inserts.isEmpty()) {
+            return this;
+        }
+        inserts.sort(Comparator.comparing(Transaction::getDate));
+        
+        Builder builder = new Builder(size - dropCount + inserts.size(), accountIds, categoryIds, loadedAt);
+        int next = 0;
+        for (int i = 0; i < size; i++) {
+            // Inserted rows go after existing rows of the same day, which keeps the date order stable
+            while (next < inserts.size() && inserts.get(next).getDate().toEpochDay() < days[i]) {
+                builder.add(inserts.get(next++));
+            }
+            if (!dropped[i]) {
+                builder.copy(this, i);
+            }
+        }
+        while (next < inserts.size()) {
+            builder.add(inserts.get(next++));
+        }
+        return builder.build();
+    }
+    
+    private void accumulate(int from, int to, int account, long[] accumulator) {
+        int counts = accumulator.length / 2;
+        for (int i = from; i < to; i++) {
+            if (account >= 0 && accounts[i] != account) {
+                continue;
+            }
+            int slot = types[i] * categoryIds.length + categories[i];
+            accumulator[slot] = Math.addExact(accumulator[slot], cents[i]);
+            accumulator[counts + slot]++;
+        }
+    }
+    
+    // Emits the non-empty slots in type and first-seen category order and clears the accumulator for reuse
+    private void drain(long[] accumulator, Consumer<CategoryTotal> sink) {
+        int counts = accumulator.length / 2;
+        for (int slot = 0; slot < counts; slot++) {
+            if (accumulator[counts + slot] > 0) {
+                sink.accept(new CategoryTotal(TYPES[slot / categoryIds.length], categoryIds[slot % categoryIds.length],
+                        Money.ofCents(accumulator[slot]).toBigDecimal(), accumulator[counts + slot]));
+            }
+        }
+        Arrays.fill(accumulator, 0);
+    }
+    
+    // First row whose day is at or after the given day
+    private int lowerBound(int day) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (days[middle] < day) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+    
+    private int find(Transaction transaction, boolean[] dropped) {
+        ByteBuffer id = ByteBuffer.wrap(toObjectId(transaction.getId()).toByteArray());
+        long high = id.getLong();
+        int low = id.getInt();
+        int day = (int) transaction.getDate().toEpochDay();
+        for (int i = lowerBound(day); i < size && days[i] == day; i++) {
+            if (!dropped[i] && idHigh[i] == high && idLow[i] == low) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private static ObjectId toObjectId(String id) {
+        if (id == null || !ObjectId.isValid(id)) {
+            throw new IllegalArgumentException("Transaction id " + id + " is not an ObjectId");
+        }
+        return new ObjectId(id);
+    }
+    
+    /**
+     * Appends rows in date order; arrays grow geometrically and are trimmed to size by {@link #build}.
+     */
+    static final class Builder {
+        
+        private int size;
+        private int[] days;
+        private long[] cents;
+        private int[] categories;
+        private int[] accounts;
+        private byte[] types;
+        private long[] idHigh;
+        private int[] idLow;
+        private final List<String> accountIds;
+        private final List<Integer> categoryIds;
+        private final long loadedAt;
+        
+        Builder(int capacity) {
+            this(capacity, new String[0], new Integer[0], System.nanoTime());
+        }
+        
+        private Builder(int capacity, String[] accountIds, Integer[] categoryIds, long loadedAt) {
+            int initial = Math.max(capacity, 16);
+            this.days = new int[initial];
+            this.cents = new long[initial];
+            this.categories = new int[initial];
+            this.accounts = new int[initial];
+            this.types = new byte[initial];
+            this.idHigh = new long[initial];
+            this.idLow = new int[initial];
+            this.accountIds = new ArrayList<>(Arrays.asList(accountIds));
+            this.categoryIds = new ArrayList<>(Arrays.asList(categoryIds));
+            this.loadedAt = loadedAt;
+        }
+        
+        /**
+         * Appends one transaction; callers add rows in ascending date order.
+         */
+        Builder add(Transaction transaction) {
+            int day = (int) transaction.getDate().toEpochDay();
+            if (size > 0 && days[size - 1] > day) {
+                throw new IllegalStateException("Rows must be added in date order");
+            }
+            ensureCapacity();
+            ByteBuffer id = ByteBuffer.wrap(toObjectId(transaction.getId()).toByteArray());
+            days[size] = day;
+            cents[size] = Money.of(transaction.getAmount()).getCents();
+            categories[size] = category(transaction.getCategoryId());
+            accounts[size] = account(transaction.getAccountId());
+            types[size] = (byte) transaction.getType().ordinal();
+            idHigh[size] = id.getLong();
+            idLow[size] = id.getInt();
+            size++;
+            return this;
+        }
+        
+        LedgerColumns build() {
+            return new LedgerColumns(size, Arrays.copyOf(days, size), Arrays.copyOf(cents, size),
+                    Arrays.copyOf(categories, size), Arrays.copyOf(accounts, size), Arrays.copyOf(types, size),
+                    Arrays.copyOf(idHigh, size), Arrays.copyOf(idLow, size), accountIds.toArray(new String[0]),
+                    categoryIds.toArray(new Integer[0]), loadedAt);
+        }
+        
+        // Existing rows keep their account and category indexes because the dictionaries are only ever appended to
+        private void copy(LedgerColumns source, int row) {
+            ensureCapacity();
+            days[size] = source.days[row];
+            cents[size] = source.cents[row];
+            categories[size] = source.categories[row];
+            accounts[size] = source.accounts[row];
+            types[size] = source.types[row];
+            idHigh[size] = source.idHigh[row];
+            idLow[size] = source.idLow[row];
+            size++;
+        }
+        
+        private int account(String accountId) {
+            int index = accountIds.indexOf(accountId);
+            if (index < 0) {
+                accountIds.add(accountId);
+                index = accountIds.size() - 1;
+            }
+            return index;
+        }
+        
+        private int category(Integer categoryId) {
+            int index = categoryIds.indexOf(categoryId);
+            if (index < 0) {
+                categoryIds.add(categoryId);
+                index = categoryIds.size() - 1;
+            }
+            return index;
+        }
+        
+        private void ensureCapacity() {
+            if (size < days.length) {
+                return;
+            }
+            int capacity = days.length * 2;
+            days = Arrays.copyOf(days, capacity);
+            cents = Arrays.copyOf(cents, capacity);
+            categories = Arrays.copyOf(categories, capacity);
+            accounts = Arrays.copyOf(accounts, capacity);
+            types = Arrays.copyOf(types, capacity);
+            idHigh = Arrays.copyOf(idHigh, capacity);
+            idLow = Arrays.copyOf(idLow, capacity);
+        }
+    }
+}
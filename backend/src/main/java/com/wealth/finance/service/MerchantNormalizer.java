@@ -0,0 +1,111 @@
+package com.wealth.finance.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Reduces raw statement descriptions to comparable forms. Bank feeds decorate the same merchant with card
+ * processor prefixes, store numbers and reference codes ("SQ *BLUE BOTTLE #0231", "POS DEBIT BLUE BOTTLE
+ * 4411"); the merchant key keeps only the words that name the merchant ("blue bottle").
+ */
+final class MerchantNormalizer {
+    
+    private static final int MERCHANT_WORDS = 3;
+    
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    
+    // Words added by processors, terminals and banks rather than by the merchant
+    private static final Set<String> NOISE = Set.of(
+            "pos", "debit", "credit", "card", "purchase", "payment", "pmt", "ach", "online", "recurring", "sq", "tst",
+            "sp", "pp", "paypal", "www", "com", "http", "https", "inc", "llc", "ltd", "co", "the", "ref", "txn", "upi",
+            "visa", "mastercard", "contactless", "ecom", "intl");
+    
+    private MerchantNormalizer() {}
+    
+    /**
+     * Lowercased words without accents, split at anything but letters, digits and '&'. Parsed once per
+     * description and passed to {@link #normalize} and {@link #merchant}.
+     */
+    static List<String> words(String description) {
+        List<String> words = new ArrayList<>();
+        if (description == null) {
+            return words;
+        }
+        String text = isAscii(description) ? description
+                : MARKS.matcher(Normalizer.normalize(description, Normalizer.Form.NFKD)).replaceAll("");
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && (Character.isLetterOrDigit(text.charAt(i)) || text.charAt(i) == '&');
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return words;
+    }
+    
+    /**
+     * The words separated and surrounded by single spaces, so that keywords in the same form match whole
+     * words only.
+     */
+    static String normalize(List<String> words) {
+        StringBuilder normalized = new StringBuilder(" ");
+        for (String word : words) {
+            normalized.append(word).append(' ');
+        }
+        return normalized.toString();
+    }
+    
+    static String normalize(String description) {
+        return normalize(words(description));
+    }
+    
+    /**
+     * The first few words that are neither processor noise nor codes, or an empty string if none are left.
+     */
+    static String merchant(List<String> words) {
+        StringBuilder merchant = new StringBuilder();
+        int count = 0;
+        for (String word : words) {
+            if (count == MERCHANT_WORDS) {
+                break;
+            }
+            if (word.length() > 1 && !NOISE.contains(word) && !hasDigit(word)) {
+                if (count++ > 0) {
+                    merchant.append(' ');
+                }
+                merchant.append(word);
+            }
+        }
+        return merchant.toString();
+    }
+    
+    static String merchant(String description) {
+        return merchant(words(description));
+    }
+    
+    // Plain ASCII has nothing to decompose, which spares most bank descriptions the Unicode normalization
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static boolean hasDigit(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (Character.isDigit(word.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,152 @@
+package com.wealth.finance.service;
+
+import com.wealth.finance.model.Money;
+import com.wealth.finance.model.MonthlyRollup;
+import com.wealth.finance.model.Transaction;
+import com.wealth.finance.repository.MonthlyRollupRepository;
+import com.wealth.finance.repository.RollupDelta;
+import com.wealth.finance.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class MonthlyRollupService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MonthlyRollupService.class);
+    
+    @Autowired
+    private MonthlyRollupRepository rollupRepository;
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private ExpenseSummaryCache summaryCache;
+    
+    @Value("${rollups.rebuild.settle:PT5M}")
+    private Duration settle;
+    
+    public List<MonthlyRollup> getRollups(String userId, YearMonth from, YearMonth to) {
+        return rollupRepository.findByUserIdAndYearMonthRange(userId, from.toString(), to.toString());
+    }
+    
+    public void recordCreated(Collection<Transaction> transactions) {
+        Map<String, RollupDelta> deltas = new LinkedHashMap<>();
+        transactions.forEach(transaction -> accumulate(deltas, transaction, 1));
+        apply(deltas.values());
+    }
+    
+    public void recordDeleted(Collection<Transaction> transactions) {
+        Map<String, RollupDelta> deltas = new LinkedHashMap<>();
+        transactions.forEach(transaction -> accumulate(deltas, transaction, -1));
+        apply(deltas.values());
+    }
+    
+    public void recordUpdated(Collection<Transaction> before, Collection<Transaction> after) {
+        // Reverse the old values and apply the new ones; unchanged keys cancel out
+        Map<String, RollupDelta> deltas = new LinkedHashMap<>();
+        before.forEach(transaction -> accumulate(deltas, transaction, -1));
+        after.forEach(transaction -> accumulate(deltas, transaction, 1));
+        apply(deltas.values().stream()
+                .filter(delta -> !delta.isEmpty())
+                .collect(Collectors.toList()));
+    }
+    
+    /**
+     * Recomputes a user's rollups from raw transactions and corrects any drift in place.
+     * The aggregation and the rollup read are not one snapshot, so months written within
+     * {@code rollups.rebuild.settle} of the run are left for the next run rather than
+     * "corrected" against a write that was still being applied.
+     *
+     * @return the number of rollup documents that had drifted
+     */
+    public int rebuild(String userId) {
+        return correct(userId, LocalDateTime.now().minus(settle));
+    }
+    
+    /**
+     * Replaces a user's rollups keyed by category name with ones keyed by category id. Only this
+     * user's legacy documents are removed, and months written while the replacement runs are left
+     * to the next rebuild, so other users' summaries are never served from an empty collection.
+     *
+     * @return the number of rollup documents written
+     */
+    public int replaceLegacy(String userId) {
+        LocalDateTime started = LocalDateTime.now();
+        rollupRepository.deleteByUserIdAndCategoryIdIsNull(userId);
+        int written = correct(userId, started);
+        summaryCache.invalidateUser(userId);
+        return written;
+    }
+    
+    private int correct(String userId, LocalDateTime cutoff) {
+        Map<String, RollupDelta> corrections = new LinkedHashMap<>();
+        Set<String> touched = new HashSet<>();
+        Set<String> read = new HashSet<>();
+        for (MonthlyRollup actual : rollupRepository.findByUserId(userId)) {
+            RollupDelta delta = delta(corrections, actual);
+            delta.add(Money.of(actual.getTotal()).negate(), -actual.getCount());
+            read.add(delta.key());
+            if (actual.getUpdatedAt() != null && !actual.getUpdatedAt().isBefore(cutoff)) {
+                touched.add(actual.getYearMonth());
+            }
+        }
+        for (MonthlyRollup expected : transactionRepository.computeMonthlyRollups(userId)) {
+            delta(corrections, expected).add(Money.of(expected.getTotal()), expected.getCount());
+        }
+        for (Transaction written : transactionRepository.findWrittenSince(userId, cutoff)) {
+            touched.add(YearMonth.from(written.getDate()).toString());
+        }
+        // A delete, or an update moving a row to another month, leaves nothing for findWrittenSince to
+        // find. Reading the rollups again catches the months such a write changed after the first read:
+        // their rollup was updated since, or removed because it dropped to zero
+        for (MonthlyRollup current : rollupRepository.findByUserId(userId)) {
+            read.remove(delta(corrections, current).key());
+            if (current.getUpdatedAt() != null && !current.getUpdatedAt().isBefore(cutoff)) {
+                touched.add(current.getYearMonth());
+            }
+        }
+        read.forEach(key -> touched.add(corrections.get(key).getYearMonth()));
+        
+        List<RollupDelta> drifted = corrections.values().stream()
+                .filter(delta -> !delta.isEmpty() && !touched.contains(delta.getYearMonth()))
+                .collect(Collectors.toList());
+        if (!drifted.isEmpty()) {
+            logger.warn("Correcting {} drifted monthly rollups for user {}", drifted.size(), userId);
+            apply(drifted);
+        }
+        return drifted.size();
+    }
+    
+    private void apply(Collection<RollupDelta> deltas) {
+        rollupRepository.applyDeltas(deltas);
+        // Exactly the months whose totals moved lose their cached summary; an update that
+        // changes a transaction's date therefore touches both the old and the new month
+        deltas.forEach(delta -> summaryCache.invalidate(delta.getUserId(), YearMonth.parse(delta.getYearMonth())));
+    }
+    
+    private void accumulate(Map<String, RollupDelta> deltas, Transaction transaction, int sign) {
+        Money amount = sign < 0 ? Money.of(transaction.getAmount()).negate() : Money.of(transaction.getAmount());
+        RollupDelta delta = new RollupDelta(transaction.getUserId(), YearMonth.from(transaction.getDate()).toString(),
+                transaction.getType(), transaction.getCategoryId());
+        deltas.computeIfAbsent(delta.key(), key -> delta).add(amount, sign);
+    }
+    
+    private RollupDelta delta(Map<String, RollupDelta> deltas, MonthlyRollup rollup) {
+        RollupDelta delta = new RollupDelta(rollup.getUserId(), rollup.getYearMonth(), rollup.getType(), rollup.getCategoryId());
+        return deltas.computeIfAbsent(delta.key(), key -> delta);
+    }
+}
@@ -0,0 +1,60 @@
+package com.wealth.finance.service;
+
+import com.wealth.finance.dto.ExpenseSummaryResponse;
+import com.wealth.finance.model.Transaction;
+import com.wealth.finance.repository.CategoryTotal;
+import com.wealth.finance.repository.ReactiveMonthlyRollupRepository;
+import com.wealth.finance.repository.ReactiveTransactionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * Non-blocking reads of transactions and summaries. Results are produced as the driver delivers them, so
+ * no request thread waits on MongoDB and long listings are streamed instead of paged. Summaries are built
+ * by the same code as the blocking path, from the same rollups and aggregation, but always read MongoDB:
+ * they bypass ExpenseSummaryCache and ColumnarLedgerCache, whose loads block, and the monthly summary
+ * leaves {@code monthlyTrends} empty.
+ */
+@Service
+public class ReactiveTransactionService {
+    
+    @Autowired
+    private ReactiveTransactionRepository reactiveTransactionRepository;
+    
+    @Autowired
+    private ReactiveMonthlyRollupRepository reactiveRollupRepository;
+    
+    @Autowired
+    private TransactionService transactionService;
+    
+    @Value("${transactions.stream.batch-size:500}")
+    private int batchSize;
+    
+    public Flux<Transaction> streamTransactions(String userId, String accountId, LocalDate startDate, LocalDate endDate) {
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            return Flux.error(new RuntimeException("Start date must not be after end date"));
+        }
+        return reactiveTransactionRepository.streamAll(userId, accountId, startDate, endDate, batchSize);
+    }
+    
+    public Mono<ExpenseSummaryResponse> getExpenseSummary(String userId, YearMonth yearMonth) {
+        return reactiveRollupRepository.findByUserIdAndYearMonth(userId, yearMonth.toString())
+                .map(rollup -> new CategoryTotal(rollup.getType(), rollup.getCategoryId(), rollup.getTotal(), rollup.getCount()))
+                .collectList()
+                .map(transactionService::buildSummary);
+    }
+    
+    public Mono<ExpenseSummaryResponse> getRangeSummary(String userId, LocalDate startDate, LocalDate endDate, String accountId) {
+        if (startDate.isAfter(endDate)) {
+            return Mono.error(new RuntimeException("Start date must not be after end date"));
+        }
+        return reactiveTransactionRepository.sumByTypeAndCategory(userId, accountId, startDate, endDate)
+                .collectList()
+                .map(transactionService::buildSummary);
+    }
+}
@@ -0,0 +1,160 @@
+package com.wealth.finance.service;
+
+import com.wealth.finance.model.SearchTokens;
+import com.wealth.finance.model.Transaction;
+import com.wealth.finance.repository.RecurringAdvance;
+import com.wealth.finance.repository.TransactionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Creates the occurrences of recurring transactions once they fall due. A template carries the date of
+ * its next pending occurrence; each run generates everything up to today, inserts it in bulk and then
+ * moves the template forward. The unique (recurringSourceId, date) index makes a repeated run, or one
+ * resumed after a crash between the two writes, skip occurrences that already exist.
+ */
+@Service
+public class RecurringTransactionService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RecurringTransactionService.class);
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private TransactionService transactionService;
+    
+    @Value("${recurring.materialize.batch-size:1000}")
+    private int batchSize;
+    
+    @Value("${recurring.materialize.parallelism:4}")
+    private int parallelism;
+    
+    @Value("${recurring.materialize.max-occurrences-per-run:400}")
+    private int maxOccurrencesPerRun;
+    
+    private ExecutorService executor;
+    
+    @PostConstruct
+    public void init() {
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "recurring-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+    
+    /**
+     * Materializes every occurrence due on or before {@code today}.
+     *
+     * @return the number of transactions created
+     */
+    public int materializeDue(LocalDate today) {
+        int created = 0;
+        LocalDate afterDate = null;
+        String afterId = null;
+        
+        while (true) {
+            List<Transaction> templates = transactionRepository.findDueRecurring(today, afterDate, afterId, batchSize);
+            if (templates.isEmpty()) {
+                break;
+            }
+            Transaction last = templates.get(templates.size() - 1);
+            afterDate = last.getNextRecurringDate();
+            afterId = last.getId();
+            
+            created += materializeBatch(templates, today);
+            if (templates.size() < batchSize) {
+                break;
+            }
+        }
+        return created;
+    }
+    
+    private int materializeBatch(List<Transaction> templates, LocalDate today) {
+        // Users are split into shards so one user's templates are always written by the same thread,
+        // while the shards themselves run in parallel on the bounded pool
+        Map<Integer, List<Transaction>> shards = templates.stream()
+                .collect(Collectors.groupingBy(template -> Math.floorMod(template.getUserId().hashCode(), parallelism)));
+        
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        shards.values().forEach(shard -> tasks.add(() -> materializeShard(shard, today)));
+        
+        int created = 0;
+        try {
+            for (Future<Integer> result : executor.invokeAll(tasks)) {
+                try {
+                    created += result.get();
+                } catch (ExecutionException e) {
+                    // The failed templates keep their due date and are picked up again by the next run
+                    logger.error("Recurring materialization failed for part of a batch", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Recurring materialization interrupted");
+        }
+        return created;
+    }
+    
+    private int materializeShard(List<Transaction> templates, LocalDate today) {
+        List<Transaction> occurrences = new ArrayList<>();
+        List<RecurringAdvance> advances = new ArrayList<>(templates.size());
+        
+        for (Transaction template : templates) {
+            Transaction.RecurringInterval interval = template.getRecurringInterval();
+            if (interval == null) {
+                continue;
+            }
+            // Catch up after downtime, capped so one stale template cannot dominate a run; the rest
+            // stays due and is continued next time
+            LocalDate next = template.getNextRecurringDate();
+            int generated = 0;
+            while (!next.isAfter(today) && generated < maxOccurrencesPerRun) {
+                occurrences.add(occurrence(template, next));
+                next = interval.nextAfter(template.getDate(), next);
+                generated++;
+            }
+            advances.add(new RecurringAdvance(template.getId(), template.getNextRecurringDate(), next));
+        }
+        
+        // Insert before advancing: a crash in between only leads to duplicates the unique index rejects
+        int created = transactionService.insertBatch(occurrences).size();
+        transactionRepository.advanceRecurring(advances);
+        return created;
+    }
+    
+    private Transaction occurrence(Transaction template, LocalDate date) {
+        Transaction occurrence = new Transaction(template.getDescription(), template.getAmount(), template.getCategory(),
+                date, template.getAccountId(), template.getUserId(), template.getType());
+        occurrence.setCategoryId(template.getCategoryId());
+        occurrence.setSearchTokens(SearchTokens.of(template.getDescription()));
+        occurrence.setRecurringSourceId(template.getId());
+        occurrence.setCreatedAt(LocalDateTime.now());
+        occurrence.setUpdatedAt(LocalDateTime.now());
+        return occurrence;
+    }
+}
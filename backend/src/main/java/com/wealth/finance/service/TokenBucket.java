@@ -0,0 +1,39 @@
+package com.wealth.finance.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket shared by all threads that call a rate-limited upstream. Holds up to {@code capacity}
+ * tokens, refilled continuously at {@code ratePerSecond}; a call takes one token, waiting for the refill
+ * when the bucket is empty. Waiting callers reserve their token up front, so they are served in arrival
+ * order and a burst never exceeds the capacity.
+ */
+final class TokenBucket {
+    
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long refilledAt;
+    
+    TokenBucket(double capacity, double ratePerSecond) {
+        this.capacity = capacity;
+        this.tokensPerNano = ratePerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.tokens = capacity;
+        this.refilledAt = System.nanoTime();
+    }
+    
+    void acquire() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+            // May go negative: the debt is what earlier waiters have already reserved
+            tokens -= 1;
+            waitNanos = tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerNano);
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
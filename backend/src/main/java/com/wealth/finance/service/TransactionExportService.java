@@ -0,0 +1,104 @@
+package com.wealth.finance.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wealth.finance.model.Transaction;
+import com.wealth.finance.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class TransactionExportService {
+    
+    public enum ExportFormat {
+        NDJSON, CSV
+    }
+    
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+    
+    private static final String CSV_HEADER = "id,date,description,amount,category,type,accountId,isRecurring,recurringInterval";
+    
+    @Autowired
+    private TransactionRepository transactionRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${transactions.export.batch-size:500}")
+    private int batchSize;
+    
+    public StreamingResponseBody export(String userId, ExportFormat format, String accountId,
+                                        LocalDate startDate, LocalDate endDate) {
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            throw new RuntimeException("Start date must not be after end date");
+        }
+        
+        // Rows are written as they come off the cursor, so heap use does not depend on the row count
+        return outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            try (Stream<Transaction> transactions = transactionRepository.streamAll(userId, accountId, startDate, endDate, batchSize)) {
+                if (format == ExportFormat.CSV) {
+                    writer.write(CSV_HEADER);
+                    writer.write('\n');
+                }
+                
+                Iterator<Transaction> iterator = transactions.iterator();
+                while (iterator.hasNext()) {
+                    Transaction transaction = iterator.next();
+                    if (format == ExportFormat.CSV) {
+                        writeCsvRow(writer, transaction);
+                    } else {
+                        writer.write(objectMapper.writeValueAsString(transaction));
+                        writer.write('\n');
+                    }
+                }
+            }
+            writer.flush();
+        };
+    }
+    
+    private void writeCsvRow(Writer writer, Transaction transaction) throws IOException {
+        writer.write(csv(transaction.getId()));
+        writer.write(',');
+        writer.write(csv(transaction.getDate()));
+        writer.write(',');
+        writer.write(csv(transaction.getDescription()));
+        writer.write(',');
+        writer.write(transaction.getAmount() == null ? "" : transaction.getAmount().toPlainString());
+        writer.write(',');
+        writer.write(csv(transaction.getCategory()));
+        writer.write(',');
+        writer.write(csv(transaction.getType()));
+        writer.write(',');
+        writer.write(csv(transaction.getAccountId()));
+        writer.write(',');
+        writer.write(String.valueOf(transaction.isRecurring()));
+        writer.write(',');
+        writer.write(csv(transaction.getRecurringInterval()));
+        writer.write('\n');
+    }
+    
+    private String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (!text.isEmpty() && FORMULA_PREFIXES.indexOf(text.charAt(0)) >= 0) {
+            // Spreadsheets evaluate cells that start like a formula; a leading quote keeps them as text
+            text = "'" + text;
+        }
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,234 @@
+package com.wealth.finance.service;
+
+import com.wealth.finance.dto.ImportResponse;
+import com.wealth.finance.dto.TransactionRequest;
+import com.wealth.finance.importer.CsvStatementParser;
+import com.wealth.finance.importer.OfxStatementParser;
+import com.wealth.finance.importer.StatementParser;
+import com.wealth.finance.importer.StatementRow;
+import com.wealth.finance.model.ImportFingerprint;
+import com.wealth.finance.model.Money;
+import com.wealth.finance.model.Transaction;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+public class TransactionImportService {
+    
+    public enum ImportFormat {
+        CSV, OFX
+    }
+    
+    @Autowired
+    private TransactionService transactionService;
+    
+    @Autowired
+    private AccountService accountService;
+    
+    @Autowired
+    private CategorizationEngine categorizationEngine;
+    
+    @Autowired
+    private CategoryRegistry categoryRegistry;
+    
+    @Autowired
+    private DuplicateDetector duplicateDetector;
+    
+    @Autowired
+    private Validator validator;
+    
+    @Value("${transactions.import.batch-size:1000}")
+    private int batchSize;
+    
+    @Value("${transactions.import.max-tracked-rows:10000}")
+    private int maxTrackedRows;
+    
+    public ImportResponse importStatement(MultipartFile file, ImportFormat format, String accountId, String userId) {
+        ImportFormat resolvedFormat = format != null ? format : detectFormat(file.getOriginalFilename());
+        StatementParser parser = resolvedFormat == ImportFormat.OFX ? new OfxStatementParser() : new CsvStatementParser();
+        ImportBatch batch = new ImportBatch(userId);
+        
+        try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+            parser.parse(reader, accountId, batch::accept);
+        } catch (IOException e) {
+            throw new RuntimeException("Could not read statement file");
+        }
+        batch.flush();
+        return batch.response;
+    }
+    
+    private ImportFormat detectFormat(String filename) {
+        String name = filename == null ? "" : filename.toLowerCase(Locale.ROOT);
+        return name.endsWith(".ofx") || name.endsWith(".qfx") ? ImportFormat.OFX : ImportFormat.CSV;
+    }
+    
+    /**
+     * Collects valid rows and writes them in fixed-size batches, so at most one batch of
+     * transactions is held in memory regardless of the statement size. Rows imported before,
+     * recognized by their fingerprint, are skipped and reported as duplicates.
+     */
+    private class ImportBatch {
+        
+        private final String userId;
+        private final CategorizationEngine.Categorizer categorizer;
+        private final ImportResponse response = new ImportResponse();
+        private final List<Transaction> pending = new ArrayList<>();
+        private final List<Integer> pendingLines = new ArrayList<>();
+        private final Map<String, Boolean> ownedAccounts = new HashMap<>();
+        // Occurrences so far of each distinct row, which number identical rows within this statement.
+        // Identical rows share an account and a day, so counts are kept per (account, day), least recently
+        // used first. Beyond maxTrackedRows distinct rows the stalest days are dropped; a statement that
+        // returns to a dropped day is rejected, as numbering its rows from 0 again would report them as
+        // duplicates of the rows already seen
+        private final LinkedHashMap<String, Map<String, Integer>> occurrences = new LinkedHashMap<>(16, 0.75f, true);
+        private final Set<String> droppedDays = new HashSet<>();
+        private int trackedRows;
+        
+        ImportBatch(String userId) {
+            this.userId = userId;
+            // Compiled rules and learned merchants are looked up once for the whole statement
+            this.categorizer = categorizationEngine.categorizer(userId);
+        }
+        
+        void accept(StatementRow row) {
+            response.setTotalRows(response.getTotalRows() + 1);
+            if (row.isRejected()) {
+                response.addError(row.getLine(), row.getError());
+                return;
+            }
+            
+            TransactionRequest request = row.getRequest();
+            if ((request.getCategory() == null || request.getCategory().isBlank()) && request.getType() != null) {
+                request.setCategory(categorizer.categorize(request.getDescription(), request.getType()).getName());
+            } else if (request.getCategory() != null && request.getType() != null) {
+                // A statement's category column is free text; names the user has no category for go to "Other"
+                request.setCategory(categoryRegistry.resolveExisting(userId, request.getCategory(), request.getType()).getName());
+            }
+            
+            Set<ConstraintViolation<TransactionRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                response.addError(row.getLine(), violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                return;
+            }
+            if (!ownsAccount(request.getAccountId())) {
+                response.addError(row.getLine(), "Account not found");
+                return;
+            }
+            
+            Transaction transaction = transactionService.toTransaction(request, userId);
+            String key = ImportFingerprint.key(request.getAccountId(), request.getDate().toEpochDay(),
+                    Money.of(request.getAmount()).getCents(), request.getType(), request.getDescription());
+            transaction.setImportFingerprint(ImportFingerprint.of(key, nextOrdinal(row.getLine(), request, key)));
+            pending.add(transaction);
+            pendingLines.add(row.getLine());
+            if (pending.size() >= batchSize) {
+                flush();
+            }
+        }
+        
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            Set<String> duplicates = duplicateDetector.findDuplicates(userId, fingerprints(pending));
+            List<Transaction> fresh = new ArrayList<>(pending.size());
+            List<Integer> freshLines = new ArrayList<>(pending.size());
+            for (int i = 0; i < pending.size(); i++) {
+                if (duplicates.contains(pending.get(i).getImportFingerprint())) {
+                    response.addDuplicate(pendingLines.get(i));
+                } else {
+                    fresh.add(pending.get(i));
+                    freshLines.add(pendingLines.get(i));
+                }
+            }
+            pending.clear();
+            pendingLines.clear();
+            if (fresh.isEmpty()) {
+                return;
+            }
+            
+            List<Transaction> inserted = transactionService.insertBatch(new ArrayList<>(fresh));
+            response.setImported(response.getImported() + inserted.size());
+            duplicateDetector.recordImported(userId, fingerprints(inserted));
+            
+            if (inserted.size() < fresh.size()) {
+                Set<String> insertedIds = new HashSet<>();
+                inserted.forEach(transaction -> insertedIds.add(transaction.getId()));
+                List<Integer> failed = new ArrayList<>();
+                for (int i = 0; i < fresh.size(); i++) {
+                    if (!insertedIds.contains(fresh.get(i).getId())) {
+                        failed.add(i);
+                    }
+                }
+                // Rejected by the unique fingerprint index: stored by an import that ran at the same time
+                Set<String> stored = duplicateDetector.findExisting(userId,
+                        failed.stream().map(i -> fresh.get(i).getImportFingerprint()).collect(Collectors.toList()));
+                for (int i : failed) {
+                    if (stored.contains(fresh.get(i).getImportFingerprint())) {
+                        response.addDuplicate(freshLines.get(i));
+                    } else {
+                        response.addError(freshLines.get(i), "Could not be saved");
+                    }
+                }
+            }
+        }
+        
+        private int nextOrdinal(int line, TransactionRequest request, String key) {
+            String day = request.getAccountId() + '|' + request.getDate();
+            if (droppedDays.contains(day)) {
+                throw new RuntimeException("Line " + line + " returns to " + request.getDate() + " after more than "
+                        + maxTrackedRows + " other rows; sort the statement by date or split it. Rows already imported"
+                        + " are skipped when it is imported again");
+            }
+            int ordinal = occurrences.computeIfAbsent(day, d -> new HashMap<>()).merge(key, 1, Integer::sum) - 1;
+            if (ordinal == 0) {
+                trackedRows++;
+                // The current day was just used, so it is the last one the iteration would reach
+                Iterator<Map.Entry<String, Map<String, Integer>>> stalest = occurrences.entrySet().iterator();
+                while (trackedRows > maxTrackedRows && occurrences.size() > 1) {
+                    Map.Entry<String, Map<String, Integer>> dropped = stalest.next();
+                    trackedRows -= dropped.getValue().size();
+                    droppedDays.add(dropped.getKey());
+                    stalest.remove();
+                }
+            }
+            return ordinal;
+        }
+        
+        private List<String> fingerprints(List<Transaction> transactions) {
+            return transactions.stream().map(Transaction::getImportFingerprint).collect(Collectors.toList());
+        }
+        
+        private boolean ownsAccount(String accountId) {
+            return ownedAccounts.computeIfAbsent(accountId, id -> {
+                try {
+                    accountService.getAccountById(id, userId);
+                    return true;
+                } catch (RuntimeException e) {
+                    return false;
+                }
+            });
+        }
+    }
+}
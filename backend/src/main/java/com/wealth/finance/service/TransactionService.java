@@ -1,51 +1,205 @@
 package com.wealth.finance.service;
 
+import com.wealth.finance.model.Category;
+import com.wealth.finance.model.Money;
+import com.wealth.finance.model.MonthlyRollup;
+import com.wealth.finance.model.SearchTokens;
 import com.wealth.finance.model.Transaction;
+import com.wealth.finance.repository.CategoryTotal;
+import com.wealth.finance.repository.TransactionCursor;
 import com.wealth.finance.repository.TransactionRepository;
+import com.wealth.finance.dto.BatchOperationResponse;
 import com.wealth.finance.dto.TransactionRequest;
+import com.wealth.finance.dto.TransactionPageResponse;
 import com.wealth.finance.dto.ExpenseSummaryResponse;
+import com.wealth.finance.dto.MonthlyTrendResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class TransactionService {
     
+    private static final Logger logger = LoggerFactory.getLogger(TransactionService.class);
+    
+    // Rounds of re-reading rows that other requests changed while a batch operation was applied
+    private static final int MAX_BATCH_ATTEMPTS = 3;
+    
+    // Shown for rollups whose category has since been deleted or never had an id
+    private static final String UNCATEGORIZED = "Uncategorized";
+    
     @Autowired
     private TransactionRepository transactionRepository;
     
-    public List<Transaction> getAllTransactionsByUserId(String userId) {
-        return transactionRepository.findByUserIdOrderByDateDesc(userId);
+    @Autowired
+    private MonthlyRollupService rollupService;
+    
+    @Autowired
+    private ExpenseSummaryCache summaryCache;
+    
+    @Autowired
+    private AccountService accountService;
+    
+    @Autowired
+    private CategoryRegistry categoryRegistry;
+    
+    @Autowired
+    private ColumnarLedgerCache ledgerCache;
+    
+    @Autowired
+    private AutocompleteService autocompleteService;
+    
+    @Autowired
+    private CategorizationEngine categorizationEngine;
+    
+    @Value("${analytics.trends.max-months:120}")
+    private int maxTrendMonths;
+    
+    @Value("${analytics.trends.summary-months:6}")
+    private int summaryTrendMonths;
+    
+    @Value("${transactions.page.default-size:50}")
+    private int defaultPageSize;
+    
+    @Value("${transactions.page.max-size:200}")
+    private int maxPageSize;
+    
+    @Value("${transactions.search.max-terms:8}")
+    private int maxSearchTerms;
+    
+    public TransactionPageResponse getAllTransactionsByUserId(String userId, String cursor, Integer limit) {
+        return findPage(userId, null, null, null, cursor, limit);
+    }
+    
+    public TransactionPageResponse getTransactionsByAccountId(String accountId, String userId, String cursor, Integer limit) {
+        return findPage(userId, accountId, null, null, cursor, limit);
+    }
+    
+    public TransactionPageResponse getTransactionsByDateRange(String userId, LocalDate startDate, LocalDate endDate,
+                                                              String cursor, Integer limit) {
+        if (startDate.isAfter(endDate)) {
+            throw new RuntimeException("Start date must not be after end date");
+        }
+        return findPage(userId, null, startDate, endDate, cursor, limit);
+    }
+    
+    /**
+     * Finds transactions whose description or category matches every word of the query, newest first. The last
+     * word may be incomplete: words of two or more characters also match as the start of a longer word.
+     */
+    public TransactionPageResponse searchTransactions(String userId, String query, BigDecimal minAmount, BigDecimal maxAmount,
+                                                      LocalDate startDate, LocalDate endDate, String cursor, Integer limit) {
+        List<String> words = SearchTokens.words(query);
+        if (words.isEmpty()) {
+            throw new RuntimeException("Search query must contain at least one letter or digit");
+        }
+        if (words.size() > maxSearchTerms) {
+            throw new RuntimeException("Search query cannot have more than " + maxSearchTerms + " words");
+        }
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            throw new RuntimeException("Start date must not be after end date");
+        }
+        if (minAmount != null && maxAmount != null && minAmount.compareTo(maxAmount) > 0) {
+            throw new RuntimeException("Minimum amount must not be greater than maximum amount");
+        }
+        
+        // Category names are few and held by the registry, so they are matched here and searched by id
+        List<Category> categories = categoryRegistry.getCategories(userId);
+        Map<String, Set<Integer>> terms = new LinkedHashMap<>();
+        for (String word : words) {
+            terms.put(word, categories.stream()
+                    .filter(category -> SearchTokens.matches(word, category.getName()))
+                    .map(Category::getId)
+                    .collect(Collectors.toSet()));
+        }
+        
+        int pageSize = pageSize(limit);
+        List<Transaction> rows = transactionRepository.search(userId, terms, minAmount, maxAmount, startDate, endDate,
+                decodeCursor(cursor), pageSize + 1);
+        return toPage(rows, pageSize);
+    }
+    
+    private TransactionPageResponse findPage(String userId, String accountId, LocalDate startDate, LocalDate endDate,
+                                             String cursor, Integer limit) {
+        int pageSize = pageSize(limit);
+        
+        // Fetch one extra row to learn whether another page exists without a count query
+        List<Transaction> rows = transactionRepository.findPage(userId, accountId, startDate, endDate, decodeCursor(cursor), pageSize + 1);
+        return toPage(rows, pageSize);
     }
     
-    public List<Transaction> getTransactionsByAccountId(String accountId, String userId) {
-        return transactionRepository.findByUserIdAndAccountId(userId, accountId);
+    private int pageSize(Integer limit) {
+        return limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
     }
     
-    public List<Transaction> getTransactionsByDateRange(String userId, LocalDate startDate, LocalDate endDate) {
-        return transactionRepository.findByUserIdAndDateBetween(userId, startDate, endDate);
+    private TransactionCursor decodeCursor(String cursor) {
+        return cursor == null || cursor.isBlank() ? null : TransactionCursor.decode(cursor);
+    }
+    
+    private TransactionPageResponse toPage(List<Transaction> rows, int pageSize) {
+        if (rows.size() <= pageSize) {
+            return new TransactionPageResponse(rows, null);
+        }
+        
+        List<Transaction> page = rows.subList(0, pageSize);
+        Transaction last = page.get(pageSize - 1);
+        return new TransactionPageResponse(page, new TransactionCursor(last.getDate(), last.getId()).encode());
     }
     
     public Transaction createTransaction(TransactionRequest transactionRequest, String userId) {
+        Transaction transaction = toTransaction(transactionRequest, userId);
+        
+        Transaction saved = transactionRepository.save(transaction);
+        afterInsert(List.of(saved));
+        // A category picked by hand; imports and recurring occurrences are not a choice of the user
+        categorizationEngine.learn(List.of(saved));
+        return saved;
+    }
+    
+    /**
+     * Inserts already validated transactions with one unordered bulk write and updates derived data once
+     * for the whole batch.
+     *
+     * @return the transactions that were stored; rows rejected by the database are left out
+     */
+    public List<Transaction> insertBatch(List<Transaction> transactions) {
+        List<Transaction> inserted = transactionRepository.insertUnordered(transactions);
+        afterInsert(inserted);
+        return inserted;
+    }
+    
+    public Transaction toTransaction(TransactionRequest transactionRequest, String userId) {
         Transaction transaction = new Transaction();
         transaction.setDescription(transactionRequest.getDescription());
+        transaction.setSearchTokens(SearchTokens.of(transactionRequest.getDescription()));
         transaction.setAmount(transactionRequest.getAmount());
-        transaction.setCategory(transactionRequest.getCategory());
+        setCategory(transaction, categoryRegistry.resolve(userId, transactionRequest.getCategory(), transactionRequest.getType()));
         transaction.setDate(transactionRequest.getDate());
         transaction.setAccountId(transactionRequest.getAccountId());
         transaction.setUserId(userId);
         transaction.setType(transactionRequest.getType());
         transaction.setRecurring(transactionRequest.isRecurring());
         transaction.setRecurringInterval(transactionRequest.getRecurringInterval());
+        transaction.setNextRecurringDate(nextOccurrence(transaction, null));
         transaction.setCreatedAt(java.time.LocalDateTime.now());
         transaction.setUpdatedAt(java.time.LocalDateTime.now());
-        
-        return transactionRepository.save(transaction);
+        return transaction;
     }
     
     public Transaction getTransactionById(String transactionId, String userId) {
@@ -55,10 +209,12 @@ public class TransactionService {
     
     public Transaction updateTransaction(String transactionId, TransactionRequest transactionRequest, String userId) {
         Transaction transaction = getTransactionById(transactionId, userId);
+        Transaction before = snapshot(transaction);
         
         transaction.setDescription(transactionRequest.getDescription());
+        transaction.setSearchTokens(SearchTokens.of(transactionRequest.getDescription()));
         transaction.setAmount(transactionRequest.getAmount());
-        transaction.setCategory(transactionRequest.getCategory());
+        setCategory(transaction, categoryRegistry.resolve(userId, transactionRequest.getCategory(), transactionRequest.getType()));
         transaction.setDate(transactionRequest.getDate());
         transaction.setAccountId(transactionRequest.getAccountId());
         transaction.setType(transactionRequest.getType());
@@ -66,70 +222,304 @@ public class TransactionService {
         transaction.setRecurringInterval(transactionRequest.getRecurringInterval());
         transaction.setUpdatedAt(java.time.LocalDateTime.now());
         
-        return transactionRepository.save(transaction);
+        if (before.isRecurring() != transaction.isRecurring()
+                || before.getRecurringInterval() != transaction.getRecurringInterval()
+                || !before.getDate().equals(transaction.getDate())) {
+            // Resume the new schedule after what the old one already created instead of replaying it
+            transaction.setNextRecurringDate(nextOccurrence(transaction, before.getNextRecurringDate()));
+        }
+        
+        Transaction saved = transactionRepository.save(transaction);
+        afterUpdate(List.of(before), List.of(saved));
+        return saved;
     }
     
     public void deleteTransaction(String transactionId, String userId) {
-        Transaction transaction = getTransactionById(transactionId, userId);
-        transactionRepository.delete(transaction);
+        getTransactionById(transactionId, userId);
+        // Same path as batch deletes, so a row removed by both is reversed only once
+        deleteTransactions(List.of(transactionId), userId);
+    }
+    
+    public BatchOperationResponse deleteTransactions(List<String> transactionIds, String userId) {
+        // Read the ledger fields first so aggregates can be reversed for exactly the rows removed
+        List<Transaction> matched = transactionRepository.findLedgerFieldsByIds(userId, transactionIds);
+        if (matched.isEmpty()) {
+            return new BatchOperationResponse(transactionIds.size(), 0, 0);
+        }
+        
+        long deleted = 0;
+        List<Transaction> pending = matched;
+        for (int attempt = 0; attempt < MAX_BATCH_ATTEMPTS && !pending.isEmpty(); attempt++) {
+            long removed = transactionRepository.deleteByVersions(userId, pending);
+            deleted += removed;
+            if (removed == pending.size()) {
+                afterDelete(pending);
+                break;
+            }
+            // Rows edited since the read survive and are retried with their new values. The rest are gone;
+            // they are ours unless another request deleted some of them at the same time
+            List<Transaction> survivors = transactionRepository.findLedgerFieldsByIds(userId, ids(pending));
+            Set<String> surviving = new HashSet<>(ids(survivors));
+            List<Transaction> gone = pending.stream()
+                    .filter(transaction -> !surviving.contains(transaction.getId()))
+                    .collect(Collectors.toList());
+            if (removed == gone.size()) {
+                afterDelete(gone);
+            } else {
+                // Which rows each request removed is unknown; the rollup rebuild and balance reconciliation repair them
+                logger.warn("Concurrent deletes for user {}: {} of {} rows removed here, aggregates left to the nightly repair",
+                        userId, removed, gone.size());
+                ledgerCache.invalidate(userId);
+            }
+            pending = survivors;
+        }
+        return new BatchOperationResponse(transactionIds.size(), matched.size(), deleted);
+    }
+    
+    public BatchOperationResponse recategorizeTransactions(List<String> transactionIds, String categoryName, String userId) {
+        Category category = categoryRegistry.resolve(userId, categoryName, null);
+        List<Transaction> matched = transactionRepository.findLedgerFieldsByIds(userId, transactionIds);
+        
+        long updated = 0;
+        List<Transaction> pending = notIn(category, matched);
+        for (int attempt = 0; attempt < MAX_BATCH_ATTEMPTS && !pending.isEmpty(); attempt++) {
+            // Mongo keeps milliseconds; the stamp must compare equal once read back
+            LocalDateTime stamp = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+            long changed = transactionRepository.updateCategoryByVersions(userId, pending, category.getName(),
+                    category.getId(), stamp);
+            updated += changed;
+            
+            List<Transaction> before = pending;
+            List<Transaction> retry = List.of();
+            if (changed < pending.size()) {
+                // Only rows carrying this write's stamp were moved from the values read; edited rows are re-read and retried
+                List<Transaction> current = transactionRepository.findLedgerFieldsByIds(userId, ids(pending));
+                Set<String> moved = current.stream()
+                        .filter(transaction -> stamp.equals(transaction.getUpdatedAt())
+                                && category.getId().equals(transaction.getCategoryId()))
+                        .map(Transaction::getId)
+                        .collect(Collectors.toSet());
+                before = pending.stream().filter(transaction -> moved.contains(transaction.getId())).collect(Collectors.toList());
+                retry = notIn(category, current.stream()
+                        .filter(transaction -> !moved.contains(transaction.getId()))
+                        .collect(Collectors.toList()));
+            }
+            
+            List<Transaction> after = before.stream()
+                    .map(transaction -> {
+                        Transaction moved = snapshot(transaction);
+                        setCategory(moved, category);
+                        moved.setUpdatedAt(stamp);
+                        return moved;
+                    })
+                    .collect(Collectors.toList());
+            if (!before.isEmpty()) {
+                afterUpdate(before, after);
+            }
+            pending = retry;
+        }
+        return new BatchOperationResponse(transactionIds.size(), matched.size(), updated);
+    }
+    
+    private List<Transaction> notIn(Category category, List<Transaction> transactions) {
+        return transactions.stream()
+                .filter(transaction -> !category.getId().equals(transaction.getCategoryId()))
+                .collect(Collectors.toList());
+    }
+    
+    private void setCategory(Transaction transaction, Category category) {
+        transaction.setCategory(category.getName());
+        transaction.setCategoryId(category.getId());
+    }
+    
+    private List<String> ids(List<Transaction> transactions) {
+        return transactions.stream().map(Transaction::getId).collect(Collectors.toList());
+    }
+    
+    // Derived data (monthly rollups) is kept in step with every write below
+    private void afterInsert(List<Transaction> inserted) {
+        if (inserted.isEmpty()) {
+            return;
+        }
+        rollupService.recordCreated(inserted);
+        accountService.applyLedgerChanges(List.of(), inserted);
+        ledgerCache.apply(List.of(), inserted);
+        autocompleteService.recordCreated(inserted);
+    }
+    
+    private void afterUpdate(List<Transaction> before, List<Transaction> after) {
+        rollupService.recordUpdated(before, after);
+        accountService.applyLedgerChanges(before, after);
+        ledgerCache.apply(before, after);
+        autocompleteService.recordUpdated(before, after);
+        learnRecategorized(before, after);
+    }
+    
+    private void afterDelete(List<Transaction> deleted) {
+        rollupService.recordDeleted(deleted);
+        accountService.applyLedgerChanges(deleted, List.of());
+        ledgerCache.apply(deleted, List.of());
+    }
+    
+    private void learnRecategorized(List<Transaction> before, List<Transaction> after) {
+        Map<String, Integer> previous = new HashMap<>();
+        before.forEach(transaction -> previous.put(transaction.getId(), transaction.getCategoryId()));
+        categorizationEngine.learn(after.stream()
+                .filter(transaction -> !Objects.equals(previous.get(transaction.getId()), transaction.getCategoryId()))
+                .collect(Collectors.toList()));
+    }
+    
+    private LocalDate nextOccurrence(Transaction template, LocalDate pendingOccurrence) {
+        if (!template.isRecurring() || template.getRecurringInterval() == null) {
+            return null;
+        }
+        // The template itself is the first occurrence
+        LocalDate lastCreated = template.getDate();
+        if (pendingOccurrence != null && pendingOccurrence.minusDays(1).isAfter(lastCreated)) {
+            lastCreated = pendingOccurrence.minusDays(1);
+        }
+        return template.getRecurringInterval().nextAfter(template.getDate(), lastCreated);
+    }
+    
+    private Transaction snapshot(Transaction transaction) {
+        Transaction copy = new Transaction(transaction.getDescription(), transaction.getAmount(), transaction.getCategory(),
+                transaction.getDate(), transaction.getAccountId(), transaction.getUserId(), transaction.getType());
+        copy.setId(transaction.getId());
+        copy.setCategoryId(transaction.getCategoryId());
+        copy.setRecurring(transaction.isRecurring());
+        copy.setRecurringInterval(transaction.getRecurringInterval());
+        copy.setNextRecurringDate(transaction.getNextRecurringDate());
+        copy.setRecurringSourceId(transaction.getRecurringSourceId());
+        copy.setCreatedAt(transaction.getCreatedAt());
+        copy.setUpdatedAt(transaction.getUpdatedAt());
+        return copy;
     }
     
     public ExpenseSummaryResponse getExpenseSummary(String userId, YearMonth yearMonth) {
-        LocalDate startDate = yearMonth.atDay(1);
-        LocalDate endDate = yearMonth.atEndOfMonth();
+        // The trailing months feed monthlyTrends; the same range read also yields the month itself
+        YearMonth from = yearMonth.minusMonths(summaryTrendMonths - 1);
+        if (ledgerCache.isEnabled()) {
+            return buildMonthSummary(ledgerCache.getRollups(userId, from, yearMonth), from, yearMonth);
+        }
+        // Reads the pre-aggregated months (one document per type and category) on a cache miss
+        return summaryCache.get(userId, yearMonth,
+                () -> buildMonthSummary(rollupService.getRollups(userId, from, yearMonth), from, yearMonth));
+    }
+    
+    private ExpenseSummaryResponse buildMonthSummary(List<MonthlyRollup> rollups, YearMonth from, YearMonth yearMonth) {
+        Map<String, Money> spentByMonth = new LinkedHashMap<>();
+        for (YearMonth month = from; !month.isAfter(yearMonth); month = month.plusMonths(1)) {
+            spentByMonth.put(month.toString(), Money.ZERO);
+        }
+        List<CategoryTotal> totals = new ArrayList<>();
+        for (MonthlyRollup rollup : rollups) {
+            if (rollup.getType() == Transaction.TransactionType.EXPENSE) {
+                spentByMonth.merge(rollup.getYearMonth(), Money.of(rollup.getTotal()), Money::plus);
+            }
+            if (rollup.getYearMonth().equals(yearMonth.toString())) {
+                totals.add(new CategoryTotal(rollup.getType(), rollup.getCategoryId(), rollup.getTotal(), rollup.getCount()));
+            }
+        }
         
-        List<Transaction> expenses = transactionRepository.findExpensesByUserIdAndDateBetween(userId, startDate, endDate);
-        List<Transaction> income = transactionRepository.findIncomeByUserIdAndDateBetween(userId, startDate, endDate);
+        ExpenseSummaryResponse response = buildSummary(totals);
+        Map<String, BigDecimal> monthlyTrends = new LinkedHashMap<>();
+        spentByMonth.forEach((month, spent) -> monthlyTrends.put(month, spent.toBigDecimal()));
+        response.setMonthlyTrends(monthlyTrends);
+        return response;
+    }
+    
+    public MonthlyTrendResponse getMonthlyTrends(String userId, YearMonth from, YearMonth to) {
+        if (from.isAfter(to)) {
+            throw new RuntimeException("Start month must not be after end month");
+        }
+        if (ChronoUnit.MONTHS.between(from, to) >= maxTrendMonths) {
+            throw new RuntimeException("Trend span cannot exceed " + maxTrendMonths + " months");
+        }
         
-        BigDecimal totalSpent = expenses.stream()
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // One indexed range read over rollups: O(months x categories) regardless of transaction volume
+        List<MonthlyRollup> rollups = ledgerCache.isEnabled()
+                ? ledgerCache.getRollups(userId, from, to)
+                : rollupService.getRollups(userId, from, to);
+        Map<String, List<MonthlyRollup>> rollupsByMonth = rollups.stream()
+                .collect(Collectors.groupingBy(MonthlyRollup::getYearMonth));
         
-        BigDecimal totalIncome = income.stream()
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        List<MonthlyTrendResponse.MonthTrend> trends = new ArrayList<>();
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            Money income = Money.ZERO;
+            Money spent = Money.ZERO;
+            Map<String, Money> categoryTotals = new HashMap<>();
+            for (MonthlyRollup rollup : rollupsByMonth.getOrDefault(month.toString(), List.of())) {
+                Money total = Money.of(rollup.getTotal());
+                if (rollup.getType() == Transaction.TransactionType.EXPENSE) {
+                    spent = spent.plus(total);
+                    categoryTotals.merge(categoryName(rollup.getCategoryId()), total, Money::plus);
+                } else {
+                    income = income.plus(total);
+                }
+            }
+            trends.add(new MonthlyTrendResponse.MonthTrend(month.toString(), income.toBigDecimal(), spent.toBigDecimal(),
+                    toAmounts(categoryTotals)));
+        }
+        
+        return new MonthlyTrendResponse(from.toString(), to.toString(), trends);
+    }
+    
+    /**
+     * Summary over any inclusive date range, optionally for one account. Rollups only cover whole months,
+     * so without the columnar cache this aggregates the raw transactions.
+     */
+    public ExpenseSummaryResponse getRangeSummary(String userId, LocalDate startDate, LocalDate endDate, String accountId) {
+        if (startDate.isAfter(endDate)) {
+            throw new RuntimeException("Start date must not be after end date");
+        }
+        List<CategoryTotal> totals = ledgerCache.isEnabled()
+                ? ledgerCache.getCategoryTotals(userId, startDate, endDate, accountId)
+                : transactionRepository.sumByTypeAndCategory(userId, accountId, startDate, endDate);
+        return buildSummary(totals);
+    }
+    
+    public ExpenseSummaryResponse buildSummary(List<CategoryTotal> totals) {
+        // Summed in whole cents: exact, overflow-checked and without a BigDecimal per addition
+        Money totalSpent = Money.ZERO;
+        Money totalIncome = Money.ZERO;
+        Map<Integer, Money> categoryTotals = new HashMap<>();
         
-        // Calculate category breakdown
-        Map<String, BigDecimal> categoryTotals = expenses.stream()
-                .collect(Collectors.groupingBy(
-                        Transaction::getCategory,
-                        Collectors.reducing(BigDecimal.ZERO, Transaction::getAmount, BigDecimal::add)
-                ));
+        for (CategoryTotal total : totals) {
+            Money amount = Money.of(total.getTotal());
+            if (total.getType() == Transaction.TransactionType.EXPENSE) {
+                totalSpent = totalSpent.plus(amount);
+                categoryTotals.merge(total.getCategoryId(), amount, Money::plus);
+            } else {
+                totalIncome = totalIncome.plus(amount);
+            }
+        }
         
+        Money spent = totalSpent;
         List<ExpenseSummaryResponse.CategoryBreakdown> categoryBreakdown = categoryTotals.entrySet().stream()
-                .map(entry -> {
-                    double percentage = totalSpent.compareTo(BigDecimal.ZERO) > 0 
-                        ? (entry.getValue().doubleValue() / totalSpent.doubleValue()) * 100 : 0;
-                    return new ExpenseSummaryResponse.CategoryBreakdown(
-                            entry.getKey(),
-                            entry.getValue(),
-                            percentage,
-                            getCategoryColor(entry.getKey())
-                    );
-                })
+                .sorted(Map.Entry.<Integer, Money>comparingByValue().reversed())
+                .map(entry -> new ExpenseSummaryResponse.CategoryBreakdown(
+                        categoryName(entry.getKey()),
+                        entry.getValue().toBigDecimal(),
+                        entry.getValue().percentOf(spent),
+                        categoryRegistry.getColor(entry.getKey())
+                ))
                 .collect(Collectors.toList());
         
-        ExpenseSummaryResponse response = new ExpenseSummaryResponse(totalSpent, totalIncome, BigDecimal.ZERO);
+        ExpenseSummaryResponse response = new ExpenseSummaryResponse(totalSpent.toBigDecimal(), totalIncome.toBigDecimal(), BigDecimal.ZERO);
         response.setCategoryBreakdown(categoryBreakdown);
         
         return response;
     }
     
-    private String getCategoryColor(String category) {
-        // Define colors for different categories
-        Map<String, String> categoryColors = Map.of(
-                "Food & Dining", "#FF6B6B",
-                "Transportation", "#4ECDC4",
-                "Shopping", "#45B7D1",
-                "Entertainment", "#96CEB4",
-                "Bills & Utilities", "#FFEAA7",
-                "Healthcare", "#DDA0DD",
-                "Education", "#98D8C8",
-                "Travel", "#F7DC6F",
-                "Other Expense", "#BB8FCE"
-        );
-        
-        return categoryColors.getOrDefault(category, "#FF6B6B");
+    private Map<String, BigDecimal> toAmounts(Map<String, Money> totals) {
+        Map<String, BigDecimal> amounts = new HashMap<>();
+        totals.forEach((category, total) -> amounts.put(category, total.toBigDecimal()));
+        return amounts;
+    }
+    
+    private String categoryName(Integer categoryId) {
+        String name = categoryRegistry.getName(categoryId);
+        return name != null ? name : UNCATEGORIZED;
     }
     
     public long getTransactionCount(String userId) {
@@ -0,0 +1,117 @@
+package com.wealth.finance.config;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RecurringScheduleMigrationTest {
+    
+    private static final LocalDate TODAY = LocalDate.of(2024, 5, 10);
+    
+    @Test
+    void schedulesFromTheLastOccurrenceOrElseFromToday() {
+        // Monthly since Jan 31 with nothing generated: due next on May 31
+        assertEquals(LocalDate.of(2024, 5, 31), next("MONTHLY", LocalDate.of(2024, 1, 31), null));
+        // Monthly on the 10th: today's occurrence is still created
+        assertEquals(TODAY, next("MONTHLY", LocalDate.of(2023, 12, 10), null));
+        // Occurrences generated up to March: April is caught up by the next run
+        assertEquals(LocalDate.of(2024, 4, 30), next("MONTHLY", LocalDate.of(2024, 1, 31), LocalDate.of(2024, 3, 31)));
+        assertEquals(LocalDate.of(2024, 5, 13), next("WEEKLY", LocalDate.of(2024, 4, 1), null));
+        // A template dated in the future is itself the first occurrence
+        assertEquals(LocalDate.of(2024, 7, 1), next("MONTHLY", LocalDate.of(2024, 6, 1), null));
+        
+        assertNull(RecurringScheduleMigration.nextOccurrence(new Document("dt", 19_000).append("ri", "HOURLY"), null, TODAY));
+        assertNull(RecurringScheduleMigration.nextOccurrence(new Document("ri", "MONTHLY"), null, TODAY));
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void writesTheNextDateOfUnscheduledTemplatesAndCheckpoints() {
+        ObjectId fresh = new ObjectId();
+        ObjectId caughtUp = new ObjectId();
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        MongoCollection<Document> migrations = mock(MongoCollection.class);
+        MongoCollection<Document> transactions = mock(MongoCollection.class);
+        when(mongoTemplate.getCollection("migrations")).thenReturn(migrations);
+        when(mongoTemplate.getCollection("transactions")).thenReturn(transactions);
+        
+        FindIterable<Document> checkpoint = mock(FindIterable.class);
+        when(migrations.find(any(Bson.class))).thenReturn(checkpoint);
+        
+        FindIterable<Document> templates = mock(FindIterable.class, RETURNS_SELF);
+        when(transactions.find(any(Bson.class))).thenReturn(templates);
+        when(templates.into(anyList())).thenAnswer(invocation -> {
+            ((Collection<Document>) invocation.getArgument(0)).addAll(List.of(
+                    template(fresh, LocalDate.of(2024, 1, 31), "MONTHLY"),
+                    template(caughtUp, LocalDate.of(2024, 1, 31), "MONTHLY")));
+            return invocation.getArgument(0);
+        }).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        AggregateIterable<Document> lastOccurrences = mock(AggregateIterable.class);
+        when(transactions.aggregate(anyList())).thenReturn(lastOccurrences);
+        doAnswer(invocation -> {
+            ((Consumer<Document>) invocation.getArgument(0)).accept(new Document("_id", caughtUp.toHexString())
+                    .append("last", (int) LocalDate.of(2024, 3, 31).toEpochDay()));
+            return null;
+        }).when(lastOccurrences).forEach(any(Consumer.class));
+        when(transactions.bulkWrite(anyList(), any(BulkWriteOptions.class))).thenReturn(BulkWriteResult.acknowledged(0, 2, 0, 2, List.of(), List.of()));
+        
+        RecurringScheduleMigration migration = new RecurringScheduleMigration();
+        ReflectionTestUtils.setField(migration, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(migration, "batchSize", 2);
+        migration.backfill(TODAY);
+        
+        ArgumentCaptor<List<WriteModel<Document>>> writes = ArgumentCaptor.forClass(List.class);
+        verify(transactions).bulkWrite(writes.capture(), any(BulkWriteOptions.class));
+        List<Document> updates = new ArrayList<>();
+        writes.getValue().forEach(write -> updates.add((Document) ((UpdateOneModel<Document>) write).getUpdate()));
+        assertEquals(List.of(
+                new Document("$set", new Document("nr", (int) LocalDate.of(2024, 5, 31).toEpochDay())),
+                new Document("$set", new Document("nr", (int) LocalDate.of(2024, 4, 30).toEpochDay()))), updates);
+        // Only templates still without a schedule are written
+        assertEquals(new Document("_id", fresh).append("nr", new Document("$exists", false)),
+                ((UpdateOneModel<Document>) writes.getValue().get(0)).getFilter());
+        
+        ArgumentCaptor<Bson> progress = ArgumentCaptor.forClass(Bson.class);
+        verify(migrations, times(2)).updateOne(any(Bson.class), progress.capture(), any(UpdateOptions.class));
+        assertEquals(caughtUp, ((Document) progress.getAllValues().get(0)).get("$set", Document.class).get("lastId"));
+        assertEquals(true, ((Document) progress.getAllValues().get(1)).get("$set", Document.class).get("done"));
+    }
+    
+    private static LocalDate next(String interval, LocalDate date, LocalDate lastOccurrence) {
+        Document template = new Document("dt", (int) date.toEpochDay()).append("ri", interval);
+        return RecurringScheduleMigration.nextOccurrence(template, lastOccurrence, TODAY);
+    }
+    
+    private static Document template(ObjectId id, LocalDate date, String interval) {
+        return new Document("_id", id).append("dt", (int) date.toEpochDay()).append("ri", interval);
+    }
+}
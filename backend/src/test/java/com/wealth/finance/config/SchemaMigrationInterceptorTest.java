@@ -0,0 +1,61 @@
+package com.wealth.finance.config;
+
+import com.wealth.finance.controller.TransactionController;
+import com.wealth.finance.dto.TransactionPageResponse;
+import com.wealth.finance.exception.GlobalExceptionHandler;
+import com.wealth.finance.service.TransactionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.handler.MappedInterceptor;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class SchemaMigrationInterceptorTest {
+    
+    private TransactionSchemaMigration schemaMigration;
+    private MockMvc mockMvc;
+    
+    @BeforeEach
+    void setUp() {
+        schemaMigration = mock(TransactionSchemaMigration.class);
+        SchemaMigrationInterceptor interceptor = new SchemaMigrationInterceptor();
+        ReflectionTestUtils.setField(interceptor, "schemaMigration", schemaMigration);
+        
+        TransactionService transactionService = mock(TransactionService.class);
+        when(transactionService.getAllTransactionsByUserId(eq("user"), any(), any())).thenReturn(new TransactionPageResponse());
+        TransactionController controller = new TransactionController();
+        ReflectionTestUtils.setField(controller, "transactionService", transactionService);
+        
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .addMappedInterceptors(new String[] {"/api/transactions/**"}, interceptor)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+    
+    @Test
+    void holdsTransactionReadsWhileMigrating() throws Exception {
+        when(schemaMigration.isComplete()).thenReturn(false);
+        
+        mockMvc.perform(get("/api/transactions").param("userId", "user"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "30"));
+    }
+    
+    @Test
+    void servesTransactionReadsOnceMigrated() throws Exception {
+        when(schemaMigration.isComplete()).thenReturn(true);
+        
+        mockMvc.perform(get("/api/transactions").param("userId", "user"))
+                .andExpect(status().isOk());
+    }
+}
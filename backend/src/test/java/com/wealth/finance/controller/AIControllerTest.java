@@ -0,0 +1,230 @@
+package com.wealth.finance.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import com.sun.net.httpserver.HttpServer;
+import com.wealth.finance.dto.ExpenseSummaryResponse;
+import com.wealth.finance.exception.GlobalExceptionHandler;
+import com.wealth.finance.repository.StoredInsightsRepository;
+import com.wealth.finance.service.AIInsightsCache;
+import com.wealth.finance.service.AIInsightsJobService;
+import com.wealth.finance.service.BudgetService;
+import com.wealth.finance.service.GeminiAPIService;
+import com.wealth.finance.service.TransactionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Insight jobs end to end against a local stub of the model API: the real GeminiAPIService calls it over HTTP,
+ * and the stub holds each answer until the test releases it.
+ */
+class AIControllerTest {
+    
+    private static final String GENERATED = "You spent 25% more on food this month compared to your average.";
+    private static final String JOB = "{\"userId\": \"user\", \"month\": \"2024-03\"}";
+    
+    private HttpServer model;
+    private final AtomicInteger modelCalls = new AtomicInteger();
+    private volatile CountDownLatch release = new CountDownLatch(0);
+    private AIInsightsJobService jobService;
+    private MockMvc mockMvc;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        model = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        model.createContext("/generate", exchange -> {
+            modelCalls.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"candidates\": []}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        model.start();
+        
+        jobService = new AIInsightsJobService();
+        ReflectionTestUtils.setField(jobService, "geminiAPIService", geminiAPIService());
+        ReflectionTestUtils.setField(jobService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(jobService, "threads", 1);
+        ReflectionTestUtils.setField(jobService, "queueCapacity", 1);
+        ReflectionTestUtils.setField(jobService, "retention", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(jobService, "maxJobs", 100L);
+        ReflectionTestUtils.setField(jobService, "sseTimeout", Duration.ofSeconds(10));
+        jobService.init();
+        
+        AIController controller = new AIController();
+        ReflectionTestUtils.setField(controller, "jobService", jobService);
+        ReflectionTestUtils.setField(controller, "syncTimeout", Duration.ofSeconds(10));
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).setControllerAdvice(new GlobalExceptionHandler()).build();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        jobService.shutdown();
+        model.stop(0);
+    }
+    
+    @Test
+    void submittedJobCanBePolledUntilItSucceeds() throws Exception {
+        String jobId = submit();
+        
+        String job = null;
+        for (int attempt = 0; attempt < 50; attempt++) {
+            job = mockMvc.perform(get("/api/ai/insights/jobs/" + jobId).param("userId", "user"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            if ("SUCCEEDED".equals(JsonPath.read(job, "$.status"))) {
+                break;
+            }
+            Thread.sleep(100);
+        }
+        
+        assertEquals("SUCCEEDED", JsonPath.read(job, "$.status"));
+        assertEquals(GENERATED, JsonPath.read(job, "$.result.insights[0]"));
+        assertEquals(1, modelCalls.get());
+    }
+    
+    @Test
+    void eventsStreamEndsWithTheResult() throws Exception {
+        release = new CountDownLatch(1);
+        String jobId = submit();
+        
+        MvcResult events = mockMvc.perform(get("/api/ai/insights/jobs/" + jobId + "/events").param("userId", "user"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertTrue(events.getResponse().getContentAsString().contains("event:status"));
+        release.countDown();
+        
+        mockMvc.perform(asyncDispatch(events)).andExpect(status().isOk());
+        String stream = events.getResponse().getContentAsString();
+        assertTrue(stream.contains("event:result"), stream);
+        assertTrue(stream.contains("SUCCEEDED") && stream.contains(GENERATED), stream);
+    }
+    
+    @Test
+    void fullQueueIsAnsweredWith429() throws Exception {
+        release = new CountDownLatch(1);
+        submit();
+        // The first job holds the only worker inside the model call, the second fills the queue
+        for (int attempt = 0; attempt < 50 && modelCalls.get() == 0; attempt++) {
+            Thread.sleep(100);
+        }
+        submit();
+        
+        mockMvc.perform(post("/api/ai/insights/jobs").contentType(MediaType.APPLICATION_JSON).content(JOB))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "5"));
+        mockMvc.perform(get("/api/ai/insights").param("userId", "user").param("month", "2024-03"))
+                .andExpect(status().isTooManyRequests());
+    }
+    
+    @Test
+    void slowSynchronousInsightsAreAnsweredWith503() throws Exception {
+        release = new CountDownLatch(1);
+        MvcResult started = mockMvc.perform(get("/api/ai/insights").param("userId", "user").param("month", "2024-03"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // Expire the request while its job is still inside the model call
+        MockAsyncContext context = (MockAsyncContext) started.getRequest().getAsyncContext();
+        for (AsyncListener listener : context.getListeners()) {
+            listener.onTimeout(new AsyncEvent(context));
+        }
+        
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "30"));
+    }
+    
+    @Test
+    void synchronousInsightsRunOnTheJobPool() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/ai/insights").param("userId", "user").param("month", "2024-03"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.insights[0]").value(GENERATED));
+        assertEquals(1, modelCalls.get());
+    }
+    
+    private String submit() throws Exception {
+        String job = mockMvc.perform(post("/api/ai/insights/jobs").contentType(MediaType.APPLICATION_JSON).content(JOB))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        return JsonPath.read(job, "$.jobId");
+    }
+    
+    private GeminiAPIService geminiAPIService() {
+        ExpenseSummaryResponse summary = new ExpenseSummaryResponse(new BigDecimal("80.00"), new BigDecimal("100.00"), BigDecimal.ZERO);
+        summary.setCategoryBreakdown(List.of());
+        TransactionService transactionService = mock(TransactionService.class);
+        when(transactionService.getExpenseSummary(anyString(), any())).thenReturn(summary);
+        BudgetService budgetService = mock(BudgetService.class);
+        when(budgetService.getBudgetByMonth(anyString(), any())).thenReturn(Optional.empty());
+        StoredInsightsRepository storedInsightsRepository = mock(StoredInsightsRepository.class);
+        when(storedInsightsRepository.findByUserIdAndMonth(anyString(), anyString())).thenReturn(Optional.empty());
+        
+        GeminiAPIService service = new GeminiAPIService();
+        ReflectionTestUtils.setField(service, "apiKey", "test");
+        ReflectionTestUtils.setField(service, "baseUrl", "http://localhost:" + model.getAddress().getPort() + "/generate");
+        ReflectionTestUtils.setField(service, "transactionService", transactionService);
+        ReflectionTestUtils.setField(service, "budgetService", budgetService);
+        ReflectionTestUtils.setField(service, "insightsCache", mock(AIInsightsCache.class));
+        ReflectionTestUtils.setField(service, "storedInsightsRepository", storedInsightsRepository);
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "connectTimeout", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(service, "readTimeout", Duration.ofSeconds(6));
+        ReflectionTestUtils.setField(service, "callTimeout", Duration.ofSeconds(6));
+        ReflectionTestUtils.setField(service, "failureRateThreshold", 50f);
+        ReflectionTestUtils.setField(service, "slidingWindowSize", 20);
+        ReflectionTestUtils.setField(service, "minimumCalls", 10);
+        ReflectionTestUtils.setField(service, "openDuration", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(service, "halfOpenCalls", 3);
+        ReflectionTestUtils.setField(service, "maxConcurrentCalls", 8);
+        ReflectionTestUtils.setField(service, "precomputeRatePerMinute", 60.0);
+        ReflectionTestUtils.setField(service, "precomputeBurst", 5);
+        service.init();
+        return service;
+    }
+}
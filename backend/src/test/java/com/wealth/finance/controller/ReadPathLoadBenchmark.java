@@ -0,0 +1,104 @@
+package com.wealth.finance.controller;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load test of the blocking and the reactive summary endpoints against a running instance: the same requests
+ * from the same number of concurrent clients, reporting throughput and latency percentiles per path. Run the
+ * server with production-like settings and a seeded user, then:
+ *
+ * <pre>
+ * java -cp target/test-classes -Dbase=http://localhost:8080 -Dtoken=&lt;JWT&gt; -Dconcurrency=200 \
+ *     -Drequests=20000 -Dmonth=2024-03 com.wealth.finance.controller.ReadPathLoadBenchmark
+ * </pre>
+ */
+public class ReadPathLoadBenchmark {
+    
+    public static void main(String[] args) throws Exception {
+        String base = System.getProperty("base", "http://localhost:8080");
+        String token = System.getProperty("token");
+        int concurrency = Integer.getInteger("concurrency", 200);
+        int requests = Integer.getInteger("requests", 20_000);
+        YearMonth month = YearMonth.parse(System.getProperty("month", YearMonth.now().minusMonths(1).toString()));
+        if (token == null) {
+            throw new IllegalArgumentException("Pass a JWT with -Dtoken=...");
+        }
+        
+        String range = "startDate=" + month.atDay(1) + "&endDate=" + month.atEndOfMonth();
+        List<String[]> paths = List.of(
+                new String[] {"blocking summary", "/api/transactions/analytics/summary?month=" + month},
+                new String[] {"reactive summary", "/api/reactive/transactions/analytics/summary?month=" + month},
+                new String[] {"blocking range-summary", "/api/transactions/analytics/range-summary?" + range},
+                new String[] {"reactive range-summary", "/api/reactive/transactions/analytics/range-summary?" + range});
+        
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        System.out.printf("%-24s %10s %8s %8s %8s %8s %8s%n", "path", "req/s", "errors", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for (String[] path : paths) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(base + path[1]))
+                    .header("Authorization", "Bearer " + token)
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+            // Warm-up pass so both paths are measured with JIT-compiled code and open connections
+            run(client, request, concurrency, Math.max(requests / 10, concurrency));
+            run(client, request, concurrency, requests).print(path[0]);
+        }
+    }
+    
+    private static Result run(HttpClient client, HttpRequest request, int concurrency, int requests) throws InterruptedException {
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(concurrency);
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        long started = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            clients.execute(() -> {
+                try {
+                    for (int n = next.getAndIncrement(); n < requests; n = next.getAndIncrement()) {
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies[n] = System.nanoTime() - sent;
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - started;
+        clients.shutdown();
+        Arrays.sort(latencies);
+        return new Result(requests * 1e9 / elapsed, errors.get(), latencies);
+    }
+    
+    private record Result(double throughput, int errors, long[] latencies) {
+        
+        void print(String name) {
+            System.out.printf("%-24s %10.0f %8d %8.1f %8.1f %8.1f %8.1f%n", name, throughput, errors,
+                    percentile(0.50), percentile(0.90), percentile(0.99), latencies[latencies.length - 1] / 1e6);
+        }
+        
+        private double percentile(double p) {
+            return latencies[(int) Math.min(latencies.length - 1, Math.ceil(p * latencies.length) - 1)] / 1e6;
+        }
+    }
+}
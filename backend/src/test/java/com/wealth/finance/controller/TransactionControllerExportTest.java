@@ -0,0 +1,58 @@
+package com.wealth.finance.controller;
+
+import com.wealth.finance.service.TransactionExportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class TransactionControllerExportTest {
+    
+    private TransactionExportService exportService;
+    private MockMvc mockMvc;
+    
+    @BeforeEach
+    void setUp() {
+        exportService = mock(TransactionExportService.class);
+        TransactionController controller = new TransactionController();
+        ReflectionTestUtils.setField(controller, "transactionExportService", exportService);
+        ReflectionTestUtils.setField(controller, "exportTimeout", Duration.ofSeconds(5));
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+    
+    @Test
+    void exportStreamsWithItsOwnTimeout() throws Exception {
+        StreamingResponseBody body = out -> out.write("id,date\n".getBytes(StandardCharsets.UTF_8));
+        when(exportService.export(eq("user"), eq(TransactionExportService.ExportFormat.CSV), any(), any(), any()))
+                .thenReturn(body);
+        
+        MvcResult started = mockMvc.perform(get("/api/transactions/export").param("userId", "user").param("format", "CSV"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        
+        assertEquals(5000, started.getRequest().getAsyncContext().getTimeout());
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transactions.csv\""))
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(content().string("id,date\n"));
+    }
+}
@@ -0,0 +1,139 @@
+package com.wealth.finance.importer;
+
+import com.wealth.finance.model.Transaction.TransactionType;
+import org.junit.jupiter.api.Test;
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvStatementParserTest {
+    
+    private final CsvStatementParser parser = new CsvStatementParser();
+    
+    @Test
+    void parsesQuotedFieldsAndSignedAmounts() throws Exception {
+        List<StatementRow> rows = parse("Date,Description,Amount\n"
+                + "2024-03-05,\"Coffee, \"\"large\"\"\",-4.50\n"
+                + "03/06/2024,Salary,\"1,200.00\"\n");
+        
+        assertEquals(2, rows.size());
+        assertEquals("Coffee, \"large\"", rows.get(0).getRequest().getDescription());
+        assertEquals(new BigDecimal("4.50"), rows.get(0).getRequest().getAmount());
+        assertEquals(TransactionType.EXPENSE, rows.get(0).getRequest().getType());
+        assertEquals(LocalDate.of(2024, 3, 6), rows.get(1).getRequest().getDate());
+        assertEquals(new BigDecimal("1200.00"), rows.get(1).getRequest().getAmount());
+        assertEquals(TransactionType.INCOME, rows.get(1).getRequest().getType());
+    }
+    
+    @Test
+    void quotedFieldsMaySpanLines() throws Exception {
+        List<StatementRow> rows = parse("date,memo,amount\n2024-03-05,\"two\nlines\",-1\n");
+        
+        assertEquals(1, rows.size());
+        assertEquals("two\nlines", rows.get(0).getRequest().getDescription());
+    }
+    
+    @Test
+    void unterminatedQuoteIsRejectedAndParsingResumes() throws Exception {
+        StringBuilder csv = new StringBuilder("date,description,amount\n2024-03-05,\"never closed,-1\n");
+        String filler = "x".repeat(1000) + "\n";
+        while (csv.length() < CsvStatementParser.MAX_RECORD_LENGTH + 2000) {
+            csv.append(filler);
+        }
+        csv.append("2024-03-07,Groceries,-20.00\n");
+        
+        List<StatementRow> rows = parse(csv.toString());
+        
+        assertTrue(rows.get(0).isRejected());
+        assertEquals(2, rows.get(0).getLine());
+        StatementRow last = rows.get(rows.size() - 1);
+        assertFalse(last.isRejected());
+        assertEquals("Groceries", last.getRequest().getDescription());
+    }
+    
+    @Test
+    void rejectsBadRowsWithTheirLineNumbers() throws Exception {
+        List<StatementRow> rows = parse("date,description,amount\n2024-03-05,A,abc\n2024-13-01,B,1\n");
+        
+        assertEquals("Invalid amount", rows.get(0).getError());
+        assertEquals(2, rows.get(0).getLine());
+        assertEquals("Invalid date", rows.get(1).getError());
+        assertEquals(3, rows.get(1).getLine());
+    }
+    
+    @Test
+    void oversizedLineIsSkippedWithoutBeingBuffered() throws Exception {
+        // 16M characters on one line, generated as they are read
+        Reader csv = new FillerReader("date,description,amount\n2024-03-05,", 16 << 20, "\r\n2024-03-07,Groceries,-20.00\n");
+        List<StatementRow> rows = new ArrayList<>();
+        parser.parse(csv, "account", rows::add);
+        
+        assertEquals(2, rows.size());
+        assertEquals("Record exceeds " + CsvStatementParser.MAX_RECORD_LENGTH + " characters", rows.get(0).getError());
+        assertEquals(2, rows.get(0).getLine());
+        assertEquals("Groceries", rows.get(1).getRequest().getDescription());
+        assertEquals(3, rows.get(1).getLine());
+    }
+    
+    @Test
+    void fileWithoutLineBreaksIsRejected() {
+        Reader csv = new FillerReader("date,", 16 << 20, "");
+        
+        RuntimeException e = assertThrows(RuntimeException.class, () -> parser.parse(csv, "account", row -> { }));
+        assertEquals("CSV header exceeds " + CsvStatementParser.MAX_RECORD_LENGTH + " characters", e.getMessage());
+    }
+    
+    private List<StatementRow> parse(String csv) throws Exception {
+        List<StatementRow> rows = new ArrayList<>();
+        parser.parse(new StringReader(csv), "account", rows::add);
+        return rows;
+    }
+    
+    // Serves prefix, then count filler characters, then suffix, without holding the filler in memory
+    static class FillerReader extends Reader {
+        
+        private final String prefix;
+        private final String suffix;
+        private final long count;
+        private long position;
+        
+        FillerReader(String prefix, long count, String suffix) {
+            this.prefix = prefix;
+            this.count = count;
+            this.suffix = suffix;
+        }
+        
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            long total = prefix.length() + count + suffix.length();
+            if (position >= total) {
+                return -1;
+            }
+            int read = 0;
+            while (read < length && position < total) {
+                if (position < prefix.length()) {
+                    buffer[offset + read] = prefix.charAt((int) position);
+                } else if (position < prefix.length() + count) {
+                    buffer[offset + read] = 'x';
+                } else {
+                    buffer[offset + read] = suffix.charAt((int) (position - prefix.length() - count));
+                }
+                position++;
+                read++;
+            }
+            return read;
+        }
+        
+        @Override
+        public void close() {
+        }
+    }
+}
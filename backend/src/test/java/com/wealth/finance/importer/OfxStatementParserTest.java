@@ -0,0 +1,95 @@
+package com.wealth.finance.importer;
+
+import com.wealth.finance.model.Transaction.TransactionType;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OfxStatementParserTest {
+    
+    @Test
+    void parsesDecimalCommaAndThousandsSeparators() {
+        assertEquals(new BigDecimal("-12.50"), OfxStatementParser.parseAmount("-12,50"));
+        assertEquals(new BigDecimal("1234.56"), OfxStatementParser.parseAmount("1,234.56"));
+        assertEquals(new BigDecimal("1234.56"), OfxStatementParser.parseAmount("1.234,56"));
+        assertEquals(new BigDecimal("-7.25"), OfxStatementParser.parseAmount("-7.25"));
+    }
+    
+    @Test
+    void parsesSgmlTransactions() throws Exception {
+        String ofx = "<OFX><BANKTRANLIST>"
+                + "<STMTTRN><TRNTYPE>DEBIT<DTPOSTED>20240305120000<TRNAMT>-1,234.56<NAME>Rent</STMTTRN>"
+                + "<STMTTRN><TRNTYPE>CREDIT<DTPOSTED>20240306<TRNAMT>99.00<MEMO>Refund</STMTTRN>"
+                + "<STMTTRN><TRNTYPE>DEBIT<NAME>Broken</STMTTRN>"
+                + "</BANKTRANLIST></OFX>";
+        List<StatementRow> rows = new ArrayList<>();
+        new OfxStatementParser().parse(new StringReader(ofx), "account", rows::add);
+        
+        assertEquals(3, rows.size());
+        assertEquals(new BigDecimal("1234.56"), rows.get(0).getRequest().getAmount());
+        assertEquals(TransactionType.EXPENSE, rows.get(0).getRequest().getType());
+        assertEquals(LocalDate.of(2024, 3, 5), rows.get(0).getRequest().getDate());
+        assertEquals("Refund", rows.get(1).getRequest().getDescription());
+        assertEquals(TransactionType.INCOME, rows.get(1).getRequest().getType());
+        assertTrue(rows.get(2).isRejected());
+    }
+    
+    @Test
+    void oversizedValueRejectsItsRecord() throws Exception {
+        Reader ofx = new SequenceReader(
+                new StringReader("<OFX><STMTTRN><DTPOSTED>20240305<TRNAMT>-5.00<NAME>"),
+                new CsvStatementParserTest.FillerReader("", 16 << 20, ""),
+                new StringReader("</STMTTRN><STMTTRN><DTPOSTED>20240306<TRNAMT>-7.00<NAME>Lunch</STMTTRN></OFX>"));
+        List<StatementRow> rows = new ArrayList<>();
+        new OfxStatementParser().parse(ofx, "account", rows::add);
+        
+        assertEquals(2, rows.size());
+        assertEquals("Value exceeds " + OfxStatementParser.MAX_VALUE_LENGTH + " characters", rows.get(0).getError());
+        assertEquals("Lunch", rows.get(1).getRequest().getDescription());
+        assertEquals(2, rows.get(1).getLine());
+    }
+    
+    @Test
+    void oversizedTagRejectsTheFile() {
+        Reader ofx = new CsvStatementParserTest.FillerReader("<OFX><STMTTRN><", 16 << 20, ">");
+        
+        RuntimeException e = assertThrows(RuntimeException.class, () -> new OfxStatementParser().parse(ofx, "account", row -> { }));
+        assertEquals("OFX tag exceeds " + OfxStatementParser.MAX_TAG_LENGTH + " characters", e.getMessage());
+    }
+    
+    // Reads the given readers one after another
+    private static class SequenceReader extends Reader {
+        
+        private final Reader[] readers;
+        private int current;
+        
+        SequenceReader(Reader... readers) {
+            this.readers = readers;
+        }
+        
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            while (current < readers.length) {
+                int read = readers[current].read(buffer, offset, length);
+                if (read > 0) {
+                    return read;
+                }
+                current++;
+            }
+            return -1;
+        }
+        
+        @Override
+        public void close() {
+        }
+    }
+}
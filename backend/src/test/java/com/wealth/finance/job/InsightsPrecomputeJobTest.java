@@ -0,0 +1,97 @@
+package com.wealth.finance.job;
+
+import com.mongodb.MongoWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.WriteError;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.result.UpdateResult;
+import com.wealth.finance.config.TransactionSchemaMigration;
+import com.wealth.finance.model.MonthlyRollup;
+import com.wealth.finance.service.GeminiAPIService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InsightsPrecomputeJobTest {
+    
+    private TransactionSchemaMigration schemaMigration;
+    private MongoTemplate mongoTemplate;
+    private MongoCollection<Document> checkpoints;
+    private InsightsPrecomputeJob job;
+    
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        schemaMigration = mock(TransactionSchemaMigration.class);
+        mongoTemplate = mock(MongoTemplate.class);
+        checkpoints = mock(MongoCollection.class);
+        FindIterable<Document> found = mock(FindIterable.class);
+        when(mongoTemplate.getCollection("job_checkpoints")).thenReturn(checkpoints);
+        when(checkpoints.find(any(Bson.class))).thenReturn(found);
+        when(checkpoints.updateOne(any(Bson.class), any(Bson.class))).thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        when(mongoTemplate.findDistinct(any(Query.class), eq("userId"), eq(MonthlyRollup.class), eq(String.class)))
+                .thenReturn(List.of());
+        
+        job = new InsightsPrecomputeJob();
+        ReflectionTestUtils.setField(job, "schemaMigration", schemaMigration);
+        ReflectionTestUtils.setField(job, "geminiAPIService", mock(GeminiAPIService.class));
+        ReflectionTestUtils.setField(job, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(job, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(job, "enabled", true);
+        ReflectionTestUtils.setField(job, "windowDays", 5);
+        ReflectionTestUtils.setField(job, "parallelism", 2);
+        ReflectionTestUtils.setField(job, "batchSize", 10);
+        ReflectionTestUtils.setField(job, "lease", Duration.ofMinutes(15));
+        job.init();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        job.shutdown();
+    }
+    
+    @Test
+    void leaseHeldByAnotherInstanceSkipsTheRun() {
+        when(schemaMigration.isComplete()).thenReturn(true);
+        when(checkpoints.updateOne(any(Bson.class), any(Bson.class), any(UpdateOptions.class)))
+                .thenThrow(new MongoWriteException(new WriteError(11000, "duplicate key", new BsonDocument()), new ServerAddress()));
+        
+        job.precompute();
+        
+        verify(mongoTemplate, never()).findDistinct(any(Query.class), eq("userId"), eq(MonthlyRollup.class), eq(String.class));
+    }
+    
+    @Test
+    void runPostponedByTheMigrationStartsOnceItHasFinished() {
+        when(checkpoints.updateOne(any(Bson.class), any(Bson.class), any(UpdateOptions.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        when(schemaMigration.isComplete()).thenReturn(false);
+        job.precompute();
+        job.resumeAfterMigration();
+        verify(mongoTemplate, never()).findDistinct(any(Query.class), eq("userId"), eq(MonthlyRollup.class), eq(String.class));
+        
+        when(schemaMigration.isComplete()).thenReturn(true);
+        job.resumeAfterMigration();
+        
+        verify(mongoTemplate, timeout(2000)).findDistinct(any(Query.class), eq("userId"), eq(MonthlyRollup.class), eq(String.class));
+    }
+}
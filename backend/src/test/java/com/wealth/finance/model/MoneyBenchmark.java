@@ -0,0 +1,62 @@
+package com.wealth.finance.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Summing a month of amounts as Money against the BigDecimal stream reduction the summaries used before.
+ * Both sides start from the amounts already in memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+    
+    @Param({"5000", "50000"})
+    private int rows;
+    
+    private Money[] money;
+    private BigDecimal[] decimals;
+    
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        money = new Money[rows];
+        decimals = new BigDecimal[rows];
+        for (int i = 0; i < rows; i++) {
+            long cents = random.nextInt(100_000);
+            money[i] = Money.ofCents(cents);
+            decimals[i] = BigDecimal.valueOf(cents, Money.SCALE);
+        }
+    }
+    
+    @Benchmark
+    public Money money() {
+        Money total = Money.ZERO;
+        for (Money amount : money) {
+            total = total.plus(amount);
+        }
+        return total;
+    }
+    
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        return Arrays.stream(decimals).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
@@ -0,0 +1,54 @@
+package com.wealth.finance.model;
+
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTest {
+    
+    @Test
+    void convertsExactlyToAndFromBigDecimal() {
+        assertEquals(12345, Money.of(new BigDecimal("123.45")).getCents());
+        assertEquals(-5, Money.of(new BigDecimal("-0.05")).getCents());
+        assertEquals(1200, Money.of(new BigDecimal("12")).getCents());
+        assertEquals(new BigDecimal("123.45"), Money.ofCents(12345).toBigDecimal());
+        assertEquals("-0.05", Money.ofCents(-5).toString());
+    }
+    
+    @Test
+    void rejectsAmountsNotInWholeCents() {
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("0.001")));
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("1e20")));
+        assertEquals(100, Money.of(new BigDecimal("1.000")).getCents());
+    }
+    
+    @Test
+    void overflowThrowsInsteadOfWrapping() {
+        Money max = Money.ofCents(Long.MAX_VALUE);
+        Money min = Money.ofCents(Long.MIN_VALUE);
+        
+        assertThrows(ArithmeticException.class, () -> max.plus(Money.ofCents(1)));
+        assertThrows(ArithmeticException.class, () -> min.minus(Money.ofCents(1)));
+        assertThrows(ArithmeticException.class, min::negate);
+        assertEquals(Money.ofCents(-Long.MAX_VALUE), max.negate());
+    }
+    
+    @Test
+    void percentOfIsZeroForNonPositiveTotal() {
+        Money part = Money.ofCents(2500);
+        
+        assertEquals(25.0, part.percentOf(Money.ofCents(10000)));
+        assertEquals(0.0, part.percentOf(Money.ZERO));
+        assertEquals(0.0, part.percentOf(Money.ofCents(-10000)));
+    }
+    
+    @Test
+    void zeroIsShared() {
+        assertSame(Money.ZERO, Money.ofCents(0));
+        assertSame(Money.ZERO, Money.of(new BigDecimal("0.00")));
+        assertSame(Money.ZERO, Money.ofCents(100).minus(Money.ofCents(100)));
+    }
+}
@@ -0,0 +1,59 @@
+package com.wealth.finance.model;
+
+import com.wealth.finance.model.Transaction.RecurringInterval;
+import org.junit.jupiter.api.Test;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecurringIntervalTest {
+    
+    @Test
+    void anchorIsFirstOccurrenceBeforeItIsReached() {
+        LocalDate anchor = LocalDate.of(2024, 3, 15);
+        
+        assertEquals(anchor, RecurringInterval.MONTHLY.nextAfter(anchor, LocalDate.of(2024, 1, 1)));
+        assertEquals(LocalDate.of(2024, 4, 15), RecurringInterval.MONTHLY.nextAfter(anchor, anchor));
+    }
+    
+    @Test
+    void monthlyCountsFromTheAnchorInsteadOfDrifting() {
+        LocalDate anchor = LocalDate.of(2024, 1, 31);
+        
+        LocalDate february = RecurringInterval.MONTHLY.nextAfter(anchor, anchor);
+        assertEquals(LocalDate.of(2024, 2, 29), february);
+        assertEquals(LocalDate.of(2024, 3, 31), RecurringInterval.MONTHLY.nextAfter(anchor, february));
+        assertEquals(LocalDate.of(2024, 4, 30), RecurringInterval.MONTHLY.nextAfter(anchor, LocalDate.of(2024, 3, 31)));
+    }
+    
+    @Test
+    void weeklyStepsBySevenDays() {
+        LocalDate anchor = LocalDate.of(2024, 1, 1);
+        
+        assertEquals(LocalDate.of(2024, 1, 8), RecurringInterval.WEEKLY.nextAfter(anchor, anchor));
+        assertEquals(LocalDate.of(2024, 1, 15), RecurringInterval.WEEKLY.nextAfter(anchor, LocalDate.of(2024, 1, 9)));
+        assertEquals(LocalDate.of(2024, 1, 22), RecurringInterval.WEEKLY.nextAfter(anchor, LocalDate.of(2024, 1, 15)));
+        assertEquals(LocalDate.of(2024, 1, 2), RecurringInterval.DAILY.nextAfter(anchor, anchor));
+    }
+    
+    @Test
+    void yearlyFromLeapDayReturnsToItInLeapYears() {
+        LocalDate anchor = LocalDate.of(2024, 2, 29);
+        
+        assertEquals(LocalDate.of(2025, 2, 28), RecurringInterval.YEARLY.nextAfter(anchor, anchor));
+        assertEquals(LocalDate.of(2028, 2, 29), RecurringInterval.YEARLY.nextAfter(anchor, LocalDate.of(2027, 3, 1)));
+    }
+    
+    @Test
+    void resultIsStrictlyAfterTheGivenDate() {
+        LocalDate anchor = LocalDate.of(2023, 11, 30);
+        for (RecurringInterval interval : RecurringInterval.values()) {
+            for (LocalDate after = anchor; after.isBefore(LocalDate.of(2025, 1, 1)); after = after.plusDays(13)) {
+                LocalDate next = interval.nextAfter(anchor, after);
+                assertTrue(next.isAfter(after), interval + " after " + after + " gave " + next);
+                assertEquals(next, interval.nextAfter(anchor, next.minusDays(1)), interval + " after " + after);
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.wealth.finance.repository;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Compares the two ways of summarizing a month against a real MongoDB: loading every transaction document
+ * of the month and summing in Java, as getExpenseSummary used to, against the $match/$group aggregation of
+ * {@link TransactionRepositoryImpl#sumByTypeAndCategory}. Reports the bytes of the server replies and the
+ * latency per summary. Seeds a scratch database with documents in the stored compact form and drops it
+ * afterwards.
+ *
+ * <pre>
+ * java -cp target/test-classes:target/classes:$(cat target/test.classpath) \
+ *     -Dmongodb.uri=mongodb://localhost:27017 -Drows=5000 -Diterations=200 \
+ *     com.wealth.finance.repository.ExpenseSummaryQueryBenchmark
+ * </pre>
+ */
+public class ExpenseSummaryQueryBenchmark {
+    
+    private static final String DATABASE = "finance_benchmark";
+    private static final String USER = "benchmark-user";
+    
+    public static void main(String[] args) {
+        String uri = System.getProperty("mongodb.uri", "mongodb://localhost:27017");
+        int rows = Integer.getInteger("rows", 5_000);
+        int iterations = Integer.getInteger("iterations", 200);
+        
+        AtomicLong replyBytes = new AtomicLong();
+        MongoClientSettings settings = MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(uri))
+                .addCommandListener(new CommandListener() {
+                    @Override
+                    public void commandSucceeded(CommandSucceededEvent event) {
+                        replyBytes.addAndGet(new RawBsonDocument(event.getResponse(), new BsonDocumentCodec()).getByteBuffer().remaining());
+                    }
+                })
+                .build();
+        
+        try (MongoClient client = MongoClients.create(settings)) {
+            MongoDatabase database = client.getDatabase(DATABASE);
+            database.drop();
+            MongoCollection<Document> transactions = database.getCollection("transactions");
+            transactions.createIndex(Indexes.ascending("u", "dt"));
+            LocalDate first = LocalDate.of(2024, 3, 1);
+            seed(transactions, first, rows);
+            
+            int from = (int) first.toEpochDay();
+            int to = (int) first.plusMonths(1).minusDays(1).toEpochDay();
+            Document month = new Document("u", USER).append("dt", new Document("$gte", from).append("$lte", to));
+            
+            System.out.printf("%-12s %14s %14s%n", "path", "bytes/summary", "us/summary");
+            measure("documents", iterations, replyBytes, () -> sumDocuments(transactions, month));
+            measure("aggregation", iterations, replyBytes, () -> aggregate(transactions, month));
+            database.drop();
+        }
+    }
+    
+    private static void seed(MongoCollection<Document> transactions, LocalDate first, int rows) {
+        Random random = new Random(42);
+        List<Document> documents = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            boolean income = random.nextInt(10) == 0;
+            String description = income ? "ACME PAYROLL " + i : "CARD PURCHASE MERCHANT " + random.nextInt(500);
+            documents.add(new Document("d", description)
+                    .append("tk", Arrays.asList(description.toLowerCase().split(" ")))
+                    .append("a", (long) random.nextInt(100_000))
+                    .append("c", income ? "Salary" : "Category " + random.nextInt(12))
+                    .append("ci", income ? 10 : 1 + random.nextInt(12))
+                    .append("dt", (int) first.plusDays(random.nextInt(first.lengthOfMonth())).toEpochDay())
+                    .append("ac", "account-" + random.nextInt(3))
+                    .append("u", USER)
+                    .append("t", income ? "INCOME" : "EXPENSE")
+                    .append("r", false)
+                    .append("ca", new Date())
+                    .append("ua", new Date()));
+        }
+        transactions.insertMany(documents);
+    }
+    
+    // What the service did before: every document of the month over the wire, summed per category in Java
+    private static Object sumDocuments(MongoCollection<Document> transactions, Document month) {
+        Map<String, BigDecimal> totals = new HashMap<>();
+        for (String type : List.of("EXPENSE", "INCOME")) {
+            for (Document document : transactions.find(new Document(month).append("t", type))) {
+                totals.merge(type + "|" + document.getInteger("ci"), BigDecimal.valueOf(document.getLong("a"), 2), BigDecimal::add);
+            }
+        }
+        return totals;
+    }
+    
+    // The shape of sumByTypeAndCategory: only one row per type and category comes back
+    private static Object aggregate(MongoCollection<Document> transactions, Document month) {
+        return transactions.aggregate(List.of(
+                new Document("$match", month),
+                new Document("$group", new Document("_id", new Document("type", "$t").append("categoryId", "$ci"))
+                        .append("cents", new Document("$sum", "$a"))
+                        .append("count", new Document("$sum", 1))),
+                new Document("$project", new Document("_id", 0).append("type", "$_id.type").append("categoryId", "$_id.categoryId")
+                        .append("count", 1)
+                        .append("total", new Document("$divide", List.of(new Document("$toDecimal", "$cents"), 100))))))
+                .into(new ArrayList<>());
+    }
+    
+    private static void measure(String name, int iterations, AtomicLong replyBytes, Supplier<Object> summary) {
+        for (int i = 0; i < Math.max(iterations / 10, 10); i++) {
+            summary.get();
+        }
+        replyBytes.set(0);
+        long started = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            summary.get();
+        }
+        long elapsed = System.nanoTime() - started;
+        System.out.printf("%-12s %14d %14.0f%n", name, replyBytes.get() / iterations, elapsed / 1e3 / iterations);
+    }
+}
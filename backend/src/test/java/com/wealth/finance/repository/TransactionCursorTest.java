@@ -0,0 +1,50 @@
+package com.wealth.finance.repository;
+
+import org.junit.jupiter.api.Test;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TransactionCursorTest {
+    
+    @Test
+    void encodedCursorDecodesToTheSamePosition() {
+        TransactionCursor cursor = new TransactionCursor(LocalDate.of(2024, 2, 29), "65f1c0ffee0123456789abcd");
+        
+        String token = cursor.encode();
+        TransactionCursor decoded = TransactionCursor.decode(token);
+        
+        assertFalse(token.contains("=") || token.contains("+") || token.contains("/"), token);
+        assertEquals(cursor.getDate(), decoded.getDate());
+        assertEquals(cursor.getId(), decoded.getId());
+    }
+    
+    @Test
+    void idMayContainTheSeparator() {
+        TransactionCursor decoded = TransactionCursor.decode(new TransactionCursor(LocalDate.of(2024, 1, 1), "a|b").encode());
+        
+        assertEquals("a|b", decoded.getId());
+    }
+    
+    @Test
+    void malformedTokensAreRejected() {
+        assertInvalid("not base64!");
+        assertInvalid(token("2024-01-01"));
+        assertInvalid(token("|abc"));
+        assertInvalid(token("2024-01-01|"));
+        assertInvalid(token("2024-13-01|abc"));
+    }
+    
+    private static void assertInvalid(String token) {
+        RuntimeException e = assertThrows(RuntimeException.class, () -> TransactionCursor.decode(token));
+        assertEquals("Invalid cursor", e.getMessage());
+    }
+    
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
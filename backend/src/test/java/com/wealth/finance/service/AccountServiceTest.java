@@ -0,0 +1,106 @@
+package com.wealth.finance.service;
+
+import com.wealth.finance.dto.AccountRequest;
+import com.wealth.finance.dto.BalanceReconciliationResponse;
+import com.wealth.finance.model.Account;
+import com.wealth.finance.model.Account.AccountType;
+import com.wealth.finance.model.Transaction;
+import com.wealth.finance.repository.AccountRepository;
+import com.wealth.finance.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AccountServiceTest {
+    
+    private AccountRepository accountRepository;
+    private TransactionRepository transactionRepository;
+    private AccountService accountService;
+    
+    @BeforeEach
+    void setUp() {
+        accountRepository = mock(AccountRepository.class);
+        transactionRepository = mock(TransactionRepository.class);
+        accountService = new AccountService();
+        ReflectionTestUtils.setField(accountService, "accountRepository", accountRepository);
+        ReflectionTestUtils.setField(accountService, "transactionRepository", transactionRepository);
+        ReflectionTestUtils.setField(accountService, "settle", Duration.ofMinutes(5));
+    }
+    
+    @Test
+    void updateWritesOnlyTheEditedFields() {
+        Account account = account("acc", "100.00", LocalDateTime.now().minusDays(1));
+        when(accountRepository.findByIdAndUserId("acc", "user")).thenReturn(Optional.of(account));
+        
+        accountService.updateAccount("acc", new AccountRequest("Renamed", new BigDecimal("100.00"), AccountType.SAVINGS, false), "user");
+        
+        verify(accountRepository).updateDetails("acc", "user", "Renamed", AccountType.SAVINGS);
+        verify(accountRepository, never()).setBalance(any(), any(), any());
+        verify(accountRepository, never()).save(any());
+    }
+    
+    @Test
+    void changedBalanceIsSetAtomically() {
+        Account account = account("acc", "100.00", LocalDateTime.now().minusDays(1));
+        when(accountRepository.findByIdAndUserId("acc", "user")).thenReturn(Optional.of(account));
+        
+        accountService.updateAccount("acc", new AccountRequest("Main", new BigDecimal("150.00"), AccountType.CURRENT, false), "user");
+        
+        verify(accountRepository).setBalance("acc", "user", new BigDecimal("150.00"));
+        verify(accountRepository, never()).save(any());
+    }
+    
+    @Test
+    void reconcileCorrectsSettledAccountsOnly() {
+        Account quiet = account("quiet", "100.00", LocalDateTime.now().minusDays(1));
+        Account busy = account("busy", "100.00", LocalDateTime.now().minusDays(1));
+        Account stamped = account("stamped", "100.00", LocalDateTime.now());
+        when(accountRepository.findByUserId("user")).thenReturn(List.of(quiet, busy, stamped));
+        when(transactionRepository.sumNetByAccount("user", null)).thenReturn(Map.of(
+                "quiet", new BigDecimal("5.00"), "busy", new BigDecimal("5.00"), "stamped", new BigDecimal("5.00")));
+        Transaction written = new Transaction();
+        written.setAccountId("busy");
+        when(transactionRepository.findWrittenSince(eq("user"), any())).thenReturn(List.of(written));
+        when(accountRepository.incrementBalance(any(), eq("user"), any())).thenReturn(true);
+        
+        List<BalanceReconciliationResponse> results = accountService.reconcileUser("user", true);
+        
+        assertEquals(3, results.size());
+        results.forEach(result -> assertEquals(new BigDecimal("5.00"), result.getDrift()));
+        assertTrue(results.get(0).isCorrected());
+        assertFalse(results.get(1).isCorrected());
+        assertFalse(results.get(2).isCorrected());
+        verify(accountRepository).incrementBalance("quiet", "user", new BigDecimal("5.00"));
+        verify(accountRepository, never()).incrementBalance(eq("busy"), any(), any());
+        verify(accountRepository, never()).setDefault(any(), any(), anyBoolean());
+    }
+    
+    private Account account(String id, String balance, LocalDateTime updatedAt) {
+        Account account = new Account();
+        account.setId(id);
+        account.setUserId("user");
+        account.setAccountName("Main");
+        account.setAccountType(AccountType.CURRENT);
+        account.setBalance(new BigDecimal(balance));
+        account.setOpeningBalance(new BigDecimal(balance));
+        account.setUpdatedAt(updatedAt);
+        return account;
+    }
+}
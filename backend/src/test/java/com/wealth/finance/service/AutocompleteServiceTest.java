@@ -0,0 +1,96 @@
+package com.wealth.finance.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.wealth.finance.model.Transaction;
+import com.wealth.finance.model.Transaction.TransactionType;
+import com.wealth.finance.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AutocompleteServiceTest {
+    
+    private TransactionRepository transactionRepository;
+    private AutocompleteService autocompleteService;
+    
+    @BeforeEach
+    void setUp() {
+        transactionRepository = mock(TransactionRepository.class);
+        when(transactionRepository.findRecentDescriptions(anyString(), anyInt())).thenAnswer(invocation -> history(invocation.getArgument(0), 200));
+        autocompleteService = new AutocompleteService();
+        ReflectionTestUtils.setField(autocompleteService, "transactionRepository", transactionRepository);
+        ReflectionTestUtils.setField(autocompleteService, "categoryRegistry", mock(CategoryRegistry.class));
+        ReflectionTestUtils.setField(autocompleteService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(autocompleteService, "rebuildAfter", Duration.ofHours(6));
+        ReflectionTestUtils.setField(autocompleteService, "historySize", 5000);
+        ReflectionTestUtils.setField(autocompleteService, "maxDescriptions", 5000);
+        ReflectionTestUtils.setField(autocompleteService, "maxSuggestions", 8);
+        ReflectionTestUtils.setField(autocompleteService, "halfLifeDays", 30.0);
+    }
+    
+    @Test
+    void triesAreEvictedByTheirSizeNotTheirCount() {
+        ReflectionTestUtils.setField(autocompleteService, "maxBytes", 3 * trieSize());
+        autocompleteService.init();
+        
+        for (int user = 0; user < 10; user++) {
+            autocompleteService.suggest("user" + user, "m", null);
+        }
+        Cache<String, DescriptionTrie> tries = tries();
+        tries.cleanUp();
+        
+        assertTrue(tries.estimatedSize() <= 3, tries.estimatedSize() + " tries cached");
+        assertTrue(tries.policy().eviction().orElseThrow().weightedSize().orElseThrow() <= 3 * trieSize());
+    }
+    
+    @Test
+    void recordedUsesAreWeighedAgain() {
+        ReflectionTestUtils.setField(autocompleteService, "maxBytes", 1L << 30);
+        autocompleteService.init();
+        autocompleteService.suggest("user", "m", null);
+        Cache<String, DescriptionTrie> tries = tries();
+        long loaded = tries.policy().eviction().orElseThrow().weightedSize().orElseThrow();
+        
+        autocompleteService.recordCreated(history("user", 1000).subList(200, 1000));
+        tries.cleanUp();
+        
+        long grown = tries.policy().eviction().orElseThrow().weightedSize().orElseThrow();
+        assertTrue(grown > 2 * loaded, loaded + " -> " + grown);
+        assertEquals(1000, tries.getIfPresent("user").size());
+        assertNull(tries.getIfPresent("other"));
+    }
+    
+    private long trieSize() {
+        DescriptionTrie trie = new DescriptionTrie(8, 5000, LocalDate.now().toEpochDay(), 30);
+        history("user", 200).forEach(transaction -> trie.add(transaction.getDescription(), null, transaction.getDate().toEpochDay()));
+        return trie.sizeInBytes();
+    }
+    
+    @SuppressWarnings("unchecked")
+    private Cache<String, DescriptionTrie> tries() {
+        return (Cache<String, DescriptionTrie>) ReflectionTestUtils.getField(autocompleteService, "tries");
+    }
+    
+    private static List<Transaction> history(String userId, int size) {
+        List<Transaction> transactions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            transactions.add(new Transaction("Merchant " + i, BigDecimal.TEN, "Other", LocalDate.now().minusDays(i % 30),
+                    "account", userId, TransactionType.EXPENSE));
+        }
+        return transactions;
+    }
+}
@@ -0,0 +1,132 @@
+package com.wealth.finance.service;
+
+import com.wealth.finance.model.Category;
+import com.wealth.finance.model.CategoryRule;
+import com.wealth.finance.model.CategoryRule.MatchType;
+import com.wealth.finance.model.Transaction;
+import com.wealth.finance.model.Transaction.TransactionType;
+import com.wealth.finance.repository.CategoryRepository;
+import com.wealth.finance.repository.CategoryRuleRepository;
+import com.wealth.finance.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Categorizes a 50k-row statement the way an import does: one categorizer for the statement, then every
+ * description through the user's rules, learned merchants and the global keywords. The repositories are
+ * mocked and only read while the user's model is built, which happens once per statement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CategorizationBenchmark {
+    
+    private static final int ROWS = 50_000;
+    
+    private static final String[] MERCHANTS = {
+        "SQ *BLUE BOTTLE #0231", "STARBUCKS STORE 1234", "UBER *TRIP HELP.UBER.COM", "AMAZON MKTP US*2K4",
+        "NETFLIX.COM", "SHELL OIL 5743", "CVS/PHARMACY #0412", "DELTA AIR LINES", "ACME PAYROLL", "LOCAL HARDWARE 77",
+        "PAYPAL *GITHUB", "TRADER JOE S #552", "COMCAST CABLE", "UDEMY ONLINE COURSE", "CORNER DELI"
+    };
+    
+    private CategorizationEngine engine;
+    private List<String> descriptions;
+    
+    @Setup
+    public void setUp() {
+        List<Category> categories = new ArrayList<>(List.of(
+                new Category(1, "Food & Dining", null, TransactionType.EXPENSE, null),
+                new Category(2, "Transportation", null, TransactionType.EXPENSE, null),
+                new Category(3, "Shopping", null, TransactionType.EXPENSE, null),
+                new Category(4, "Entertainment", null, TransactionType.EXPENSE, null),
+                new Category(5, "Bills & Utilities", null, TransactionType.EXPENSE, null),
+                new Category(6, "Healthcare", null, TransactionType.EXPENSE, null),
+                new Category(7, "Education", null, TransactionType.EXPENSE, null),
+                new Category(8, "Travel", null, TransactionType.EXPENSE, null),
+                new Category(9, CategoryRegistry.FALLBACK_EXPENSE, null, TransactionType.EXPENSE, null),
+                new Category(10, "Salary", null, TransactionType.INCOME, null),
+                new Category(11, "Freelance", null, TransactionType.INCOME, null),
+                new Category(12, "Investment", null, TransactionType.INCOME, null),
+                new Category(13, CategoryRegistry.FALLBACK_INCOME, null, TransactionType.INCOME, null),
+                new Category(14, "Coffee", null, TransactionType.EXPENSE, "user"),
+                new Category(15, "Software", null, TransactionType.EXPENSE, "user")));
+        CategoryRepository categoryRepository = mock(CategoryRepository.class);
+        when(categoryRepository.findAll()).thenReturn(categories);
+        CategoryRegistry categoryRegistry = new CategoryRegistry();
+        ReflectionTestUtils.setField(categoryRegistry, "categoryRepository", categoryRepository);
+        categoryRegistry.refresh();
+        
+        List<CategoryRule> globalRules = new ArrayList<>();
+        CategoryRuleRepository ruleRepository = mock(CategoryRuleRepository.class);
+        when(ruleRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            globalRules.addAll(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        when(ruleRepository.findByUserId(null)).thenReturn(globalRules);
+        when(ruleRepository.findByUserId("user")).thenReturn(List.of(
+                new CategoryRule("user", MatchType.MERCHANT, "blue bottle", 14, TransactionType.EXPENSE, 0),
+                new CategoryRule("user", MatchType.KEYWORD, "github", 15, TransactionType.EXPENSE, 0),
+                new CategoryRule("user", MatchType.REGEX, "^TRADER JOE", 1, TransactionType.EXPENSE, 0)));
+        
+        Random random = new Random(42);
+        List<Transaction> history = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            Transaction transaction = new Transaction();
+            transaction.setDescription("CORNER DELI " + random.nextInt(1000));
+            transaction.setType(TransactionType.EXPENSE);
+            transaction.setCategoryId(1);
+            history.add(transaction);
+        }
+        TransactionRepository transactionRepository = mock(TransactionRepository.class);
+        when(transactionRepository.findRecentDescriptions(eq("user"), anyInt())).thenReturn(history);
+        
+        engine = new CategorizationEngine();
+        ReflectionTestUtils.setField(engine, "ruleRepository", ruleRepository);
+        ReflectionTestUtils.setField(engine, "transactionRepository", transactionRepository);
+        ReflectionTestUtils.setField(engine, "categoryRegistry", categoryRegistry);
+        ReflectionTestUtils.setField(engine, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(engine, "maxUsers", 100L);
+        ReflectionTestUtils.setField(engine, "rebuildAfter", Duration.ofHours(6));
+        ReflectionTestUtils.setField(engine, "historySize", 20_000);
+        ReflectionTestUtils.setField(engine, "regexStepLimit", 20_000);
+        engine.init();
+        
+        descriptions = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            descriptions.add(MERCHANTS[random.nextInt(MERCHANTS.length)] + " " + (1000 + random.nextInt(9000)));
+        }
+    }
+    
+    @Benchmark
+    public void statement(Blackhole blackhole) {
+        CategorizationEngine.Categorizer categorizer = engine.categorizer("user");
+        for (String description : descriptions) {
+            blackhole.consume(categorizer.categorize(description, TransactionType.EXPENSE));
+        }
+    }
+}
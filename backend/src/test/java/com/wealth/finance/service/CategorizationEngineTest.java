@@ -0,0 +1,115 @@
+package com.wealth.finance.service;
+
+import com.wealth.finance.model.Category;
+import com.wealth.finance.model.CategoryRule;
+import com.wealth.finance.model.Transaction;
+import com.wealth.finance.model.Transaction.TransactionType;
+import com.wealth.finance.repository.CategoryRepository;
+import com.wealth.finance.repository.CategoryRuleRepository;
+import com.wealth.finance.repository.TransactionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CategorizationEngineTest {
+    
+    private CategoryRuleRepository ruleRepository;
+    private TransactionRepository transactionRepository;
+    private CategorizationEngine engine;
+    private List<CategoryRule> seeded;
+    
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        CategoryRepository categoryRepository = mock(CategoryRepository.class);
+        when(categoryRepository.findAll()).thenReturn(List.of(
+                new Category(1, "Food & Dining", null, TransactionType.EXPENSE, null),
+                new Category(2, "Transportation", null, TransactionType.EXPENSE, null),
+                new Category(3, CategoryRegistry.FALLBACK_EXPENSE, null, TransactionType.EXPENSE, null),
+                new Category(4, CategoryRegistry.FALLBACK_INCOME, null, TransactionType.INCOME, null)));
+        CategoryRegistry categoryRegistry = new CategoryRegistry();
+        ReflectionTestUtils.setField(categoryRegistry, "categoryRepository", categoryRepository);
+        categoryRegistry.refresh();
+        
+        ruleRepository = mock(CategoryRuleRepository.class);
+        seeded = new ArrayList<>();
+        when(ruleRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            seeded.addAll(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        when(ruleRepository.findByUserId(null)).thenAnswer(invocation -> seeded);
+        transactionRepository = mock(TransactionRepository.class);
+        when(transactionRepository.findRecentDescriptions(eq("user"), anyInt())).thenReturn(List.of());
+        
+        engine = new CategorizationEngine();
+        ReflectionTestUtils.setField(engine, "ruleRepository", ruleRepository);
+        ReflectionTestUtils.setField(engine, "transactionRepository", transactionRepository);
+        ReflectionTestUtils.setField(engine, "categoryRegistry", categoryRegistry);
+        ReflectionTestUtils.setField(engine, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(engine, "maxUsers", 100L);
+        ReflectionTestUtils.setField(engine, "rebuildAfter", Duration.ofHours(6));
+        ReflectionTestUtils.setField(engine, "historySize", 100);
+        ReflectionTestUtils.setField(engine, "regexStepLimit", 20_000);
+        engine.init();
+    }
+    
+    @Test
+    void globalRulesAreSeededUnderFixedIds() {
+        ArgumentCaptor<List<CategoryRule>> rules = ArgumentCaptor.forClass(List.class);
+        verify(ruleRepository).saveAll(rules.capture());
+        
+        List<String> ids = rules.getValue().stream().map(CategoryRule::getId).toList();
+        assertTrue(ids.contains("global:KEYWORD:starbucks"));
+        assertEquals(ids.size(), new HashSet<>(ids).size());
+    }
+    
+    @Test
+    void categorizesByGlobalKeywordsAndFallsBackByType() {
+        CategorizationEngine.Categorizer categorizer = engine.categorizer("user");
+        
+        assertEquals(1, categorizer.categorize("STARBUCKS STORE #123", TransactionType.EXPENSE).getId());
+        assertEquals(2, categorizer.categorize("Uber trip 2024-03-01", TransactionType.EXPENSE).getId());
+        assertEquals(3, categorizer.categorize("Unknown shop", TransactionType.EXPENSE).getId());
+        assertEquals(4, categorizer.categorize("Unknown payer", TransactionType.INCOME).getId());
+    }
+    
+    @Test
+    void learnsFromRowsTheUserCategorizedButNotFromImportsOrOccurrences() {
+        Transaction entered = history("Corner Deli", 2);
+        Transaction imported = history("Harbor Books", 2);
+        imported.setImportFingerprint("fingerprint");
+        Transaction occurrence = history("Gym Membership", 2);
+        occurrence.setRecurringSourceId("template");
+        when(transactionRepository.findRecentDescriptions(eq("learner"), anyInt())).thenReturn(List.of(entered, imported, occurrence));
+        
+        CategorizationEngine.Categorizer categorizer = engine.categorizer("learner");
+        
+        assertEquals(2, categorizer.categorize("CORNER DELI 0042", TransactionType.EXPENSE).getId());
+        assertEquals(3, categorizer.categorize("Harbor Books", TransactionType.EXPENSE).getId());
+        assertEquals(3, categorizer.categorize("Gym Membership", TransactionType.EXPENSE).getId());
+    }
+    
+    private static Transaction history(String description, int categoryId) {
+        Transaction transaction = new Transaction(description, BigDecimal.TEN, null, LocalDate.of(2024, 3, 1), "account", "learner",
+                TransactionType.EXPENSE);
+        transaction.setCategoryId(categoryId);
+        return transaction;
+    }
+}
@@ -0,0 +1,63 @@
+package com.wealth.finance.service;
+
+import com.wealth.finance.model.Category;
+import com.wealth.finance.model.Transaction.TransactionType;
+import com.wealth.finance.repository.CategoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CategoryRegistryTest {
+    
+    private CategoryRepository categoryRepository;
+    private CategoryRegistry categoryRegistry;
+    
+    @BeforeEach
+    void setUp() {
+        categoryRepository = mock(CategoryRepository.class);
+        categoryRegistry = new CategoryRegistry();
+        ReflectionTestUtils.setField(categoryRegistry, "categoryRepository", categoryRepository);
+        when(categoryRepository.findAll()).thenReturn(List.of(
+                new Category(1, CategoryRegistry.FALLBACK_EXPENSE, null, TransactionType.EXPENSE, null),
+                new Category(2, CategoryRegistry.FALLBACK_INCOME, null, TransactionType.INCOME, null),
+                new Category(3, "Groceries", null, TransactionType.EXPENSE, "alice")));
+        categoryRegistry.refresh();
+    }
+    
+    @Test
+    void unknownImportedNameFallsBackByKind() {
+        assertEquals(1, categoryRegistry.resolveExisting("alice", "Mystery", TransactionType.EXPENSE).getId());
+        assertEquals(2, categoryRegistry.resolveExisting("alice", "Mystery", TransactionType.INCOME).getId());
+        assertEquals(3, categoryRegistry.resolveExisting("alice", " Groceries ", TransactionType.EXPENSE).getId());
+        verify(categoryRepository, never()).insert(any(Category.class));
+    }
+    
+    @Test
+    void otherUsersCategoriesAreNotVisible() {
+        assertEquals(1, categoryRegistry.resolveExisting("bob", "Groceries", TransactionType.EXPENSE).getId());
+        assertEquals(List.of(1, 2), categoryRegistry.getCategories("bob").stream().map(Category::getId).toList());
+    }
+    
+    @Test
+    void resolveRegistersNewCategoryForItsOwnerOnly() {
+        when(categoryRepository.nextId()).thenReturn(4);
+        when(categoryRepository.insert(any(Category.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        Category created = categoryRegistry.resolve("bob", "Hobbies", TransactionType.EXPENSE);
+        
+        assertEquals(4, created.getId());
+        assertEquals(created, categoryRegistry.get(4));
+        assertEquals(List.of(1, 2, 4), categoryRegistry.getCategories("bob").stream().map(Category::getId).toList());
+        assertEquals(List.of(1, 2, 3), categoryRegistry.getCategories("alice").stream().map(Category::getId).toList());
+        assertTrue(categoryRegistry.getCategories("carol").stream().allMatch(Category::isBuiltIn));
+    }
+}
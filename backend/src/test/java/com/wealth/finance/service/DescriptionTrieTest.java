@@ -0,0 +1,117 @@
+package com.wealth.finance.service;
+
+import com.wealth.finance.service.DescriptionTrie.Suggestion;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DescriptionTrieTest {
+    
+    private static final long TODAY = 20_000;
+    
+    @Test
+    void suggestsByPrefixIgnoringCaseAndSpacing() {
+        DescriptionTrie trie = new DescriptionTrie(5, 100, TODAY, 30);
+        trie.add("Starbucks Coffee", 1, TODAY);
+        trie.add("Starbucks Coffee", 1, TODAY);
+        trie.add("Stop & Shop", 2, TODAY);
+        trie.add("Shell", 3, TODAY);
+        
+        assertEquals(List.of("Starbucks Coffee", "Stop & Shop"), descriptions(trie.suggest("ST", 5)));
+        assertEquals(List.of("Starbucks Coffee"), descriptions(trie.suggest("  starbucks   co", 5)));
+        assertEquals(List.of("Starbucks Coffee"), descriptions(trie.suggest("s", 1)));
+        assertEquals(List.of(), trie.suggest("x", 5));
+        assertEquals(2, trie.suggest("star", 5).get(0).uses());
+    }
+    
+    @Test
+    void recentUsesOutweighOlderOnes() {
+        DescriptionTrie trie = new DescriptionTrie(5, 100, TODAY, 30);
+        // Three uses three half-lives ago weigh 3/8 of one use today
+        for (int i = 0; i < 3; i++) {
+            trie.add("Gym Membership", 4, TODAY - 90);
+        }
+        trie.add("Grocery Outlet", 5, TODAY);
+        
+        assertEquals(List.of("Grocery Outlet", "Gym Membership"), descriptions(trie.suggest("g", 5)));
+        
+        // Scores only grow, so further uses move an entry back up
+        trie.add("Gym Membership", 4, TODAY + 1);
+        assertEquals(List.of("Gym Membership", "Grocery Outlet"), descriptions(trie.suggest("g", 5)));
+    }
+    
+    @Test
+    void suggestsLatestSpellingAndCategory() {
+        DescriptionTrie trie = new DescriptionTrie(5, 100, TODAY, 30);
+        trie.add("NETFLIX", 7, TODAY - 60);
+        trie.add("NETFLIX", 7, TODAY - 30);
+        trie.add("Netflix", 8, TODAY);
+        trie.add("netflix", null, TODAY - 90);
+        
+        Suggestion suggestion = trie.suggest("net", 5).get(0);
+        assertEquals("Netflix", suggestion.description());
+        assertEquals(8, suggestion.categoryId());
+        assertEquals(4, suggestion.uses());
+        assertEquals(1, trie.size());
+    }
+    
+    @Test
+    void keepsTheBestKPerPrefix() {
+        DescriptionTrie trie = new DescriptionTrie(2, 100, TODAY, 30);
+        trie.add("Amazon", 1, TODAY);
+        trie.add("Amazon", 1, TODAY);
+        trie.add("Apple", 2, TODAY);
+        trie.add("Airbnb", 3, TODAY);
+        
+        assertEquals(List.of("Amazon", "Apple"), descriptions(trie.suggest("a", 5)));
+        
+        // Overtakes the last kept entry once its score is higher
+        trie.add("Airbnb", 3, TODAY);
+        trie.add("Airbnb", 3, TODAY);
+        assertEquals(List.of("Airbnb", "Amazon"), descriptions(trie.suggest("a", 5)));
+        assertEquals(List.of("Apple"), descriptions(trie.suggest("ap", 5)));
+    }
+    
+    @Test
+    void stopsAddingDescriptionsAtCapacity() {
+        DescriptionTrie trie = new DescriptionTrie(5, 2, TODAY, 30);
+        trie.add("Uber", 1, TODAY);
+        trie.add("Lyft", 1, TODAY);
+        trie.add("Taxi", 1, TODAY);
+        trie.add("   ", 1, TODAY);
+        trie.add("Uber", 1, TODAY);
+        
+        assertEquals(2, trie.size());
+        assertEquals(List.of(), trie.suggest("taxi", 5));
+        assertEquals(2, trie.suggest("uber", 5).get(0).uses());
+    }
+    
+    @Test
+    void sizeGrowsWithNodesNotWithRepeatedUses() {
+        DescriptionTrie trie = new DescriptionTrie(8, 100, TODAY, 30);
+        long empty = trie.sizeInBytes();
+        trie.add("Coffee", 1, TODAY);
+        long one = trie.sizeInBytes();
+        trie.add("Coffee", 1, TODAY);
+        assertEquals(one, trie.sizeInBytes());
+        
+        // Shares the "co" path and adds two nodes, where "coffee" added six
+        trie.add("Corn", 2, TODAY);
+        long two = trie.sizeInBytes();
+        assertTrue(two > one);
+        assertTrue(two - one < one - empty);
+        
+        DescriptionTrie full = new DescriptionTrie(8, 5000, TODAY, 30);
+        for (int i = 0; i < 5000; i++) {
+            full.add(String.format("%08d", i * 7919) + " " + "x".repeat(55), 1, TODAY);
+        }
+        // Long distinct descriptions cost a node per character, each with its own top-k list
+        assertTrue(full.sizeInBytes() > 20_000_000, full.sizeInBytes() + " bytes");
+    }
+    
+    private static List<String> descriptions(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::description).toList();
+    }
+}
@@ -0,0 +1,65 @@
+package com.wealth.finance.service;
+
+import com.wealth.finance.model.ImportFingerprint;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FingerprintFilterTest {
+    
+    @Test
+    void neverMissesAnAddedFingerprint() {
+        FingerprintFilter filter = new FingerprintFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(fingerprint("row-" + i));
+        }
+        
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain(fingerprint("row-" + i)), "row-" + i);
+        }
+    }
+    
+    @Test
+    void falsePositiveRateStaysNearTheConfiguredOne() {
+        FingerprintFilter filter = new FingerprintFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(fingerprint("row-" + i));
+        }
+        
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(fingerprint("absent-" + i))) {
+                falsePositives++;
+            }
+        }
+        // Expected about 1000; fixed inputs, so the count is deterministic
+        assertTrue(falsePositives < 1_500, falsePositives + " false positives");
+        // About 9.6 bits per fingerprint at 1%
+        assertTrue(filter.sizeInBytes() < 13_000, filter.sizeInBytes() + " bytes");
+    }
+    
+    @Test
+    void reportsSaturationPastItsCapacity() {
+        FingerprintFilter filter = new FingerprintFilter(100, 0.01);
+        for (int i = 0; i < 100; i++) {
+            filter.add(fingerprint("row-" + i));
+        }
+        assertFalse(filter.isSaturated());
+        
+        filter.add(fingerprint("row-100"));
+        assertTrue(filter.isSaturated());
+    }
+    
+    @Test
+    void emptyFilterContainsNothing() {
+        FingerprintFilter filter = new FingerprintFilter(0, 0.01);
+        
+        assertFalse(filter.mightContain(fingerprint("row-0")));
+        assertFalse(filter.isSaturated());
+    }
+    
+    private static String fingerprint(String row) {
+        return ImportFingerprint.of("account|19800|1250|" + row, 0);
+    }
+}
@@ -0,0 +1,159 @@
+package com.wealth.finance.service;
+
+import com.sun.net.httpserver.HttpServer;
+import com.wealth.finance.dto.AIInsightsResponse;
+import com.wealth.finance.dto.ExpenseSummaryResponse;
+import com.wealth.finance.repository.StoredInsightsRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GeminiAPIServiceTest {
+    
+    private static final int CALLERS = 16;
+    private static final YearMonth MONTH = YearMonth.of(2024, 3);
+    
+    private HttpServer model;
+    private final AtomicInteger modelCalls = new AtomicInteger();
+    private final AtomicInteger summaryReads = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private GeminiAPIService service;
+    private ExecutorService callers;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        model = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        model.createContext("/generate", exchange -> {
+            modelCalls.incrementAndGet();
+            byte[] body = "{\"candidates\": []}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        model.start();
+        
+        ExpenseSummaryResponse summary = new ExpenseSummaryResponse(new BigDecimal("80.00"), new BigDecimal("100.00"), BigDecimal.ZERO);
+        summary.setCategoryBreakdown(List.of());
+        TransactionService transactionService = mock(TransactionService.class);
+        // The leader holds the flight open here until every caller has arrived
+        when(transactionService.getExpenseSummary(eq("user"), eq(MONTH))).thenAnswer(invocation -> {
+            summaryReads.incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            return summary;
+        });
+        BudgetService budgetService = mock(BudgetService.class);
+        when(budgetService.getBudgetByMonth(anyString(), any())).thenReturn(Optional.empty());
+        StoredInsightsRepository storedInsightsRepository = mock(StoredInsightsRepository.class);
+        when(storedInsightsRepository.findByUserIdAndMonth(anyString(), anyString())).thenReturn(Optional.empty());
+        
+        service = new GeminiAPIService();
+        ReflectionTestUtils.setField(service, "apiKey", "test");
+        ReflectionTestUtils.setField(service, "baseUrl", "http://localhost:" + model.getAddress().getPort() + "/generate");
+        ReflectionTestUtils.setField(service, "transactionService", transactionService);
+        ReflectionTestUtils.setField(service, "budgetService", budgetService);
+        ReflectionTestUtils.setField(service, "insightsCache", mock(AIInsightsCache.class));
+        ReflectionTestUtils.setField(service, "storedInsightsRepository", storedInsightsRepository);
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "connectTimeout", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(service, "readTimeout", Duration.ofSeconds(2));
+        ReflectionTestUtils.setField(service, "callTimeout", Duration.ofSeconds(3));
+        ReflectionTestUtils.setField(service, "failureRateThreshold", 50f);
+        ReflectionTestUtils.setField(service, "slidingWindowSize", 20);
+        ReflectionTestUtils.setField(service, "minimumCalls", 10);
+        ReflectionTestUtils.setField(service, "openDuration", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(service, "halfOpenCalls", 3);
+        ReflectionTestUtils.setField(service, "maxConcurrentCalls", 8);
+        ReflectionTestUtils.setField(service, "precomputeRatePerMinute", 60.0);
+        ReflectionTestUtils.setField(service, "precomputeBurst", 5);
+        service.init();
+        callers = Executors.newFixedThreadPool(CALLERS);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+        model.stop(0);
+    }
+    
+    @Test
+    void concurrentCallersShareOneComputation() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger arrived = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        List<Future<AIInsightsResponse>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(callers.submit(() -> {
+                synchronized (threads) {
+                    threads.add(Thread.currentThread());
+                }
+                start.await();
+                arrived.incrementAndGet();
+                return service.getAIInsights("user", MONTH);
+            }));
+        }
+        start.countDown();
+        awaitAllBlocked(threads, arrived);
+        release.countDown();
+        
+        AIInsightsResponse first = results.get(0).get(5, TimeUnit.SECONDS);
+        for (Future<AIInsightsResponse> result : results) {
+            assertSame(first, result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, summaryReads.get());
+        assertEquals(1, modelCalls.get());
+    }
+    
+    @Test
+    void laterCallersStartANewComputation() {
+        release.countDown();
+        
+        AIInsightsResponse first = service.getAIInsights("user", MONTH);
+        AIInsightsResponse second = service.getAIInsights("user", MONTH);
+        
+        assertNotSame(first, second);
+        assertEquals(2, summaryReads.get());
+    }
+    
+    // Every caller is past the start and parked: the leader on the release latch, the others joining its flight
+    private static void awaitAllBlocked(List<Thread> threads, AtomicInteger arrived) throws InterruptedException {
+        for (int attempt = 0; attempt < 500; attempt++) {
+            synchronized (threads) {
+                if (arrived.get() == CALLERS && threads.stream().allMatch(thread -> thread.getState() == Thread.State.WAITING
+                        || thread.getState() == Thread.State.TIMED_WAITING)) {
+                    return;
+                }
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Callers did not all block");
+    }
+}
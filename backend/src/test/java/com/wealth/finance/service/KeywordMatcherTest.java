@@ -0,0 +1,49 @@
+package com.wealth.finance.service;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeywordMatcherTest {
+    
+    @Test
+    void reportsEveryOccurrenceInOrderOfItsEnd() {
+        KeywordMatcher<String> matcher = KeywordMatcher.build(List.of("he", "she", "his", "hers"), List.of("he", "she", "his", "hers"));
+        
+        assertEquals(List.of("she", "he", "hers"), matches(matcher, "ushers"));
+        assertEquals(List.of("his", "he"), matches(matcher, "this he"));
+    }
+    
+    @Test
+    void followsFailureLinksAcrossPartialMatches() {
+        KeywordMatcher<Integer> matcher = KeywordMatcher.build(List.of("aab", "ab", "b"), List.of(1, 2, 3));
+        
+        assertEquals(List.of(1, 2, 3), matches(matcher, "aaab"));
+        assertEquals(List.of(), matches(matcher, "aaa"));
+    }
+    
+    @Test
+    void duplicateKeywordsReportEachValue() {
+        KeywordMatcher<String> matcher = KeywordMatcher.build(List.of("uber", "uber eats"), List.of("Transportation", "Food & Dining"));
+        
+        assertEquals(List.of("Transportation", "Food & Dining"), matches(matcher, "uber eats 123"));
+        assertEquals(List.of("Transportation"), matches(matcher, "uber trip"));
+    }
+    
+    @Test
+    void emptyMatcherMatchesNothing() {
+        KeywordMatcher<String> matcher = KeywordMatcher.build(List.of(), List.of());
+        
+        assertTrue(matcher.isEmpty());
+        assertEquals(List.of(), matches(matcher, "anything"));
+    }
+    
+    private static <T> List<T> matches(KeywordMatcher<T> matcher, String text) {
+        List<T> found = new ArrayList<>();
+        matcher.forEachMatch(text, found::add);
+        return found;
+    }
+}
@@ -0,0 +1,101 @@
+package com.wealth.finance.service;
+
+import com.wealth.finance.model.MonthlyRollup;
+import com.wealth.finance.model.Transaction;
+import com.wealth.finance.model.Transaction.TransactionType;
+import com.wealth.finance.repository.CategoryTotal;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Month and year aggregations over the columns against the same aggregation over the Transaction objects
+ * a MongoDB read materializes. The database round trip itself is not part of either side.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LedgerColumnsBenchmark {
+    
+    private static final YearMonth FIRST = YearMonth.of(2024, 1);
+    private static final YearMonth LAST = YearMonth.of(2024, 12);
+    
+    @Param({"5000", "50000"})
+    private int rows;
+    
+    private LedgerColumns columns;
+    private List<Transaction> transactions;
+    
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        transactions = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Transaction transaction = new Transaction();
+            transaction.setId(new ObjectId().toHexString());
+            transaction.setUserId("user");
+            transaction.setAccountId("acc" + random.nextInt(3));
+            transaction.setDate(FIRST.atDay(1).plusDays(random.nextInt(366)));
+            transaction.setType(random.nextInt(10) == 0 ? TransactionType.INCOME : TransactionType.EXPENSE);
+            // Registry ids are global, so one user's categories are few but their ids large
+            transaction.setCategoryId(1000 + random.nextInt(30) * 97);
+            transaction.setAmount(BigDecimal.valueOf(random.nextInt(100_000), 2));
+            transactions.add(transaction);
+        }
+        transactions.sort(Comparator.comparing(Transaction::getDate));
+        
+        LedgerColumns.Builder builder = new LedgerColumns.Builder(rows);
+        transactions.forEach(builder::add);
+        columns = builder.build();
+    }
+    
+    @Benchmark
+    public List<CategoryTotal> columnsMonth() {
+        return columns.categoryTotals(LAST.atDay(1), LAST.atEndOfMonth(), null);
+    }
+    
+    @Benchmark
+    public List<MonthlyRollup> columnsYear() {
+        return columns.monthlyRollups("user", FIRST, LAST);
+    }
+    
+    @Benchmark
+    public Map<String, BigDecimal> objectsMonth() {
+        return sum(LAST.atDay(1), LAST.atEndOfMonth());
+    }
+    
+    @Benchmark
+    public Map<String, BigDecimal> objectsYear() {
+        return sum(FIRST.atDay(1), LAST.atEndOfMonth());
+    }
+    
+    private Map<String, BigDecimal> sum(LocalDate from, LocalDate to) {
+        return transactions.stream()
+                .filter(transaction -> !transaction.getDate().isBefore(from) && !transaction.getDate().isAfter(to))
+                .collect(Collectors.groupingBy(
+                        transaction -> YearMonth.from(transaction.getDate()) + "|" + transaction.getType() + "|" + transaction.getCategoryId(),
+                        Collectors.reducing(BigDecimal.ZERO, Transaction::getAmount, BigDecimal::add)));
+    }
+}
@@ -0,0 +1,86 @@
+package com.wealth.finance.service;
+
+import com.wealth.finance.model.MonthlyRollup;
+import com.wealth.finance.model.Transaction;
+import com.wealth.finance.model.Transaction.TransactionType;
+import com.wealth.finance.repository.CategoryTotal;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LedgerColumnsTest {
+    
+    @Test
+    void totalsAreKeyedByTheOriginalCategoryIds() {
+        LedgerColumns columns = columns(
+                transaction("2024-03-01", TransactionType.EXPENSE, 90_001, "10.00", "a"),
+                transaction("2024-03-02", TransactionType.EXPENSE, 7, "2.50", "b"),
+                transaction("2024-03-03", TransactionType.EXPENSE, 90_001, "5.00", "a"),
+                transaction("2024-03-04", TransactionType.INCOME, null, "100.00", "a"),
+                transaction("2024-04-01", TransactionType.EXPENSE, 7, "1.00", "a"));
+        
+        Map<String, String> totals = summarize(columns.categoryTotals(LocalDate.parse("2024-03-01"), LocalDate.parse("2024-03-31"), null));
+        
+        assertEquals(Map.of("EXPENSE|90001", "15.00|2", "EXPENSE|7", "2.50|1", "INCOME|null", "100.00|1"), totals);
+        assertEquals(Map.of("EXPENSE|90001", "15.00|2", "INCOME|null", "100.00|1"),
+                summarize(columns.categoryTotals(LocalDate.parse("2024-03-01"), LocalDate.parse("2024-03-31"), "a")));
+    }
+    
+    @Test
+    void monthlyRollupsSplitTheRangeByMonth() {
+        LedgerColumns columns = columns(
+                transaction("2024-02-28", TransactionType.EXPENSE, 3, "1.00", "a"),
+                transaction("2024-03-31", TransactionType.EXPENSE, 3, "2.00", "a"),
+                transaction("2024-04-01", TransactionType.EXPENSE, 3, "4.00", "a"),
+                transaction("2024-05-01", TransactionType.EXPENSE, 3, "8.00", "a"));
+        
+        List<MonthlyRollup> rollups = columns.monthlyRollups("user", YearMonth.of(2024, 3), YearMonth.of(2024, 4));
+        
+        assertEquals(List.of("2024-03=2.00", "2024-04=4.00"), rollups.stream()
+                .map(rollup -> rollup.getYearMonth() + "=" + rollup.getTotal())
+                .collect(Collectors.toList()));
+    }
+    
+    @Test
+    void appliedWritesKeepNewCategoriesAndTheLoadTime() {
+        LedgerColumns columns = columns(transaction("2024-03-01", TransactionType.EXPENSE, 1, "1.00", "a"));
+        
+        LedgerColumns updated = columns.apply(List.of(), List.of(transaction("2024-03-02", TransactionType.EXPENSE, 42, "3.00", "c")));
+        
+        assertEquals(Map.of("EXPENSE|1", "1.00|1", "EXPENSE|42", "3.00|1"),
+                summarize(updated.categoryTotals(LocalDate.parse("2024-03-01"), LocalDate.parse("2024-03-31"), null)));
+        assertEquals(columns.loadedAt(), updated.loadedAt());
+    }
+    
+    private static LedgerColumns columns(Transaction... transactions) {
+        LedgerColumns.Builder builder = new LedgerColumns.Builder(transactions.length);
+        for (Transaction transaction : transactions) {
+            builder.add(transaction);
+        }
+        return builder.build();
+    }
+    
+    private static Map<String, String> summarize(List<CategoryTotal> totals) {
+        return totals.stream().collect(Collectors.toMap(
+                total -> total.getType() + "|" + total.getCategoryId(),
+                total -> total.getTotal() + "|" + total.getCount()));
+    }
+    
+    private static Transaction transaction(String date, TransactionType type, Integer categoryId, String amount, String accountId) {
+        Transaction transaction = new Transaction();
+        transaction.setId(new ObjectId().toHexString());
+        transaction.setDate(LocalDate.parse(date));
+        transaction.setType(type);
+        transaction.setCategoryId(categoryId);
+        transaction.setAmount(new BigDecimal(amount));
+        transaction.setAccountId(accountId);
+        return transaction;
+    }
+}
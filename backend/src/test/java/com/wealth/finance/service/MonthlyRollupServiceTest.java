@@ -0,0 +1,93 @@
+package com.wealth.finance.service;
+
+import com.wealth.finance.model.MonthlyRollup;
+import com.wealth.finance.model.Transaction.TransactionType;
+import com.wealth.finance.repository.MonthlyRollupRepository;
+import com.wealth.finance.repository.RollupDelta;
+import com.wealth.finance.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MonthlyRollupServiceTest {
+    
+    private static final LocalDateTime LONG_AGO = LocalDateTime.of(2024, 1, 1, 0, 0);
+    
+    private MonthlyRollupRepository rollupRepository;
+    private TransactionRepository transactionRepository;
+    private MonthlyRollupService rollupService;
+    
+    @BeforeEach
+    void setUp() {
+        rollupRepository = mock(MonthlyRollupRepository.class);
+        transactionRepository = mock(TransactionRepository.class);
+        when(transactionRepository.findWrittenSince(any(), any())).thenReturn(List.of());
+        rollupService = new MonthlyRollupService();
+        ReflectionTestUtils.setField(rollupService, "rollupRepository", rollupRepository);
+        ReflectionTestUtils.setField(rollupService, "transactionRepository", transactionRepository);
+        ReflectionTestUtils.setField(rollupService, "summaryCache", mock(ExpenseSummaryCache.class));
+        ReflectionTestUtils.setField(rollupService, "settle", Duration.ofMinutes(5));
+    }
+    
+    @Test
+    void correctsDriftFoundInBothReads() {
+        MonthlyRollup stale = rollup("2024-03", "30.00", 2, LONG_AGO);
+        when(rollupRepository.findByUserId("user")).thenReturn(List.of(stale), List.of(stale));
+        when(transactionRepository.computeMonthlyRollups("user")).thenReturn(List.of(rollup("2024-03", "10.00", 1, null)));
+        
+        assertEquals(1, rollupService.rebuild("user"));
+        
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<RollupDelta>> applied = ArgumentCaptor.forClass(Collection.class);
+        verify(rollupRepository).applyDeltas(applied.capture());
+        RollupDelta correction = new ArrayList<>(applied.getValue()).get(0);
+        assertEquals(new BigDecimal("-20.00"), correction.getAmount());
+        assertEquals(-1, correction.getCount());
+    }
+    
+    @Test
+    void skipsMonthWhoseOnlyRowWasDeletedBetweenTheReads() {
+        // The rollup was read before the delete; the aggregation no longer sees the row and the delete's
+        // own decrement removed the rollup, so correcting as well would take the row off twice
+        when(rollupRepository.findByUserId("user")).thenReturn(List.of(rollup("2024-03", "10.00", 1, LONG_AGO)), List.of());
+        when(transactionRepository.computeMonthlyRollups("user")).thenReturn(List.of());
+        
+        assertEquals(0, rollupService.rebuild("user"));
+        verify(rollupRepository, never()).applyDeltas(anyCollection());
+    }
+    
+    @Test
+    void skipsMonthsAMoveUpdatedBetweenTheReads() {
+        // A row moved from March to April after the first read: both rollups changed since
+        LocalDateTime justNow = LocalDateTime.now();
+        when(rollupRepository.findByUserId("user")).thenReturn(
+                List.of(rollup("2024-03", "30.00", 2, LONG_AGO), rollup("2024-04", "5.00", 1, LONG_AGO)),
+                List.of(rollup("2024-03", "20.00", 1, justNow), rollup("2024-04", "15.00", 2, justNow)));
+        when(transactionRepository.computeMonthlyRollups("user")).thenReturn(
+                List.of(rollup("2024-03", "20.00", 1, null), rollup("2024-04", "15.00", 2, null)));
+        
+        assertEquals(0, rollupService.rebuild("user"));
+        verify(rollupRepository, never()).applyDeltas(anyCollection());
+    }
+    
+    private static MonthlyRollup rollup(String yearMonth, String total, long count, LocalDateTime updatedAt) {
+        MonthlyRollup rollup = new MonthlyRollup("user", yearMonth, TransactionType.EXPENSE, 1, new BigDecimal(total), count);
+        rollup.setUpdatedAt(updatedAt);
+        return rollup;
+    }
+}
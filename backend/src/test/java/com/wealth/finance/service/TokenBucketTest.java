@@ -0,0 +1,67 @@
+package com.wealth.finance.service;
+
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketTest {
+    
+    @Test
+    void burstUpToCapacityDoesNotWait() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(5, 1);
+        
+        long started = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            bucket.acquire();
+        }
+        
+        assertTrue(elapsedMillis(started) < 500, "a full bucket should serve its capacity at once");
+    }
+    
+    @Test
+    void callsBeyondCapacityArePacedByTheRate() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(2, 20);
+        
+        long started = System.nanoTime();
+        for (int i = 0; i < 6; i++) {
+            bucket.acquire();
+        }
+        
+        // Four calls beyond the burst at 20 per second take at least 200 ms
+        long elapsed = elapsedMillis(started);
+        assertTrue(elapsed >= 190, "took " + elapsed + " ms");
+    }
+    
+    @Test
+    void concurrentCallersShareTheRate() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1, 20);
+        List<Thread> threads = new ArrayList<>();
+        
+        long started = System.nanoTime();
+        for (int i = 0; i < 5; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    bucket.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        
+        // Each waiter reserves its own token, so the last of five waits for four refills
+        long elapsed = elapsedMillis(started);
+        assertTrue(elapsed >= 190, "took " + elapsed + " ms");
+    }
+    
+    private static long elapsedMillis(long started) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+    }
+}
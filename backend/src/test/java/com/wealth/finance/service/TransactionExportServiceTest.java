@@ -0,0 +1,79 @@
+package com.wealth.finance.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wealth.finance.model.Transaction;
+import com.wealth.finance.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TransactionExportServiceTest {
+    
+    private TransactionRepository transactionRepository;
+    private TransactionExportService exportService;
+    
+    @BeforeEach
+    void setUp() {
+        transactionRepository = mock(TransactionRepository.class);
+        exportService = new TransactionExportService();
+        ReflectionTestUtils.setField(exportService, "transactionRepository", transactionRepository);
+        ReflectionTestUtils.setField(exportService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(exportService, "batchSize", 500);
+    }
+    
+    @Test
+    void csvCellsThatLookLikeFormulasAreWrittenAsText() throws Exception {
+        Transaction formula = transaction("=HYPERLINK(\"http://evil\",\"x\")", "Food");
+        Transaction plus = transaction("+1 bonus", "@Salary");
+        when(transactionRepository.streamAll(eq("user"), any(), any(), any(), anyInt()))
+                .thenReturn(Stream.of(formula, plus));
+        
+        String[] lines = exportCsv().split("\n");
+        
+        assertEquals(3, lines.length);
+        assertEquals("id1,2024-03-05,\"'=HYPERLINK(\"\"http://evil\"\",\"\"x\"\")\",-12.50,Food,EXPENSE,acc,false,", lines[1]);
+        assertEquals("id1,2024-03-05,'+1 bonus,-12.50,'@Salary,EXPENSE,acc,false,", lines[2]);
+    }
+    
+    @Test
+    void csvLeavesOrdinaryCellsAlone() throws Exception {
+        when(transactionRepository.streamAll(eq("user"), any(), any(), any(), anyInt()))
+                .thenReturn(Stream.of(transaction("Coffee, large", "Food")));
+        
+        String[] lines = exportCsv().split("\n");
+        
+        assertEquals("id1,2024-03-05,\"Coffee, large\",-12.50,Food,EXPENSE,acc,false,", lines[1]);
+    }
+    
+    @Test
+    void rejectsInvertedDateRange() {
+        assertThrows(RuntimeException.class, () -> exportService.export("user", TransactionExportService.ExportFormat.CSV,
+                null, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 1, 1)));
+    }
+    
+    private String exportCsv() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.export("user", TransactionExportService.ExportFormat.CSV, null, null, null).writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+    
+    private Transaction transaction(String description, String category) {
+        Transaction transaction = new Transaction(description, new BigDecimal("-12.50"), category, LocalDate.of(2024, 3, 5),
+                "acc", "user", Transaction.TransactionType.EXPENSE);
+        transaction.setId("id1");
+        return transaction;
+    }
+}
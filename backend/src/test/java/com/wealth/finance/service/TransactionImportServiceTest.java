@@ -0,0 +1,142 @@
+package com.wealth.finance.service;
+
+import com.wealth.finance.dto.ImportResponse;
+import com.wealth.finance.dto.TransactionRequest;
+import com.wealth.finance.model.Category;
+import com.wealth.finance.model.ImportFingerprint;
+import com.wealth.finance.model.Transaction;
+import com.wealth.finance.model.Transaction.TransactionType;
+import com.wealth.finance.service.TransactionImportService.ImportFormat;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TransactionImportServiceTest {
+    
+    private static final String USER = "user";
+    
+    private final List<Transaction> stored = new ArrayList<>();
+    private TransactionImportService importService;
+    
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        TransactionService transactionService = mock(TransactionService.class);
+        when(transactionService.toTransaction(any(TransactionRequest.class), eq(USER))).thenAnswer(invocation -> {
+            TransactionRequest request = invocation.getArgument(0);
+            return new Transaction(request.getDescription(), request.getAmount(), request.getCategory(), request.getDate(),
+                    request.getAccountId(), USER, request.getType());
+        });
+        when(transactionService.insertBatch(anyList())).thenAnswer(invocation -> {
+            List<Transaction> batch = invocation.getArgument(0);
+            stored.addAll(batch);
+            return batch;
+        });
+        
+        CategorizationEngine categorizationEngine = mock(CategorizationEngine.class);
+        when(categorizationEngine.categorizer(USER)).thenReturn((description, type) -> new Category(1, "Other", null, type, null));
+        
+        // Rows are duplicates only of what an earlier import of this test stored
+        DuplicateDetector duplicateDetector = mock(DuplicateDetector.class);
+        when(duplicateDetector.findDuplicates(eq(USER), anyCollection())).thenAnswer(invocation -> {
+            Set<String> existing = new HashSet<>();
+            stored.forEach(transaction -> existing.add(transaction.getImportFingerprint()));
+            existing.retainAll(invocation.getArgument(1));
+            return existing;
+        });
+        
+        Validator validator = mock(Validator.class);
+        when(validator.validate(any(TransactionRequest.class))).thenReturn(Set.of());
+        
+        importService = new TransactionImportService();
+        ReflectionTestUtils.setField(importService, "transactionService", transactionService);
+        ReflectionTestUtils.setField(importService, "accountService", mock(AccountService.class));
+        ReflectionTestUtils.setField(importService, "categorizationEngine", categorizationEngine);
+        ReflectionTestUtils.setField(importService, "categoryRegistry", mock(CategoryRegistry.class));
+        ReflectionTestUtils.setField(importService, "duplicateDetector", duplicateDetector);
+        ReflectionTestUtils.setField(importService, "validator", validator);
+        ReflectionTestUtils.setField(importService, "batchSize", 2);
+        ReflectionTestUtils.setField(importService, "maxTrackedRows", 3);
+    }
+    
+    @Test
+    void identicalRowsOfInterleavedAccountsAreNumberedPerDay() {
+        ImportResponse response = importCsv("date,description,amount,account\n"
+                + "2024-03-05,Coffee,-4.50,checking\n"
+                + "2024-03-05,Coffee,-4.50,card\n"
+                + "2024-03-05,Rent,-900.00,checking\n"
+                + "2024-03-05,Coffee,-4.50,checking\n"
+                + "2024-03-05,Coffee,-4.50,card\n");
+        
+        assertEquals(5, response.getImported());
+        assertEquals(0, response.getDuplicates());
+        String coffee = ImportFingerprint.key("checking", LocalDate.of(2024, 3, 5).toEpochDay(), 450, TransactionType.EXPENSE, "Coffee");
+        assertEquals(ImportFingerprint.of(coffee, 0), stored.get(0).getImportFingerprint());
+        assertEquals(ImportFingerprint.of(coffee, 1), stored.get(3).getImportFingerprint());
+        assertEquals(5, stored.stream().map(Transaction::getImportFingerprint).distinct().count());
+        
+        // The same statement again, in another order, is recognized row for row
+        ImportResponse again = importCsv("date,description,amount,account\n"
+                + "2024-03-05,Coffee,-4.50,card\n"
+                + "2024-03-05,Coffee,-4.50,checking\n"
+                + "2024-03-05,Coffee,-4.50,card\n"
+                + "2024-03-05,Coffee,-4.50,checking\n"
+                + "2024-03-05,Rent,-900.00,checking\n");
+        assertEquals(0, again.getImported());
+        assertEquals(5, again.getDuplicates());
+    }
+    
+    @Test
+    void chargeAndRefundOfTheSameAmountAreDifferentRows() {
+        ImportResponse response = importCsv("date,description,amount\n"
+                + "2024-03-05,Store,-25.00\n"
+                + "2024-03-05,Store,25.00\n");
+        
+        assertEquals(2, response.getImported());
+        assertEquals(0, response.getDuplicates());
+        assertNotEquals(stored.get(0).getImportFingerprint(), stored.get(1).getImportFingerprint());
+    }
+    
+    @Test
+    void sortedStatementsOutgrowTheBoundAndReturningToAForgottenDayIsRejected() {
+        StringBuilder sorted = new StringBuilder("date,description,amount\n");
+        for (int day = 1; day <= 20; day++) {
+            sorted.append(LocalDate.of(2024, 3, day)).append(",Coffee,-4.50\n");
+            sorted.append(LocalDate.of(2024, 3, day)).append(",Coffee,-4.50\n");
+        }
+        assertEquals(40, importCsv(sorted.toString()).getImported());
+        
+        String unsorted = "date,description,amount,account\n"
+                + "2024-04-01,Coffee,-4.50,checking\n"
+                + "2024-04-01,Lunch,-12.00,card\n"
+                + "2024-04-02,Coffee,-4.50,checking\n"
+                + "2024-04-02,Bus,-2.00,card\n"
+                + "2024-04-01,Coffee,-4.50,checking\n";
+        RuntimeException rejected = assertThrows(RuntimeException.class, () -> importCsv(unsorted));
+        assertTrue(rejected.getMessage().startsWith("Line 6 returns to 2024-04-01"), rejected.getMessage());
+    }
+    
+    private ImportResponse importCsv(String csv) {
+        MockMultipartFile file = new MockMultipartFile("file", "statement.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8));
+        return importService.importStatement(file, ImportFormat.CSV, "checking", USER);
+    }
+}
@@ -0,0 +1,146 @@
+package com.wealth.finance.service;
+
+import com.wealth.finance.dto.BatchOperationResponse;
+import com.wealth.finance.model.Category;
+import com.wealth.finance.model.Transaction;
+import com.wealth.finance.model.Transaction.TransactionType;
+import com.wealth.finance.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TransactionServiceBatchTest {
+    
+    private static final LocalDateTime READ_AT = LocalDateTime.of(2024, 3, 1, 12, 0);
+    
+    private TransactionRepository transactionRepository;
+    private MonthlyRollupService rollupService;
+    private CategoryRegistry categoryRegistry;
+    private TransactionService transactionService;
+    
+    @BeforeEach
+    void setUp() {
+        transactionRepository = mock(TransactionRepository.class);
+        rollupService = mock(MonthlyRollupService.class);
+        categoryRegistry = mock(CategoryRegistry.class);
+        transactionService = new TransactionService();
+        ReflectionTestUtils.setField(transactionService, "transactionRepository", transactionRepository);
+        ReflectionTestUtils.setField(transactionService, "rollupService", rollupService);
+        ReflectionTestUtils.setField(transactionService, "categoryRegistry", categoryRegistry);
+        ReflectionTestUtils.setField(transactionService, "accountService", mock(AccountService.class));
+        ReflectionTestUtils.setField(transactionService, "ledgerCache", mock(ColumnarLedgerCache.class));
+        ReflectionTestUtils.setField(transactionService, "autocompleteService", mock(AutocompleteService.class));
+        ReflectionTestUtils.setField(transactionService, "categorizationEngine", mock(CategorizationEngine.class));
+    }
+    
+    @Test
+    void deleteReversesEveryRowWhenAllWereRemoved() {
+        List<Transaction> rows = List.of(row("a", "10.00", 1), row("b", "20.00", 1));
+        when(transactionRepository.findLedgerFieldsByIds(eq("user"), anyCollection())).thenReturn(rows);
+        when(transactionRepository.deleteByVersions("user", rows)).thenReturn(2L);
+        
+        BatchOperationResponse response = transactionService.deleteTransactions(List.of("a", "b", "missing"), "user");
+        
+        assertEquals(2, response.getMatched());
+        assertEquals(2, response.getAffected());
+        verify(rollupService).recordDeleted(rows);
+    }
+    
+    @Test
+    void deleteRetriesRowsEditedSinceTheReadWithTheirNewValues() {
+        Transaction a = row("a", "10.00", 1);
+        Transaction b = row("b", "20.00", 1);
+        Transaction editedB = row("b", "25.00", 1);
+        editedB.setUpdatedAt(READ_AT.plusSeconds(1));
+        when(transactionRepository.findLedgerFieldsByIds(eq("user"), anyCollection()))
+                .thenReturn(List.of(a, b))
+                .thenReturn(List.of(editedB));
+        when(transactionRepository.deleteByVersions("user", List.of(a, b))).thenReturn(1L);
+        when(transactionRepository.deleteByVersions("user", List.of(editedB))).thenReturn(1L);
+        
+        BatchOperationResponse response = transactionService.deleteTransactions(List.of("a", "b"), "user");
+        
+        assertEquals(2, response.getAffected());
+        verify(rollupService).recordDeleted(List.of(a));
+        verify(rollupService).recordDeleted(List.of(editedB));
+        verify(rollupService, never()).recordDeleted(List.of(a, b));
+    }
+    
+    @Test
+    void deleteDoesNotReverseRowsAnotherRequestMayHaveRemoved() {
+        List<Transaction> rows = List.of(row("a", "10.00", 1), row("b", "20.00", 1));
+        when(transactionRepository.findLedgerFieldsByIds(eq("user"), anyCollection()))
+                .thenReturn(rows)
+                .thenReturn(List.of());
+        when(transactionRepository.deleteByVersions("user", rows)).thenReturn(1L);
+        
+        transactionService.deleteTransactions(List.of("a", "b"), "user");
+        
+        verify(rollupService, never()).recordDeleted(anyList());
+    }
+    
+    @Test
+    void recategorizeAppliesDeltasOnlyForRowsThisWriteMoved() {
+        Category groceries = new Category(7, "Groceries", "#00ff00", TransactionType.EXPENSE, null);
+        when(categoryRegistry.resolve("user", "Groceries", null)).thenReturn(groceries);
+        Transaction a = row("a", "10.00", 1);
+        Transaction b = row("b", "20.00", 1);
+        Transaction already = row("c", "5.00", 7);
+        AtomicReference<LocalDateTime> stamp = new AtomicReference<>();
+        when(transactionRepository.updateCategoryByVersions(eq("user"), anyCollection(), eq("Groceries"), eq(7), any()))
+                .thenAnswer(invocation -> {
+                    stamp.set(invocation.getArgument(4));
+                    return 1L;
+                });
+        when(transactionRepository.findLedgerFieldsByIds(eq("user"), anyCollection()))
+                .thenReturn(List.of(a, b, already))
+                .thenAnswer(invocation -> {
+                    Transaction movedA = row("a", "10.00", 7);
+                    movedA.setUpdatedAt(stamp.get());
+                    // b was moved to Groceries by another request in the meantime
+                    Transaction movedB = row("b", "20.00", 7);
+                    movedB.setUpdatedAt(READ_AT.plusSeconds(1));
+                    return List.of(movedA, movedB);
+                });
+        
+        BatchOperationResponse response = transactionService.recategorizeTransactions(List.of("a", "b", "c"), "Groceries", "user");
+        
+        assertEquals(3, response.getMatched());
+        assertEquals(1, response.getAffected());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Transaction>> before = ArgumentCaptor.forClass(Collection.class);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<Transaction>> after = ArgumentCaptor.forClass(Collection.class);
+        verify(rollupService, times(1)).recordUpdated(before.capture(), after.capture());
+        assertEquals(List.of("a"), before.getValue().stream().map(Transaction::getId).collect(Collectors.toList()));
+        assertEquals(7, after.getValue().iterator().next().getCategoryId());
+    }
+    
+    private Transaction row(String id, String amount, Integer categoryId) {
+        Transaction transaction = new Transaction("Shop", new BigDecimal(amount), "Food", LocalDate.of(2024, 3, 5),
+                "acc", "user", TransactionType.EXPENSE);
+        transaction.setId(id);
+        transaction.setCategoryId(categoryId);
+        transaction.setUpdatedAt(READ_AT);
+        return transaction;
+    }
+}